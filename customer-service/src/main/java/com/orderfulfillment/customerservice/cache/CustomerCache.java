@@ -0,0 +1,168 @@
+package com.orderfulfillment.customerservice.cache;
+
+import com.orderfulfillment.customerservice.dto.CustomerResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of customers by ID, serving customer lookups and existence checks.
+ *
+ * Customers are only changed through this service, so updates and deletes invalidate their
+ * entry, once right away and again when the transaction commits. Entries also expire after
+ * customer.cache.ttl, which bounds staleness when several instances run. A lookup that raced
+ * with an invalidation does not cache what it loaded.
+ *
+ * Once customer.cache.max-size is reached, each new entry evicts the oldest of a small sample.
+ */
+@Component
+public class CustomerCache {
+
+    private static final String CACHE_NAME = "customer";
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; lookups only cache what they loaded if it did not move
+    private final AtomicLong invalidations = new AtomicLong();
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Counter evictionCounter;
+
+    public CustomerCache(@Value("${customer.cache.max-size:10000}") int maxSize,
+                         @Value("${customer.cache.ttl:60000}") long ttlMillis,
+                         MeterRegistry meterRegistry) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .description("Customer lookups answered from the cache")
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .description("Customer lookups that went to the database")
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, CustomerCache::hitRatio)
+                .description("Share of customer lookups answered from the cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", entries, Map::size)
+                .description("Customers held in the customer cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("cache.evictions")
+                .description("Entries evicted to keep the customer cache within its size")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached customer, or null on a miss.
+     */
+    public CustomerResponseDto get(Long customerId) {
+        Entry entry = entries.get(customerId);
+        if (entry != null && now() - entry.expiresAtNanos > 0) {
+            entries.remove(customerId, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.customer;
+    }
+
+    /**
+     * Marker to take before loading a customer from the database and to pass to {@link #put}.
+     */
+    public long version() {
+        return invalidations.get();
+    }
+
+    public void put(Long customerId, CustomerResponseDto customer, long version) {
+        if (invalidations.get() != version) {
+            return;
+        }
+        Entry entry = new Entry(customer, now() + ttlNanos);
+        if (entries.put(customerId, entry) == null && entries.size() > maxSize) {
+            evictOne(customerId);
+        }
+        // An invalidation may have slipped in between the check and the put
+        if (invalidations.get() != version) {
+            entries.remove(customerId, entry);
+        }
+    }
+
+    public void invalidate(Long customerId) {
+        invalidations.incrementAndGet();
+        entries.remove(customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Readers may have reloaded the old state before the transaction committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidations.incrementAndGet();
+                    entries.remove(customerId);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private void evictOne(Long keep) {
+        Map.Entry<Long, Entry> oldest = null;
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        for (int sampled = 0; iterator.hasNext() && sampled < EVICTION_SAMPLE; sampled++) {
+            Map.Entry<Long, Entry> candidate = iterator.next();
+            if (candidate.getKey().equals(keep)) {
+                continue;
+            }
+            if (oldest == null || candidate.getValue().expiresAtNanos - oldest.getValue().expiresAtNanos < 0) {
+                oldest = candidate;
+            }
+        }
+        if (oldest != null && entries.remove(oldest.getKey(), oldest.getValue())) {
+            evictionCounter.increment();
+        }
+    }
+
+    private static long now() {
+        return System.nanoTime();
+    }
+
+    private static final class Entry {
+        private final CustomerResponseDto customer;
+        private final long expiresAtNanos;
+
+        private Entry(CustomerResponseDto customer, long expiresAtNanos) {
+            this.customer = customer;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
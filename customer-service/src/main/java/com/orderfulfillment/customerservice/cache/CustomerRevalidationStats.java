@@ -0,0 +1,43 @@
+package com.orderfulfillment.customerservice.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts conditional customer requests (If-None-Match / If-Modified-Since) and how many of
+ * them were answered with 304 Not Modified.
+ */
+@Component
+public class CustomerRevalidationStats {
+
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder modified = new LongAdder();
+
+    public CustomerRevalidationStats(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("customer.revalidations", notModified, LongAdder::sum)
+                .description("Conditional customer requests answered with 304 Not Modified")
+                .tag("result", "not-modified")
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.revalidations", modified, LongAdder::sum)
+                .description("Conditional customer requests whose copy was stale and got a full response")
+                .tag("result", "modified")
+                .register(meterRegistry);
+        Gauge.builder("customer.revalidation.hit.ratio", this, CustomerRevalidationStats::hitRatio)
+                .description("Share of conditional customer requests answered with 304 Not Modified")
+                .register(meterRegistry);
+    }
+
+    public void record(boolean wasNotModified) {
+        (wasNotModified ? notModified : modified).increment();
+    }
+
+    private double hitRatio() {
+        long hitCount = notModified.sum();
+        long total = hitCount + modified.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -1,10 +1,28 @@
 package com.orderfulfillment.customerservice.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.orderfulfillment.customerservice.cache.CustomerRevalidationStats;
+import com.orderfulfillment.customerservice.dto.CustomerBatchResponseDto;
+import com.orderfulfillment.customerservice.dto.CustomerChangePageDto;
+import com.orderfulfillment.customerservice.dto.CustomerExistsRequestDto;
+import com.orderfulfillment.customerservice.dto.CustomerExistsResponseDto;
+import com.orderfulfillment.customerservice.dto.CustomerImportResultDto;
+import com.orderfulfillment.customerservice.dto.CustomerPageDto;
 import com.orderfulfillment.customerservice.dto.CustomerRequestDto;
 import com.orderfulfillment.customerservice.dto.CustomerResponseDto;
+import com.orderfulfillment.customerservice.dto.CustomerSearchHitDto;
+import com.orderfulfillment.customerservice.dto.CustomerSearchResponseDto;
+import com.orderfulfillment.customerservice.exception.InvalidFieldSelectionException;
+import com.orderfulfillment.customerservice.feed.CustomerChangeLog;
+import com.orderfulfillment.customerservice.search.CustomerSearchIndex;
+import com.orderfulfillment.customerservice.service.CustomerImportService;
 import com.orderfulfillment.customerservice.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,11 +30,25 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/customers")
@@ -26,11 +58,30 @@ public class CustomerController {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
 
+    // Fields of CustomerResponseDto that listings can be narrowed to
+    private static final Set<String> CUSTOMER_FIELDS = Set.of("id", "firstName", "lastName", "email",
+            "phoneNumber", "address", "createdAt", "updatedAt");
+
     private final CustomerService customerService;
+    private final CustomerImportService customerImportService;
+    private final CustomerRevalidationStats revalidationStats;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final CustomerChangeLog customerChangeLog;
 
     @Autowired
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService,
+                              CustomerImportService customerImportService,
+                              CustomerRevalidationStats revalidationStats,
+                              CustomerSearchIndex customerSearchIndex,
+                              ObjectMapper objectMapper,
+                              CustomerChangeLog customerChangeLog) {
         this.customerService = customerService;
+        this.customerImportService = customerImportService;
+        this.revalidationStats = revalidationStats;
+        this.customerSearchIndex = customerSearchIndex;
+        this.objectMapper = objectMapper;
+        this.customerChangeLog = customerChangeLog;
     }
 
     @PostMapping
@@ -51,44 +102,82 @@ public class CustomerController {
         return new ResponseEntity<>(createdCustomer, HttpStatus.CREATED);
     }
 
+    @PostMapping(path = "/import", consumes = "text/csv")
+    @Operation(summary = "Bulk import customers from CSV",
+            description = "Streams a CSV file whose header names the firstName, lastName, email and optionally " +
+                    "phoneNumber and address columns. Valid rows are created; invalid rows and existing emails are " +
+                    "reported by line number")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; see the report for rejected rows"),
+            @ApiResponse(responseCode = "400", description = "Missing or unusable CSV header")
+    })
+    public ResponseEntity<CustomerImportResultDto> importCustomersCsv(InputStream body) {
+        logger.info("Received request to import customers from CSV");
+
+        CustomerImportResultDto result = customerImportService.importCsv(body);
+
+        logger.info("Customer CSV import finished: {}", result);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Bulk import customers from NDJSON",
+            description = "Streams one customer creation request per line. Valid rows are created; invalid rows " +
+                    "and existing emails are reported by line number")
+    @ApiResponse(responseCode = "200", description = "Import finished; see the report for rejected rows")
+    public ResponseEntity<CustomerImportResultDto> importCustomersNdjson(InputStream body) {
+        logger.info("Received request to import customers from NDJSON");
+
+        CustomerImportResultDto result = customerImportService.importNdjson(body);
+
+        logger.info("Customer NDJSON import finished: {}", result);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{customerId}")
     @Operation(summary = "Get customer by ID", description = "Retrieves a customer by their unique ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer found"),
+            @ApiResponse(responseCode = "304", description = "Customer unchanged since the caller's copy (If-None-Match / If-Modified-Since)"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
     public ResponseEntity<CustomerResponseDto> getCustomerById(
             @Parameter(description = "Customer ID", required = true)
-            @PathVariable Long customerId) {
+            @PathVariable Long customerId,
+            WebRequest webRequest) {
 
         logger.info("Received request to get customer with ID: {}", customerId);
 
         CustomerResponseDto customer = customerService.getCustomerById(customerId);
 
         logger.info("Customer retrieved successfully with ID: {}", customerId);
-        return ResponseEntity.ok(customer);
+        return withValidators(customer, webRequest);
     }
 
     @GetMapping("/email/{email}")
     @Operation(summary = "Get customer by email", description = "Retrieves a customer by their email address")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer found"),
+            @ApiResponse(responseCode = "304", description = "Customer unchanged since the caller's copy (If-None-Match / If-Modified-Since)"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
     public ResponseEntity<CustomerResponseDto> getCustomerByEmail(
             @Parameter(description = "Customer email", required = true)
-            @PathVariable String email) {
+            @PathVariable String email,
+            WebRequest webRequest) {
 
         logger.info("Received request to get customer with email: {}", email);
 
         CustomerResponseDto customer = customerService.getCustomerByEmail(email);
 
         logger.info("Customer retrieved successfully with email: {}", email);
-        return ResponseEntity.ok(customer);
+        return withValidators(customer, webRequest);
     }
 
     @GetMapping
-    @Operation(summary = "Get all customers", description = "Retrieves a list of all customers")
+    @Operation(summary = "Get all customers",
+            description = "Retrieves a list of all customers. Large tables are better read a page at a time with " +
+                    "'limit' or exported as NDJSON")
     @ApiResponse(responseCode = "200", description = "Customers retrieved successfully")
     public ResponseEntity<List<CustomerResponseDto>> getAllCustomers() {
 
@@ -100,6 +189,149 @@ public class CustomerController {
         return ResponseEntity.ok(customers);
     }
 
+    @GetMapping(params = "limit")
+    @Operation(summary = "Get a page of customers",
+            description = "Keyset-paginated listing in ID order. Pass the returned nextCursor as 'after' to fetch " +
+                    "the next page; the page size is capped by customer.listing.max-page-size. 'fields' narrows " +
+                    "each customer to the named fields")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = CustomerPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    public ResponseEntity<JsonNode> getCustomerPage(
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size") @RequestParam int limit,
+            @Parameter(description = "Comma-separated fields to include, e.g. id,email")
+            @RequestParam(required = false) Set<String> fields) {
+
+        checkFields(fields);
+        CustomerPageDto page = customerService.getCustomerPage(after, limit);
+
+        ObjectNode body = objectMapper.valueToTree(page);
+        if (fields != null) {
+            body.get("customers").forEach(customer -> ((ObjectNode) customer).retain(fields));
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export customers as NDJSON",
+            description = "Streams all customers in ID order, or those after 'after' to resume an export, one JSON " +
+                    "object per line. Memory use stays flat regardless of how many customers there are")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @Parameter(description = "Only customers with a greater ID") @RequestParam(required = false) Long after,
+            @Parameter(description = "Comma-separated fields to include, e.g. id,email")
+            @RequestParam(required = false) Set<String> fields) {
+
+        checkFields(fields);
+        logger.info("Received request to export customers after ID {}", after == null ? 0 : after);
+
+        StreamingResponseBody body = outputStream -> customerService.streamCustomers(after,
+                customer -> writeLine(outputStream, customer, fields));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Poll the customer change feed",
+            description = "Creates, updates and deletes after the given sequence, in commit order. Pass nextCursor " +
+                    "as 'after' on the next poll. A new consumer reads latestSequence first, loads all customers " +
+                    "(e.g. the NDJSON export) and then polls from that sequence; resetRequired asks it to do so again")
+    @ApiResponse(responseCode = "200", description = "Changes retrieved")
+    public ResponseEntity<CustomerChangePageDto> getChanges(
+            @Parameter(description = "Last sequence already seen; 0 or absent for the start")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Most changes to return (capped by the server)")
+            @RequestParam(defaultValue = "500") int limit) {
+
+        CustomerChangePageDto page = customerChangeLog.changesAfter(after, limit);
+        logger.debug("Returned {} customer changes after sequence {}", page.getChanges().size(), after);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search customers",
+            description = "Finds customers by partial first name, last name or email. Every whitespace-separated " +
+                    "term must match a word of the customer by prefix, substring or with a typo; exact matches rank first")
+    @ApiResponse(responseCode = "200", description = "Search completed")
+    public ResponseEntity<CustomerSearchResponseDto> searchCustomers(
+            @Parameter(description = "Search terms", required = true, example = "jon smi")
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of results (capped by the server)")
+            @RequestParam(defaultValue = "10") int limit) {
+
+        logger.info("Received request to search customers for '{}'", q);
+
+        boolean complete = customerSearchIndex.isReady();
+        List<CustomerSearchHitDto> hits = customerService.searchCustomers(q, limit);
+
+        logger.info("Customer search for '{}' returned {} results", q, hits.size());
+        return ResponseEntity.ok(new CustomerSearchResponseDto(q, hits, complete));
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get customers by IDs",
+            description = "Retrieves several customers at once. Customers are returned in request order, with null " +
+                    "where no customer has the ID; those IDs are also listed in missingIds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers retrieved"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs requested, or a blank ID")
+    })
+    public ResponseEntity<CustomerBatchResponseDto> getCustomersByIds(
+            @Parameter(description = "Comma-separated customer IDs", required = true)
+            @RequestParam List<Long> ids) {
+
+        logger.info("Received request to get {} customers by ID", ids.size());
+
+        List<CustomerResponseDto> customers = customerService.getCustomersByIds(ids);
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (customers.get(i) == null) {
+                missingIds.add(ids.get(i));
+            }
+        }
+
+        logger.info("Retrieved {} of {} customers", ids.size() - missingIds.size(), ids.size());
+        return ResponseEntity.ok(new CustomerBatchResponseDto(customers, missingIds));
+    }
+
+    @PostMapping("/exists")
+    @Operation(summary = "Check if customers exist",
+            description = "Checks several customer IDs at once and answers with a bitmap in request order " +
+                    "plus the IDs that do not exist")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Check completed"),
+            @ApiResponse(responseCode = "400", description = "No IDs, too many IDs or a null ID given")
+    })
+    public ResponseEntity<CustomerExistsResponseDto> existsByIds(
+            @Valid @RequestBody CustomerExistsRequestDto request) {
+
+        List<Long> ids = request.getIds();
+        logger.info("Received request to check if {} customers exist", ids.size());
+
+        BitSet existing = customerService.existsByIds(ids);
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (!existing.get(i)) {
+                missingIds.add(ids.get(i));
+            }
+        }
+        // toByteArray drops trailing zero bytes; pad so the bitmap covers every requested ID
+        byte[] bitmap = new byte[(ids.size() + 7) / 8];
+        byte[] set = existing.toByteArray();
+        System.arraycopy(set, 0, bitmap, 0, set.length);
+
+        logger.info("Customer exists check: {} of {} exist", existing.cardinality(), ids.size());
+        return ResponseEntity.ok(new CustomerExistsResponseDto(ids.size(), existing.cardinality(),
+                Base64.getEncoder().encodeToString(bitmap), missingIds));
+    }
+
     @PutMapping("/{customerId}")
     @Operation(summary = "Update customer", description = "Updates an existing customer with the provided details")
     @ApiResponses(value = {
@@ -118,7 +350,12 @@ public class CustomerController {
         CustomerResponseDto updatedCustomer = customerService.updateCustomer(customerId, customerRequestDto);
 
         logger.info("Customer updated successfully with ID: {}", customerId);
-        return ResponseEntity.ok(updatedCustomer);
+        if (updatedCustomer.getUpdatedAt() == null) {
+            return ResponseEntity.ok(updatedCustomer);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag(updatedCustomer))
+                .body(updatedCustomer);
     }
 
     @DeleteMapping("/{customerId}")
@@ -156,6 +393,64 @@ public class CustomerController {
         return ResponseEntity.ok(exists);
     }
 
+    /**
+     * Adds an ETag and Last-Modified derived from updatedAt, and answers 304 Not Modified when
+     * the caller's copy is still current.
+     */
+    private ResponseEntity<CustomerResponseDto> withValidators(CustomerResponseDto customer, WebRequest webRequest) {
+        if (customer.getUpdatedAt() == null) {
+            return ResponseEntity.ok(customer);
+        }
+        String eTag = eTag(customer);
+        long lastModified = customer.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        boolean conditional = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+        boolean notModified = webRequest.checkNotModified(eTag, lastModified);
+        if (conditional) {
+            revalidationStats.record(notModified);
+        }
+        if (notModified) {
+            logger.debug("Customer {} not modified since the caller's copy", customer.getId());
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .body(customer);
+    }
+
+    private static String eTag(CustomerResponseDto customer) {
+        // Microseconds, as stored by the database; Last-Modified only has whole seconds
+        Instant updatedAt = customer.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant();
+        long updatedAtMicros = updatedAt.getEpochSecond() * 1_000_000 + updatedAt.getNano() / 1_000;
+        return "\"" + customer.getId() + "-" + Long.toHexString(updatedAtMicros) + "\"";
+    }
+
+    private static void checkFields(Set<String> fields) {
+        if (fields != null && !CUSTOMER_FIELDS.containsAll(fields)) {
+            throw new InvalidFieldSelectionException("Unknown customer fields requested: " + fields.stream()
+                    .filter(field -> !CUSTOMER_FIELDS.contains(field)).sorted().toList()
+                    + "; available fields are " + CUSTOMER_FIELDS.stream().sorted().toList());
+        }
+    }
+
+    private void writeLine(OutputStream outputStream, CustomerResponseDto customer, Set<String> fields) {
+        try {
+            Object line = customer;
+            if (fields != null) {
+                line = objectMapper.<ObjectNode>valueToTree(customer).retain(fields);
+            }
+            outputStream.write(objectMapper.writeValueAsBytes(line));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stream customer " + customer.getId(), e);
+        }
+    }
+
     @GetMapping("/health")
     @Operation(summary = "Health check", description = "Simple health check endpoint")
     @ApiResponse(responseCode = "200", description = "Service is healthy")
@@ -0,0 +1,41 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Customers looked up by a list of IDs")
+public class CustomerBatchResponseDto {
+
+    @Schema(description = "One entry per requested ID, in request order; null where no customer has that ID")
+    private List<CustomerResponseDto> customers;
+
+    @Schema(description = "Requested IDs with no customer, in request order", example = "[7, 12]")
+    private List<Long> missingIds;
+
+    // Default constructor
+    public CustomerBatchResponseDto() {}
+
+    // Constructor with all fields
+    public CustomerBatchResponseDto(List<CustomerResponseDto> customers, List<Long> missingIds) {
+        this.customers = customers;
+        this.missingIds = missingIds;
+    }
+
+    // Getters and Setters
+    public List<CustomerResponseDto> getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(List<CustomerResponseDto> customers) {
+        this.customers = customers;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -0,0 +1,103 @@
+package com.orderfulfillment.customerservice.dto;
+
+import com.orderfulfillment.customerservice.enums.CustomerChangeType;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "One customer change from the change feed")
+public class CustomerChangeDto {
+
+    @Schema(description = "Position in the feed; increases in commit order", example = "1042")
+    private Long sequence;
+
+    @Schema(description = "Changed customer", example = "1")
+    private Long customerId;
+
+    @Schema(description = "What happened to the customer", example = "UPDATED")
+    private CustomerChangeType type;
+
+    @Schema(description = "First name after the change; null for deletions", example = "John")
+    private String firstName;
+
+    @Schema(description = "Last name after the change; null for deletions", example = "Doe")
+    private String lastName;
+
+    @Schema(description = "Email after the change; null for deletions", example = "john.doe@example.com")
+    private String email;
+
+    @Schema(description = "When the change was made")
+    private LocalDateTime changedAt;
+
+    // Default constructor
+    public CustomerChangeDto() {}
+
+    // Constructor with all fields
+    public CustomerChangeDto(Long sequence, Long customerId, CustomerChangeType type, String firstName,
+                             String lastName, String email, LocalDateTime changedAt) {
+        this.sequence = sequence;
+        this.customerId = customerId;
+        this.type = type;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.changedAt = changedAt;
+    }
+
+    // Getters and Setters
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public CustomerChangeType getType() {
+        return type;
+    }
+
+    public void setType(CustomerChangeType type) {
+        this.type = type;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
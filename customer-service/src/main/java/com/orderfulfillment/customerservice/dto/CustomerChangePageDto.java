@@ -0,0 +1,68 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of the customer change feed")
+public class CustomerChangePageDto {
+
+    @Schema(description = "Changes after the requested sequence, in sequence order")
+    private List<CustomerChangeDto> changes;
+
+    @Schema(description = "Value to pass as 'after' for the next poll", example = "1042")
+    private Long nextCursor;
+
+    @Schema(description = "Latest sequence committed when the page was read; the consumer is caught up once " +
+            "nextCursor reaches it", example = "1042")
+    private Long latestSequence;
+
+    @Schema(description = "True if changes after the requested sequence were already pruned; the consumer must " +
+            "reload all customers and continue from latestSequence")
+    private boolean resetRequired;
+
+    // Default constructor
+    public CustomerChangePageDto() {}
+
+    // Constructor with all fields
+    public CustomerChangePageDto(List<CustomerChangeDto> changes, Long nextCursor, Long latestSequence,
+                                 boolean resetRequired) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+        this.latestSequence = latestSequence;
+        this.resetRequired = resetRequired;
+    }
+
+    // Getters and Setters
+    public List<CustomerChangeDto> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<CustomerChangeDto> changes) {
+        this.changes = changes;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getLatestSequence() {
+        return latestSequence;
+    }
+
+    public void setLatestSequence(Long latestSequence) {
+        this.latestSequence = latestSequence;
+    }
+
+    public boolean isResetRequired() {
+        return resetRequired;
+    }
+
+    public void setResetRequired(boolean resetRequired) {
+        this.resetRequired = resetRequired;
+    }
+}
@@ -0,0 +1,32 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+@Schema(description = "Customer IDs to check for existence")
+public class CustomerExistsRequestDto {
+
+    @NotEmpty(message = "At least one customer ID is required")
+    @Schema(description = "Customer IDs, in the order the answer should use", example = "[1, 2, 7]", required = true)
+    private List<@NotNull(message = "Customer IDs must not be null") Long> ids;
+
+    // Default constructor
+    public CustomerExistsRequestDto() {}
+
+    // Constructor with all fields
+    public CustomerExistsRequestDto(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,66 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Existence of a list of customer IDs")
+public class CustomerExistsResponseDto {
+
+    @Schema(description = "Number of IDs checked", example = "3")
+    private int count;
+
+    @Schema(description = "Number of IDs that belong to a customer", example = "2")
+    private int existingCount;
+
+    @Schema(description = "Base64 bitmap in request order: bit i (least significant bit first within each byte) " +
+            "is set if the i-th ID exists", example = "Aw==")
+    private String bitmap;
+
+    @Schema(description = "Requested IDs with no customer, in request order", example = "[7]")
+    private List<Long> missingIds;
+
+    // Default constructor
+    public CustomerExistsResponseDto() {}
+
+    // Constructor with all fields
+    public CustomerExistsResponseDto(int count, int existingCount, String bitmap, List<Long> missingIds) {
+        this.count = count;
+        this.existingCount = existingCount;
+        this.bitmap = bitmap;
+        this.missingIds = missingIds;
+    }
+
+    // Getters and Setters
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public int getExistingCount() {
+        return existingCount;
+    }
+
+    public void setExistingCount(int existingCount) {
+        this.existingCount = existingCount;
+    }
+
+    public String getBitmap() {
+        return bitmap;
+    }
+
+    public void setBitmap(String bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -0,0 +1,60 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A row of a bulk customer import that was not imported")
+public class CustomerImportErrorDto {
+
+    @Schema(description = "Line number of the row in the uploaded file", example = "42")
+    private long line;
+
+    @Schema(description = "Email of the row, if it could be read", example = "john.doe@example.com")
+    private String email;
+
+    @Schema(description = "Why the row was not imported", example = "Customer already exists with this email")
+    private String message;
+
+    // Default constructor
+    public CustomerImportErrorDto() {}
+
+    // Constructor with all fields
+    public CustomerImportErrorDto(long line, String email, String message) {
+        this.line = line;
+        this.email = email;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerImportErrorDto{" +
+                "line=" + line +
+                ", email='" + email + '\'' +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,101 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of a bulk customer import")
+public class CustomerImportResultDto {
+
+    @Schema(description = "Data rows read from the file", example = "500000")
+    private long received;
+
+    @Schema(description = "Customers created", example = "499120")
+    private long imported;
+
+    @Schema(description = "Rows not imported because they were invalid or duplicates", example = "880")
+    private long rejected;
+
+    @Schema(description = "Time taken by the import in milliseconds", example = "14250")
+    private long durationMillis;
+
+    @Schema(description = "Rejected rows, in file order, up to the reporting limit")
+    private List<CustomerImportErrorDto> errors;
+
+    @Schema(description = "True if more rows were rejected than are listed in errors", example = "false")
+    private boolean errorsTruncated;
+
+    // Default constructor
+    public CustomerImportResultDto() {}
+
+    // Constructor with all fields
+    public CustomerImportResultDto(long received, long imported, long rejected, long durationMillis,
+                                   List<CustomerImportErrorDto> errors, boolean errorsTruncated) {
+        this.received = received;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.durationMillis = durationMillis;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    // Getters and Setters
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public List<CustomerImportErrorDto> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<CustomerImportErrorDto> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerImportResultDto{" +
+                "received=" + received +
+                ", imported=" + imported +
+                ", rejected=" + rejected +
+                ", durationMillis=" + durationMillis +
+                ", errorsTruncated=" + errorsTruncated +
+                '}';
+    }
+}
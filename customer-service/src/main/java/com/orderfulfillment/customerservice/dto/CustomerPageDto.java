@@ -0,0 +1,41 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of customers in ID order")
+public class CustomerPageDto {
+
+    @Schema(description = "Customers on this page; only the requested fields when a field set is given")
+    private List<CustomerResponseDto> customers;
+
+    @Schema(description = "Value to pass as 'after' for the next page; null on the last page", example = "1500")
+    private Long nextCursor;
+
+    // Default constructor
+    public CustomerPageDto() {}
+
+    // Constructor with all fields
+    public CustomerPageDto(List<CustomerResponseDto> customers, Long nextCursor) {
+        this.customers = customers;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<CustomerResponseDto> getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(List<CustomerResponseDto> customers) {
+        this.customers = customers;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
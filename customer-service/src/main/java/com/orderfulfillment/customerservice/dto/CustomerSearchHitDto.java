@@ -0,0 +1,40 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A customer matching a search, with how well it matched")
+public class CustomerSearchHitDto {
+
+    @Schema(description = "Relevance; higher is better. Each query term adds up to 1 for an exact match, " +
+            "less for prefix, fuzzy and substring matches", example = "1.75")
+    private float score;
+
+    @Schema(description = "The matching customer")
+    private CustomerResponseDto customer;
+
+    // Default constructor
+    public CustomerSearchHitDto() {}
+
+    // Constructor with all fields
+    public CustomerSearchHitDto(float score, CustomerResponseDto customer) {
+        this.score = score;
+        this.customer = customer;
+    }
+
+    // Getters and Setters
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+
+    public CustomerResponseDto getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(CustomerResponseDto customer) {
+        this.customer = customer;
+    }
+}
@@ -0,0 +1,53 @@
+package com.orderfulfillment.customerservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Customers matching a search query, best match first")
+public class CustomerSearchResponseDto {
+
+    @Schema(description = "The query as given", example = "jon smi")
+    private String query;
+
+    @Schema(description = "Best matching customers, best first")
+    private List<CustomerSearchHitDto> hits;
+
+    @Schema(description = "False while the search index is still being built at startup; results may be incomplete")
+    private boolean complete;
+
+    // Default constructor
+    public CustomerSearchResponseDto() {}
+
+    // Constructor with all fields
+    public CustomerSearchResponseDto(String query, List<CustomerSearchHitDto> hits, boolean complete) {
+        this.query = query;
+        this.hits = hits;
+        this.complete = complete;
+    }
+
+    // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public List<CustomerSearchHitDto> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<CustomerSearchHitDto> hits) {
+        this.hits = hits;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
@@ -1,5 +1,8 @@
 package com.orderfulfillment.customerservice.entity;
 
+import com.orderfulfillment.customerservice.feed.CustomerChangeListener;
+import com.orderfulfillment.customerservice.filter.CustomerFilterListener;
+import com.orderfulfillment.customerservice.search.CustomerSearchListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -11,6 +14,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "customers")
+@EntityListeners({CustomerFilterListener.class, CustomerSearchListener.class, CustomerChangeListener.class})
 public class Customer {
 
     @Id
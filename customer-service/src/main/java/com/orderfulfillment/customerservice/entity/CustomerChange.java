@@ -0,0 +1,110 @@
+package com.orderfulfillment.customerservice.entity;
+
+import com.orderfulfillment.customerservice.enums.CustomerChangeType;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the customer change feed. Sequences are assigned in commit order, so a consumer
+ * that has read up to some sequence has seen every change committed before it.
+ */
+@Entity
+@Table(name = "customer_changes",
+        indexes = @Index(name = "idx_customer_changes_changed_at", columnList = "changed_at"))
+public class CustomerChange {
+
+    @Id
+    @Column(name = "change_sequence")
+    private Long sequence;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private CustomerChangeType changeType;
+
+    // Summary fields as of the change; null for deletions
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // Default constructor
+    public CustomerChange() {}
+
+    // Constructor with the changed customer; sequence and time are set when it is recorded
+    public CustomerChange(Long customerId, CustomerChangeType changeType, String firstName, String lastName,
+                          String email) {
+        this.customerId = customerId;
+        this.changeType = changeType;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    // Getters and Setters
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public CustomerChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(CustomerChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
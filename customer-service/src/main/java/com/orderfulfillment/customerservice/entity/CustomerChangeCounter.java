@@ -0,0 +1,61 @@
+package com.orderfulfillment.customerservice.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Single row holding the last sequence handed out to the change feed and how far the feed has
+ * been pruned. Writers take the row lock to allocate sequences, which serializes them until
+ * commit and keeps sequences in commit order.
+ */
+@Entity
+@Table(name = "customer_change_counter")
+public class CustomerChangeCounter {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    @Column(name = "pruned_through", nullable = false)
+    private long prunedThrough;
+
+    // Default constructor
+    public CustomerChangeCounter() {}
+
+    // Constructor for the single counter row
+    public CustomerChangeCounter(Integer id) {
+        this.id = id;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    /**
+     * Changes up to this sequence have been pruned; consumers behind it must start over.
+     */
+    public long getPrunedThrough() {
+        return prunedThrough;
+    }
+
+    public void setPrunedThrough(long prunedThrough) {
+        this.prunedThrough = prunedThrough;
+    }
+}
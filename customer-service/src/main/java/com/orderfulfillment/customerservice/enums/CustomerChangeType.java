@@ -0,0 +1,17 @@
+package com.orderfulfillment.customerservice.enums;
+
+public enum CustomerChangeType {
+    CREATED("Customer was created"),
+    UPDATED("Customer details were changed"),
+    DELETED("Customer was deleted");
+
+    private final String description;
+
+    CustomerChangeType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,12 @@
+package com.orderfulfillment.customerservice.exception;
+
+public class InvalidFieldSelectionException extends RuntimeException {
+
+    public InvalidFieldSelectionException(String message) {
+        super(message);
+    }
+
+    public InvalidFieldSelectionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
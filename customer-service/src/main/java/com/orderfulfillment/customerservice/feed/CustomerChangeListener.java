@@ -0,0 +1,44 @@
+package com.orderfulfillment.customerservice.feed;
+
+import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.entity.CustomerChange;
+import com.orderfulfillment.customerservice.enums.CustomerChangeType;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends every customer write made through JPA to the change feed, in the same transaction.
+ */
+@Component
+public class CustomerChangeListener {
+
+    // Looked up lazily: the change log depends on repositories, which are built with this listener
+    private final ObjectProvider<CustomerChangeLog> changeLog;
+
+    public CustomerChangeListener(ObjectProvider<CustomerChangeLog> changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    @PostPersist
+    public void onCreated(Customer customer) {
+        record(customer, CustomerChangeType.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdated(Customer customer) {
+        record(customer, CustomerChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void onRemoved(Customer customer) {
+        changeLog.getObject().record(new CustomerChange(customer.getId(), CustomerChangeType.DELETED, null, null, null));
+    }
+
+    private void record(Customer customer, CustomerChangeType type) {
+        changeLog.getObject().record(new CustomerChange(customer.getId(), type, customer.getFirstName(),
+                customer.getLastName(), customer.getEmail()));
+    }
+}
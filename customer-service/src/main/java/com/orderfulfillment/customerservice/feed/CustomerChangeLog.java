@@ -0,0 +1,177 @@
+package com.orderfulfillment.customerservice.feed;
+
+import com.orderfulfillment.customerservice.dto.CustomerChangeDto;
+import com.orderfulfillment.customerservice.dto.CustomerChangePageDto;
+import com.orderfulfillment.customerservice.entity.CustomerChange;
+import com.orderfulfillment.customerservice.entity.CustomerChangeCounter;
+import com.orderfulfillment.customerservice.mapper.CustomerMapper;
+import com.orderfulfillment.customerservice.repository.CustomerChangeCounterRepository;
+import com.orderfulfillment.customerservice.repository.CustomerChangeRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Ordered feed of customer creates, updates and deletes that other services poll by cursor.
+ *
+ * Changes are written in the same transaction as the customer itself. Their sequences come
+ * from a single counter row whose lock is held until commit, so sequences increase in commit
+ * order: a consumer that has read up to sequence N will never later see a change below N.
+ * The price is that transactions writing customers commit one at a time.
+ *
+ * Changes are kept for customer.feed.retention. A consumer whose cursor falls behind the pruned
+ * part gets resetRequired and must reload all customers.
+ */
+@Component
+public class CustomerChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerChangeLog.class);
+
+    private static final String ALLOCATE_SQL =
+            "UPDATE customer_change_counter SET last_sequence = last_sequence + ? WHERE id = " + CustomerChangeCounter.ID;
+    private static final String LAST_SEQUENCE_SQL =
+            "SELECT last_sequence FROM customer_change_counter WHERE id = " + CustomerChangeCounter.ID;
+    private static final String PRUNED_SQL =
+            "UPDATE customer_change_counter SET pruned_through = ? WHERE id = " + CustomerChangeCounter.ID +
+                    " AND pruned_through < ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO customer_changes (change_sequence, customer_id, change_type, first_name, last_name, email, " +
+                    "changed_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final CustomerChangeRepository changeRepository;
+    private final CustomerChangeCounterRepository counterRepository;
+    private final CustomerMapper customerMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate pruneTransaction;
+
+    @Value("${customer.feed.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${customer.feed.retention:604800000}")
+    private long retentionMillis;
+
+    public CustomerChangeLog(CustomerChangeRepository changeRepository,
+                             CustomerChangeCounterRepository counterRepository,
+                             CustomerMapper customerMapper,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.changeRepository = changeRepository;
+        this.counterRepository = counterRepository;
+        this.customerMapper = customerMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pruneTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates the counter row before anything can write a customer.
+     */
+    @PostConstruct
+    public void ensureCounter() {
+        if (counterRepository.existsById(CustomerChangeCounter.ID)) {
+            return;
+        }
+        try {
+            counterRepository.save(new CustomerChangeCounter(CustomerChangeCounter.ID));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Customer change counter was created concurrently");
+        }
+    }
+
+    public void record(CustomerChange change) {
+        recordAll(List.of(change));
+    }
+
+    /**
+     * Appends changes to the feed, in the caller's transaction, with consecutive sequences in
+     * list order.
+     */
+    public void recordAll(List<CustomerChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Customer changes must be recorded in the transaction that makes them");
+        }
+
+        // Locks the counter row until this transaction ends
+        jdbcTemplate.update(ALLOCATE_SQL, changes.size());
+        long sequence = jdbcTemplate.queryForObject(LAST_SEQUENCE_SQL, Long.class) - changes.size();
+        LocalDateTime now = LocalDateTime.now();
+        for (CustomerChange change : changes) {
+            change.setSequence(++sequence);
+            change.setChangedAt(now);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes, changes.size(), (statement, change) -> {
+            statement.setLong(1, change.getSequence());
+            statement.setLong(2, change.getCustomerId());
+            statement.setString(3, change.getChangeType().name());
+            statement.setString(4, change.getFirstName());
+            statement.setString(5, change.getLastName());
+            statement.setString(6, change.getEmail());
+            statement.setTimestamp(7, Timestamp.valueOf(change.getChangedAt()));
+        });
+    }
+
+    /**
+     * Changes after the given sequence (from the start when null), capped by
+     * customer.feed.max-page-size.
+     */
+    public CustomerChangePageDto changesAfter(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        long afterSequence = after == null ? 0L : after;
+
+        return readOnlyTransaction.execute(status -> {
+            // Read first: every change up to the committed counter value is itself committed
+            CustomerChangeCounter counter = counterRepository.findById(CustomerChangeCounter.ID)
+                    .orElseThrow(() -> new IllegalStateException("Customer change counter is missing"));
+            if (afterSequence < counter.getPrunedThrough()) {
+                logger.info("Change feed read after sequence {} needs a reset; pruned through {}",
+                        afterSequence, counter.getPrunedThrough());
+                return new CustomerChangePageDto(List.of(), afterSequence, counter.getLastSequence(), true);
+            }
+
+            List<CustomerChangeDto> changes = changeRepository
+                    .findBySequenceGreaterThanOrderBySequenceAsc(afterSequence, Limit.of(pageSize))
+                    .stream()
+                    .map(customerMapper::toChangeDto)
+                    .collect(Collectors.toList());
+            Long nextCursor = changes.isEmpty() ? afterSequence : changes.get(changes.size() - 1).getSequence();
+            return new CustomerChangePageDto(changes, nextCursor, counter.getLastSequence(), false);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${customer.feed.prune-interval:3600000}",
+            initialDelayString = "${customer.feed.prune-interval:3600000}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(retentionMillis));
+        pruneTransaction.executeWithoutResult(status -> {
+            Long through = changeRepository.findLastSequenceBefore(cutoff);
+            if (through == null) {
+                return;
+            }
+            // Mark the pruned range first so no reader treats the gap as an empty feed
+            jdbcTemplate.update(PRUNED_SQL, through, through);
+            int deleted = changeRepository.deleteThrough(through);
+            logger.info("Pruned {} customer changes through sequence {}", deleted, through);
+        });
+    }
+}
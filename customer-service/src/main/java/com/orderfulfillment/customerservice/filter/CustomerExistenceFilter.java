@@ -0,0 +1,205 @@
+package com.orderfulfillment.customerservice.filter;
+
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over customer emails, so the uniqueness check for a new email usually needs no
+ * query. A "maybe" still goes to the database.
+ *
+ * The filter is kept per instance and only learns about writes made on this instance, so a
+ * "no" only means no customer had the email as far as this instance knows. It is used only
+ * where the unique constraint on email backs it up: a duplicate it misses is rejected by the
+ * database. It is never used to answer whether a customer exists.
+ *
+ * The filter is built from a streaming scan once the application is ready and rebuilt every
+ * customer.filter.rebuild-interval. Until the first build finishes every check answers "maybe".
+ * New and changed emails are added as they are written, and again after commit so a rebuild
+ * running at the same time cannot miss them.
+ *
+ * Bloom filters cannot forget keys: old emails keep answering "maybe" (one query, as before)
+ * until the next rebuild drops them.
+ */
+@Component
+public class CustomerExistenceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerExistenceFilter.class);
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double falsePositiveRate;
+    private final long minCapacity;
+    private final double growthHeadroom;
+
+    private final Counter negativeCounter;
+    private final Counter maybeCounter;
+    private final Counter falsePositiveCounter;
+
+    // Null until the first build has finished
+    private volatile BloomFilter current;
+    // Set while a rebuild is scanning, so emails written meanwhile reach the new filter too
+    private volatile BloomFilter building;
+
+    public CustomerExistenceFilter(CustomerRepository customerRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${customer.filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                   @Value("${customer.filter.min-capacity:10000}") long minCapacity,
+                                   @Value("${customer.filter.growth-headroom:2.0}") double growthHeadroom,
+                                   MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.falsePositiveRate = falsePositiveRate;
+        this.minCapacity = minCapacity;
+        this.growthHeadroom = Math.max(1.0, growthHeadroom);
+
+        this.negativeCounter = Counter.builder("customer.filter.checks")
+                .description("Email checks answered by the filter without a query")
+                .tags("filter", "email", "result", "negative")
+                .register(meterRegistry);
+        this.maybeCounter = Counter.builder("customer.filter.checks")
+                .description("Email checks the filter passed on to the database")
+                .tags("filter", "email", "result", "maybe")
+                .register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("customer.filter.false-positives")
+                .description("Checks the filter passed on that the database answered with no")
+                .tag("filter", "email")
+                .register(meterRegistry);
+        gauge("customer.filter.memory", "Memory held by the filter", "bytes",
+                BloomFilter::memoryBytes, meterRegistry);
+        gauge("customer.filter.entries", "Emails added to the filter since it was built", null,
+                BloomFilter::entries, meterRegistry);
+        gauge("customer.filter.expected-false-positive-rate", "False positive rate at the filter's current fill",
+                null, BloomFilter::expectedFalsePositiveRate, meterRegistry);
+    }
+
+    /**
+     * False only if no customer written through this instance, or present at the last build,
+     * has this email.
+     */
+    public boolean mightContainEmail(String email) {
+        BloomFilter filter = current;
+        if (filter == null) {
+            return true;
+        }
+        boolean maybe = filter.mightContain(BloomFilter.hash(email));
+        (maybe ? maybeCounter : negativeCounter).increment();
+        return maybe;
+    }
+
+    /**
+     * Reports that a "maybe" turned out to be a "no" in the database.
+     */
+    public void recordEmailFalsePositive() {
+        falsePositiveCounter.increment();
+    }
+
+    /**
+     * Adds the email of a customer that was just inserted or whose email changed.
+     */
+    public void record(String email) {
+        if (email == null) {
+            return;
+        }
+        long emailHash = BloomFilter.hash(email);
+        Runnable add = () -> {
+            add(current, emailHash);
+            add(building, emailHash);
+        };
+        add.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add.run();
+                }
+            });
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${customer.filter.rebuild-interval:3600000}",
+            initialDelayString = "${customer.filter.rebuild-interval:3600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // The previous filters stay in use
+            logger.error("Error occurred while rebuilding customer existence filters", e);
+        }
+    }
+
+    /**
+     * Builds a new filter from a scan of all customer emails and swaps it in.
+     */
+    public synchronized void rebuild() {
+        long startNanos = System.nanoTime();
+        long expected = Math.max(minCapacity, (long) Math.ceil(customerRepository.count() * growthHeadroom));
+        BloomFilter filter = BloomFilter.create(expected, falsePositiveRate);
+
+        // Set before the scan starts: anything committed later is added by record()
+        building = filter;
+        long scanned;
+        try {
+            scanned = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<String> emails = customerRepository.streamAllEmails()) {
+                    for (String email : (Iterable<String>) emails::iterator) {
+                        add(filter, BloomFilter.hash(email));
+                        count++;
+                    }
+                }
+                return count;
+            });
+            current = filter;
+        } finally {
+            building = null;
+        }
+
+        logger.info("Built customer email filter from {} customers in {} ms (sized for {}, {} KiB)",
+                scanned, (System.nanoTime() - startNanos) / 1_000_000, expected, filter.memoryBytes() / 1024);
+    }
+
+    private static void add(BloomFilter filter, long emailHash) {
+        if (filter != null) {
+            filter.add(emailHash);
+        }
+    }
+
+    private void gauge(String meter, String description, String baseUnit,
+                       ToDoubleFunction<BloomFilter> value, MeterRegistry meterRegistry) {
+        Gauge.builder(meter, this, owner -> {
+                    BloomFilter filter = owner.current;
+                    return filter == null ? 0.0 : value.applyAsDouble(filter);
+                })
+                .description(description)
+                .baseUnit(baseUnit)
+                .tag("filter", "email")
+                .register(meterRegistry);
+    }
+}
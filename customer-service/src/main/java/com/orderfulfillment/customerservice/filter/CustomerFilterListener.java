@@ -0,0 +1,28 @@
+package com.orderfulfillment.customerservice.filter;
+
+import com.orderfulfillment.customerservice.entity.Customer;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the email filter current for every customer written through JPA, whichever code
+ * path writes it.
+ */
+@Component
+public class CustomerFilterListener {
+
+    // Looked up lazily: the filter depends on the repository, which is built with this listener
+    private final ObjectProvider<CustomerExistenceFilter> existenceFilter;
+
+    public CustomerFilterListener(ObjectProvider<CustomerExistenceFilter> existenceFilter) {
+        this.existenceFilter = existenceFilter;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWritten(Customer customer) {
+        existenceFilter.getObject().record(customer.getEmail());
+    }
+}
@@ -1,8 +1,10 @@
 package com.orderfulfillment.customerservice.mapper;
 
+import com.orderfulfillment.customerservice.dto.CustomerChangeDto;
 import com.orderfulfillment.customerservice.dto.CustomerRequestDto;
 import com.orderfulfillment.customerservice.dto.CustomerResponseDto;
 import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.entity.CustomerChange;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -47,6 +49,18 @@ public class CustomerMapper {
         return responseDto;
     }
 
+    /**
+     * Convert CustomerChange Entity to CustomerChangeDto
+     */
+    public CustomerChangeDto toChangeDto(CustomerChange change) {
+        if (change == null) {
+            return null;
+        }
+
+        return new CustomerChangeDto(change.getSequence(), change.getCustomerId(), change.getChangeType(),
+                change.getFirstName(), change.getLastName(), change.getEmail(), change.getChangedAt());
+    }
+
     /**
      * Update existing Customer Entity from CustomerRequestDto
      */
@@ -0,0 +1,9 @@
+package com.orderfulfillment.customerservice.repository;
+
+import com.orderfulfillment.customerservice.entity.CustomerChangeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustomerChangeCounterRepository extends JpaRepository<CustomerChangeCounter, Integer> {
+}
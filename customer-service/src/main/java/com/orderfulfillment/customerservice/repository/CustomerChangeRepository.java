@@ -0,0 +1,28 @@
+package com.orderfulfillment.customerservice.repository;
+
+import com.orderfulfillment.customerservice.entity.CustomerChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CustomerChangeRepository extends JpaRepository<CustomerChange, Long> {
+
+    /**
+     * Keyset page of the feed: changes after the given sequence, in sequence order.
+     */
+    List<CustomerChange> findBySequenceGreaterThanOrderBySequenceAsc(Long afterSequence, Limit limit);
+
+    @Query("SELECT MAX(c.sequence) FROM CustomerChange c WHERE c.changedAt < :cutoff")
+    Long findLastSequenceBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM CustomerChange c WHERE c.sequence <= :sequence")
+    int deleteThrough(@Param("sequence") Long sequence);
+}
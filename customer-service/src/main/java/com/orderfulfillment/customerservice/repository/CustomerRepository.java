@@ -1,10 +1,21 @@
 package com.orderfulfillment.customerservice.repository;
 
 import com.orderfulfillment.customerservice.entity.Customer;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
@@ -12,4 +23,60 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    List<Customer> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Keyset page: customers after the given ID in ID order, sized by the pageable.
+     */
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Forward-only cursor over the customers after the given ID, in ID order. Must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Customer c WHERE c.id > :afterId ORDER BY c.id")
+    Stream<Customer> streamAllAfter(@Param("afterId") Long afterId);
+
+    /**
+     * The given IDs that belong to a customer.
+     */
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The given emails that already belong to a customer.
+     */
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Forward-only cursor over the email of every customer. Must be consumed inside a
+     * transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.email FROM Customer c")
+    Stream<String> streamAllEmails();
+
+    /**
+     * Forward-only cursor over the searchable fields of every customer. Must be consumed inside
+     * a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id AS id, c.firstName AS firstName, c.lastName AS lastName, c.email AS email FROM Customer c")
+    Stream<CustomerSearchFields> streamAllSearchFields();
+
+    interface CustomerSearchFields {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        String getEmail();
+    }
 }
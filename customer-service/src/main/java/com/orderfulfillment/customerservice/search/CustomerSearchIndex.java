@@ -0,0 +1,645 @@
+package com.orderfulfillment.customerservice.search;
+
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import com.orderfulfillment.customerservice.repository.CustomerRepository.CustomerSearchFields;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory search index over customer first name, last name and email.
+ *
+ * Names and emails are split into lower-cased tokens: runs of letters and runs of digits, so
+ * "J.Smith-Doe85@mail.com" gives j, smith, doe, 85, mail and com. A sorted token map answers
+ * prefix matches and maps every token to the IDs of the customers that have it. Letter tokens
+ * are also indexed by trigram, which finds tokens containing a query term or within one or two
+ * edits of it (typos).
+ *
+ * Queries are tokenized the same way and every term must match some token of a customer.
+ * Matches score exact above prefix above typo above substring, and customers are ranked by the
+ * sum over terms. Candidates come from the longest term, prefix matches first and substring or
+ * typo matches only if those do not fill the page, and at most customer.search.max-candidates
+ * are scored so that short, common prefixes stay cheap.
+ *
+ * The index is kept per instance. It is built from a streaming scan once the application is
+ * ready and rebuilt every customer.search.rebuild-interval, which picks up customers written
+ * by other instances. In between it is maintained on create, update and delete after the
+ * transaction commits. A rebuild scans into a new index and swaps it in, so it briefly holds
+ * two; changes committed during the scan go to both, and the scan skips the customers they
+ * touch instead of overwriting them with what it read earlier. Results only carry IDs; callers
+ * load the customers and drop any that no longer exist.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    private static final Pattern TOKEN = Pattern.compile("\\p{L}+|\\p{N}+");
+    private static final int BUILD_BATCH = 1000;
+    private static final Comparator<SearchMatch> WORST_FIRST = Comparator.comparingDouble(SearchMatch::getScore)
+            .thenComparing(SearchMatch::getCustomerId, Comparator.reverseOrder());
+
+    // Rough JVM sizes (compressed references) used for the memory estimate
+    private static final int TOKEN_OVERHEAD_BYTES = 140;
+    private static final int TRIGRAM_OVERHEAD_BYTES = 100;
+    private static final int DOCUMENT_OVERHEAD_BYTES = 88;
+    private static final int REFERENCE_BYTES = 4;
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxCandidates;
+    private final Timer searchTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Replaced by each rebuild; guarded by the lock
+    private IndexData current = new IndexData();
+    // Set while a rebuild is scanning, so changes committed meanwhile reach the new index too
+    private IndexData building;
+    private volatile boolean ready;
+
+    public CustomerSearchIndex(CustomerRepository customerRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${customer.search.max-candidates:1000}") int maxCandidates,
+                               MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxCandidates = maxCandidates;
+
+        this.searchTimer = Timer.builder("customer.search.latency")
+                .description("Time spent ranking customers in the search index, excluding loading them")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("customer.search.index.memory", this, CustomerSearchIndex::estimatedMemoryBytes)
+                .description("Estimated memory held by the customer search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("customer.search.index.documents", this, index -> index.withReadLock(() -> index.current.documents.size()))
+                .description("Customers in the search index")
+                .register(meterRegistry);
+        Gauge.builder("customer.search.index.tokens", this, index -> index.withReadLock(() -> index.current.tokens.size()))
+                .description("Distinct tokens in the search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds or replaces a customer once the current transaction commits (right away without one).
+     */
+    public void indexAfterCommit(Long customerId, String firstName, String lastName, String email) {
+        afterCommit(() -> index(customerId, firstName, lastName, email));
+    }
+
+    public void removeAfterCommit(Long customerId) {
+        afterCommit(() -> remove(customerId));
+    }
+
+    public void index(Long customerId, String firstName, String lastName, String email) {
+        lock.writeLock().lock();
+        try {
+            current.index(customerId, firstName, lastName, email);
+            if (building != null) {
+                building.changedDuringBuild.add(customerId);
+                building.index(customerId, firstName, lastName, email);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long customerId) {
+        lock.writeLock().lock();
+        try {
+            current.remove(customerId);
+            if (building != null) {
+                building.changedDuringBuild.add(customerId);
+                building.remove(customerId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${customer.search.rebuild-interval:600000}",
+            initialDelayString = "${customer.search.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // The previous index stays in use
+            logger.error("Error occurred while rebuilding the customer search index", e);
+        }
+    }
+
+    /**
+     * Builds a new index from a scan of all customers and swaps it in.
+     */
+    public synchronized void rebuild() {
+        long startNanos = System.nanoTime();
+        IndexData index = new IndexData();
+
+        // Set before the scan starts: anything committed later is applied by index() and remove()
+        setBuilding(index);
+        long indexed;
+        try {
+            indexed = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                List<CustomerSearchFields> batch = new ArrayList<>(BUILD_BATCH);
+                try (Stream<CustomerSearchFields> customers = customerRepository.streamAllSearchFields()) {
+                    for (CustomerSearchFields customer : (Iterable<CustomerSearchFields>) customers::iterator) {
+                        batch.add(customer);
+                        if (batch.size() == BUILD_BATCH) {
+                            count += indexBatch(index, batch);
+                        }
+                    }
+                }
+                return count + indexBatch(index, batch);
+            });
+        } catch (RuntimeException e) {
+            setBuilding(null);
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Swapped in one step, so no change can land in neither index
+            index.changedDuringBuild.clear();
+            current = index;
+            building = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        logger.info("Built customer search index from {} customers in {} ms ({} tokens, ~{} KiB)",
+                indexed, (System.nanoTime() - startNanos) / 1_000_000,
+                withReadLock(() -> index.tokens.size()), estimatedMemoryBytes() / 1024);
+    }
+
+    private void setBuilding(IndexData index) {
+        lock.writeLock().lock();
+        try {
+            building = index;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of the best matching customers, best first.
+     */
+    public List<SearchMatch> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // The longest term is usually the most selective, so it supplies the candidates
+        String driver = terms.stream().max(Comparator.comparingInt(String::length)).get();
+
+        long startNanos = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            IndexData index = current;
+            Ranking ranking = new Ranking(index, terms, limit);
+            // Bounds on what customers not seen yet can score: at most 1 per other term, plus how
+            // well the driver matches the token being scanned or any later one
+            float otherTerms = terms.size() - 1;
+            for (Map.Entry<String, Postings> entry : index.tokens.tailMap(driver, true).entrySet()) {
+                String token = entry.getKey();
+                float bound = otherTerms + (token.length() == driver.length() ? 1.0f : 0.9f);
+                if (!token.startsWith(driver) || !ranking.consider(entry.getValue(), bound)) {
+                    break;
+                }
+            }
+            // Substring and typo matches only when prefix matches do not fill the page
+            if (ranking.needsMore()) {
+                for (String token : similarTokens(index, driver)) {
+                    if (!ranking.consider(index.tokens.get(token), otherTerms + 0.5f)) {
+                        break;
+                    }
+                }
+            }
+            return ranking.result();
+        } finally {
+            lock.readLock().unlock();
+            searchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Indexed tokens that contain the term or are within a small edit distance of it, but do
+     * not start with it, best match first.
+     */
+    private static List<String> similarTokens(IndexData index, String term) {
+        if (term.length() < 3 || !Character.isLetter(term.charAt(0))) {
+            return List.of();
+        }
+        // A token containing the term shares all of its trigrams, and each edit changes at most
+        // three; at least half must be shared to keep typo matches close. A token sharing that
+        // many appears in at least one of the (trigrams - shared + 1) shortest lists.
+        List<List<String>> lists = new ArrayList<>();
+        for (String trigram : trigramsOf(term)) {
+            lists.add(index.trigrams.getOrDefault(trigram, List.of()));
+        }
+        int minShared = Math.max((lists.size() + 1) / 2, lists.size() - 3 * maxDistance(term));
+        lists.sort(Comparator.comparingInt(List::size));
+
+        Set<String> candidates = new HashSet<>();
+        for (List<String> list : lists.subList(0, lists.size() - minShared + 1)) {
+            candidates.addAll(list);
+        }
+        List<Map.Entry<String, Float>> similar = new ArrayList<>();
+        for (String token : candidates) {
+            if (!token.startsWith(term)) {
+                float score = match(term, token);
+                if (score > 0) {
+                    similar.add(Map.entry(token, score));
+                }
+            }
+        }
+        similar.sort(Map.Entry.<String, Float>comparingByValue().reversed());
+        return similar.stream().map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * How well a token matches a query term: 1 when equal, 0.6 to 0.9 for a prefix (more for a
+     * longer share of the token), 0.5 or 0.45 for one or two edits, 0.4 when contained, else 0.
+     */
+    private static float match(String term, String token) {
+        if (token.startsWith(term)) {
+            return token.length() == term.length() ? 1.0f : 0.6f + 0.3f * term.length() / token.length();
+        }
+        int maxDistance = maxDistance(term);
+        if (maxDistance > 0 && Math.abs(token.length() - term.length()) <= maxDistance) {
+            int distance = editDistance(term, token, maxDistance);
+            if (distance <= maxDistance) {
+                return distance == 1 ? 0.5f : 0.45f;
+            }
+        }
+        return term.length() >= 3 && token.contains(term) ? 0.4f : 0;
+    }
+
+    private static int maxDistance(String term) {
+        if (!Character.isLetter(term.charAt(0))) {
+            return 0;
+        }
+        return term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+    }
+
+    private long indexBatch(IndexData index, List<CustomerSearchFields> batch) {
+        lock.writeLock().lock();
+        try {
+            for (CustomerSearchFields customer : batch) {
+                // Read before a change committed during the scan, which the index already has
+                if (!index.changedDuringBuild.contains(customer.getId())) {
+                    index.index(customer.getId(), customer.getFirstName(), customer.getLastName(), customer.getEmail());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        int indexed = batch.size();
+        batch.clear();
+        return indexed;
+    }
+
+    /**
+     * Distinct lower-cased runs of letters and runs of digits, in order of appearance.
+     */
+    private static Set<String> tokenize(String... texts) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text != null) {
+                Matcher matcher = TOKEN.matcher(text.toLowerCase(Locale.ROOT));
+                while (matcher.find()) {
+                    result.add(matcher.group());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<String> trigramsOf(String token) {
+        List<String> result = new ArrayList<>(Math.max(0, token.length() - 2));
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            String trigram = token.substring(i, i + 3);
+            if (!result.contains(trigram)) {
+                result.add(trigram);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance (adjacent transpositions count as one edit), or
+     * maxDistance + 1 once it is certain to exceed maxDistance.
+     */
+    private static int editDistance(String a, String b, int maxDistance) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private long estimatedMemoryBytes() {
+        return withReadLock(() -> current.estimatedMemoryBytes());
+    }
+
+    private <T> T withReadLock(Supplier<T> read) {
+        lock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    /**
+     * Scores candidates for one search and keeps the best. Term match scores are memoized, since
+     * the same tokens recur across many customers.
+     */
+    private final class Ranking {
+        private final IndexData index;
+        private final List<String> terms;
+        private final List<Map<String, Float>> matches;
+        private final int limit;
+        private final Set<Long> seen = new HashSet<>();
+        private final PriorityQueue<SearchMatch> best;
+
+        private Ranking(IndexData index, List<String> terms, int limit) {
+            this.index = index;
+            this.terms = terms;
+            this.matches = new ArrayList<>(terms.size());
+            for (int i = 0; i < terms.size(); i++) {
+                matches.add(new HashMap<>());
+            }
+            this.limit = limit;
+            this.best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        }
+
+        /**
+         * Scores the customers with a token, none of whom can score above bound. Returns false
+         * once the candidate budget is spent or no remaining customer can make the page.
+         */
+        private boolean consider(Postings postings, float bound) {
+            for (int i = 0; i < postings.size; i++) {
+                if (seen.size() >= maxCandidates || isSettled(bound)) {
+                    return false;
+                }
+                long customerId = postings.ids[i];
+                if (seen.add(customerId)) {
+                    float score = score(index.documents.get(customerId));
+                    if (score > 0) {
+                        best.add(new SearchMatch(customerId, score));
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Whether the page is full of matches that a customer scoring at most bound cannot beat.
+         */
+        private boolean isSettled(float bound) {
+            return best.size() == limit && best.peek().getScore() >= bound;
+        }
+
+        private boolean needsMore() {
+            return best.size() < limit && seen.size() < maxCandidates;
+        }
+
+        /**
+         * Sum over terms of the best matching token, or 0 if some term matches no token.
+         */
+        private float score(String[] documentTokens) {
+            float total = 0;
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                Map<String, Float> termMatches = matches.get(t);
+                float termBest = 0;
+                for (String token : documentTokens) {
+                    termBest = Math.max(termBest, termMatches.computeIfAbsent(token, key -> match(term, key)));
+                }
+                if (termBest == 0) {
+                    return 0;
+                }
+                total += termBest;
+            }
+            return total;
+        }
+
+        private List<SearchMatch> result() {
+            List<SearchMatch> ranked = new ArrayList<>(best);
+            ranked.sort(WORST_FIRST.reversed());
+            return ranked;
+        }
+    }
+
+    /**
+     * Tokens, trigrams and stored documents of one generation of the index, with the memory
+     * estimate kept up to date as it changes. Guarded by the index lock.
+     */
+    private static final class IndexData {
+        private final TreeMap<String, Postings> tokens = new TreeMap<>();
+        private final Map<String, List<String>> trigrams = new HashMap<>();
+        private final Map<Long, String[]> documents = new HashMap<>();
+        // Customers changed while this index was being built; the scan's copies of them are stale
+        private final Set<Long> changedDuringBuild = new HashSet<>();
+
+        private long postingSlots;
+        private long tokenChars;
+        private long documentTokenRefs;
+        private long trigramRefs;
+
+        private void index(Long customerId, String firstName, String lastName, String email) {
+            remove(customerId);
+
+            Set<String> documentTokens = tokenize(firstName, lastName, email);
+            String[] stored = new String[documentTokens.size()];
+            int i = 0;
+            for (String token : documentTokens) {
+                Postings postings = tokens.get(token);
+                if (postings == null) {
+                    postings = new Postings();
+                    tokens.put(token, postings);
+                    tokenChars += token.length();
+                    if (Character.isLetter(token.charAt(0))) {
+                        for (String trigram : trigramsOf(token)) {
+                            trigrams.computeIfAbsent(trigram, key -> new ArrayList<>(2)).add(token);
+                            trigramRefs++;
+                        }
+                    }
+                } else {
+                    // Share the indexed string instead of keeping a copy per customer
+                    token = tokens.ceilingKey(token);
+                }
+                postingSlots += postings.add(customerId);
+                stored[i++] = token;
+            }
+            documents.put(customerId, stored);
+            documentTokenRefs += stored.length;
+        }
+
+        private void remove(Long customerId) {
+            String[] stored = documents.remove(customerId);
+            if (stored == null) {
+                return;
+            }
+            documentTokenRefs -= stored.length;
+            for (String token : stored) {
+                Postings postings = tokens.get(token);
+                postings.remove(customerId);
+                if (postings.size > 0) {
+                    continue;
+                }
+                tokens.remove(token);
+                tokenChars -= token.length();
+                postingSlots -= postings.ids.length;
+                if (Character.isLetter(token.charAt(0))) {
+                    for (String trigram : trigramsOf(token)) {
+                        List<String> containing = trigrams.get(trigram);
+                        if (containing != null && containing.remove(token)) {
+                            trigramRefs--;
+                            if (containing.isEmpty()) {
+                                trigrams.remove(trigram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private long estimatedMemoryBytes() {
+            return postingSlots * Long.BYTES
+                    + (long) tokens.size() * TOKEN_OVERHEAD_BYTES + tokenChars
+                    + (long) documents.size() * DOCUMENT_OVERHEAD_BYTES + documentTokenRefs * REFERENCE_BYTES
+                    + (long) trigrams.size() * TRIGRAM_OVERHEAD_BYTES + trigramRefs * REFERENCE_BYTES;
+        }
+    }
+
+    /**
+     * Customer IDs with this token, unordered. Guarded by the index lock.
+     */
+    private static final class Postings {
+        private long[] ids = new long[1];
+        private int size;
+
+        /**
+         * Adds the ID and returns by how many slots the array grew.
+         */
+        private int add(long customerId) {
+            int grown = 0;
+            if (size == ids.length) {
+                long[] larger = new long[ids.length * 2];
+                System.arraycopy(ids, 0, larger, 0, size);
+                grown = larger.length - ids.length;
+                ids = larger;
+            }
+            ids[size++] = customerId;
+            return grown;
+        }
+
+        private void remove(long customerId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == customerId) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    public static final class SearchMatch {
+        private final long customerId;
+        private final float score;
+
+        private SearchMatch(long customerId, float score) {
+            this.customerId = customerId;
+            this.score = score;
+        }
+
+        public long getCustomerId() {
+            return customerId;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+}
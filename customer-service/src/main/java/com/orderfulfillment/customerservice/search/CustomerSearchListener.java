@@ -0,0 +1,34 @@
+package com.orderfulfillment.customerservice.search;
+
+import com.orderfulfillment.customerservice.entity.Customer;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the search index current for every customer written or deleted through JPA.
+ */
+@Component
+public class CustomerSearchListener {
+
+    // Looked up lazily: the index depends on the repository, which is built with this listener
+    private final ObjectProvider<CustomerSearchIndex> searchIndex;
+
+    public CustomerSearchListener(ObjectProvider<CustomerSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWritten(Customer customer) {
+        searchIndex.getObject().indexAfterCommit(customer.getId(), customer.getFirstName(),
+                customer.getLastName(), customer.getEmail());
+    }
+
+    @PostRemove
+    public void onRemoved(Customer customer) {
+        searchIndex.getObject().removeAfterCommit(customer.getId());
+    }
+}
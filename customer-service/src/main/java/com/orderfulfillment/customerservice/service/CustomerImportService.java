@@ -0,0 +1,443 @@
+package com.orderfulfillment.customerservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.orderfulfillment.customerservice.dto.CustomerImportErrorDto;
+import com.orderfulfillment.customerservice.dto.CustomerImportResultDto;
+import com.orderfulfillment.customerservice.dto.CustomerRequestDto;
+import com.orderfulfillment.customerservice.exception.InvalidImportException;
+import com.orderfulfillment.customerservice.entity.CustomerChange;
+import com.orderfulfillment.customerservice.enums.CustomerChangeType;
+import com.orderfulfillment.customerservice.feed.CustomerChangeLog;
+import com.orderfulfillment.customerservice.filter.CustomerExistenceFilter;
+import com.orderfulfillment.customerservice.search.CustomerSearchIndex;
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk customer import from CSV or NDJSON.
+ *
+ * The upload is read as a stream and handled in chunks of customer.import.chunk-size rows, so
+ * memory does not grow with the file. Each chunk is validated, deduplicated by email within
+ * itself and against the database with one IN query, and inserted with a JDBC batch in its
+ * own transaction. Rows that fail are reported by line number; the rest are imported.
+ */
+@Service
+public class CustomerImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO customers " +
+            "(first_name, last_name, email, phone_number, address, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String ALREADY_EXISTS = "Customer already exists with this email";
+
+    private final CustomerRepository customerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final Validator validator;
+    private final ObjectReader customerReader;
+    private final CustomerExistenceFilter customerExistenceFilter;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final CustomerChangeLog customerChangeLog;
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+
+    @Value("${customer.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${customer.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Autowired
+    public CustomerImportService(CustomerRepository customerRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 CustomerExistenceFilter customerExistenceFilter,
+                                 CustomerSearchIndex customerSearchIndex,
+                                 CustomerChangeLog customerChangeLog,
+                                 MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.customerReader = objectMapper.readerFor(CustomerRequestDto.class);
+        this.customerExistenceFilter = customerExistenceFilter;
+        this.customerSearchIndex = customerSearchIndex;
+        this.customerChangeLog = customerChangeLog;
+
+        this.importedCounter = Counter.builder("customer.import.rows")
+                .description("Rows of bulk imports that created a customer")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("customer.import.rows")
+                .description("Rows of bulk imports that were invalid or duplicates")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports a CSV file whose first line names the columns: firstName, lastName, email and
+     * optionally phoneNumber and address (snake_case and any letter case are accepted too).
+     */
+    public CustomerImportResultDto importCsv(InputStream input) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = readLine(reader);
+        if (header == null) {
+            throw new InvalidImportException("CSV import is empty; the first line must name the columns");
+        }
+        CsvColumns columns = CsvColumns.of(parseCsvLine(stripBom(header)));
+
+        long[] lineNumber = {1};
+        return runImport(() -> {
+            String line;
+            do {
+                line = readLine(reader);
+                lineNumber[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return ImportRow.of(lineNumber[0], columns.toCustomer(parseCsvLine(line)));
+            } catch (IllegalArgumentException e) {
+                return ImportRow.failed(lineNumber[0], e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Imports one JSON customer object per line, with the same fields as a create request.
+     */
+    public CustomerImportResultDto importNdjson(InputStream input) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        long[] lineNumber = {0};
+        return runImport(() -> {
+            String line;
+            do {
+                line = readLine(reader);
+                lineNumber[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return ImportRow.of(lineNumber[0], customerReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                return ImportRow.failed(lineNumber[0], "Malformed JSON: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    private CustomerImportResultDto runImport(RowReader rows) {
+        long startNanos = System.nanoTime();
+        Report report = new Report();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        ImportRow row;
+        while ((row = rows.next()) != null) {
+            report.received++;
+            if (row.error != null) {
+                report.reject(row.line, null, row.error);
+                continue;
+            }
+            Set<ConstraintViolation<CustomerRequestDto>> violations = validator.validate(row.customer);
+            if (!violations.isEmpty()) {
+                report.reject(row.line, row.customer.getEmail(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, report);
+
+        report.errors.sort(Comparator.comparingLong(CustomerImportErrorDto::getLine));
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        logger.info("Imported {} of {} customers in {} ms ({} rows/sec), {} rejected",
+                report.imported, report.received, elapsedMillis, report.received * 1000 / elapsedMillis,
+                report.rejected);
+        return new CustomerImportResultDto(report.received, report.imported, report.rejected, elapsedMillis,
+                report.errors, report.rejected > report.errors.size());
+    }
+
+    private void importChunk(List<ImportRow> chunk, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // The first row with an email wins; later ones in the same chunk are duplicates
+        Map<String, ImportRow> byEmail = new LinkedHashMap<>();
+        for (ImportRow row : chunk) {
+            ImportRow first = byEmail.putIfAbsent(row.customer.getEmail(), row);
+            if (first != null) {
+                report.reject(row.line, row.customer.getEmail(), "Duplicate email in import, first on line " + first.line);
+            }
+        }
+
+        // Earlier chunks are committed by now, so this also catches duplicates across chunks
+        rejectExisting(byEmail, report, true);
+        try {
+            insert(byEmail.values(), report);
+        } catch (DataIntegrityViolationException e) {
+            // A customer with one of these emails was created meanwhile; check again and retry once
+            logger.warn("Import chunk conflicted with concurrently created customers, retrying: {}", e.getMessage());
+            rejectExisting(byEmail, report, false);
+            try {
+                insert(byEmail.values(), report);
+            } catch (DataIntegrityViolationException retryFailure) {
+                logger.error("Import chunk of {} rows failed", byEmail.size(), retryFailure);
+                byEmail.values().forEach(row -> report.reject(row.line, row.customer.getEmail(),
+                        "Could not be inserted: " + retryFailure.getMostSpecificCause().getMessage()));
+            }
+        }
+    }
+
+    private void rejectExisting(Map<String, ImportRow> byEmail, Report report, boolean useFilter) {
+        // Emails the filter rules out need not be part of the query
+        List<String> candidates = byEmail.keySet().stream()
+                .filter(email -> !useFilter || customerExistenceFilter.mightContainEmail(email))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> existing = new HashSet<>(customerRepository.findExistingEmails(candidates));
+        for (String email : existing) {
+            ImportRow row = byEmail.remove(email);
+            if (row != null) {
+                report.reject(row.line, email, ALREADY_EXISTS);
+            }
+        }
+    }
+
+    private void insert(Collection<ImportRow> rows, Report report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<CustomerRequestDto> customers = rows.stream().map(row -> row.customer).collect(Collectors.toList());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        chunkTransaction.executeWithoutResult(status -> {
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            CustomerRequestDto customer = customers.get(i);
+                            statement.setString(1, customer.getFirstName());
+                            statement.setString(2, customer.getLastName());
+                            statement.setString(3, customer.getEmail());
+                            statement.setString(4, customer.getPhoneNumber());
+                            statement.setString(5, customer.getAddress());
+                            statement.setTimestamp(6, now);
+                            statement.setTimestamp(7, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return customers.size();
+                        }
+                    }, keyHolder);
+
+            // Batch inserts bypass JPA, so the filter, search index and change feed are told directly
+            Iterator<Map<String, Object>> keys = keyHolder.getKeyList().iterator();
+            List<CustomerChange> changes = new ArrayList<>(customers.size());
+            for (CustomerRequestDto customer : customers) {
+                Long id = keys.hasNext() ? ((Number) keys.next().values().iterator().next()).longValue() : null;
+                customerExistenceFilter.record(customer.getEmail());
+                customerSearchIndex.indexAfterCommit(id, customer.getFirstName(), customer.getLastName(),
+                        customer.getEmail());
+                changes.add(new CustomerChange(id, CustomerChangeType.CREATED, customer.getFirstName(),
+                        customer.getLastName(), customer.getEmail()));
+            }
+            customerChangeLog.recordAll(changes);
+        });
+
+        report.imported += customers.size();
+        importedCounter.increment(customers.size());
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read customer import", e);
+        }
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * Splits one CSV line. Fields may be quoted, with "" for a quote inside a quoted field;
+     * quoted fields cannot span lines.
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        /**
+         * Returns the next data row, or null at the end of the input.
+         */
+        ImportRow next();
+    }
+
+    private static final class ImportRow {
+        private final long line;
+        private final CustomerRequestDto customer;
+        private final String error;
+
+        private ImportRow(long line, CustomerRequestDto customer, String error) {
+            this.line = line;
+            this.customer = customer;
+            this.error = error;
+        }
+
+        private static ImportRow of(long line, CustomerRequestDto customer) {
+            return new ImportRow(line, customer, null);
+        }
+
+        private static ImportRow failed(long line, String error) {
+            return new ImportRow(line, null, error);
+        }
+    }
+
+    /**
+     * Positions of the customer fields in the CSV columns, from the header line.
+     */
+    private static final class CsvColumns {
+        private final int firstName;
+        private final int lastName;
+        private final int email;
+        private final int phoneNumber;
+        private final int address;
+        private final int count;
+
+        private CsvColumns(Map<String, Integer> positions, int count) {
+            this.firstName = positions.getOrDefault("firstname", -1);
+            this.lastName = positions.getOrDefault("lastname", -1);
+            this.email = positions.getOrDefault("email", -1);
+            this.phoneNumber = positions.getOrDefault("phonenumber", -1);
+            this.address = positions.getOrDefault("address", -1);
+            this.count = count;
+        }
+
+        private static CsvColumns of(List<String> header) {
+            Map<String, Integer> positions = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                positions.putIfAbsent(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+            }
+            CsvColumns columns = new CsvColumns(positions, header.size());
+            if (columns.firstName < 0 || columns.lastName < 0 || columns.email < 0) {
+                throw new InvalidImportException("CSV header must name the firstName, lastName and email columns, got: "
+                        + String.join(",", header));
+            }
+            return columns;
+        }
+
+        private CustomerRequestDto toCustomer(List<String> fields) {
+            if (fields.size() != count) {
+                throw new IllegalArgumentException("Expected " + count + " fields but found " + fields.size());
+            }
+            return new CustomerRequestDto(field(fields, firstName), field(fields, lastName), field(fields, email),
+                    field(fields, phoneNumber), field(fields, address));
+        }
+
+        private static String field(List<String> fields, int position) {
+            if (position < 0) {
+                return null;
+            }
+            String value = fields.get(position).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private final class Report {
+        private final List<CustomerImportErrorDto> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long rejected;
+
+        private void reject(long line, String email, String message) {
+            rejected++;
+            rejectedCounter.increment();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new CustomerImportErrorDto(line, email, message));
+            }
+        }
+    }
+}
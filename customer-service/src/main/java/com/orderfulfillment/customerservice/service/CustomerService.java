@@ -1,9 +1,13 @@
 package com.orderfulfillment.customerservice.service;
 
+import com.orderfulfillment.customerservice.dto.CustomerPageDto;
 import com.orderfulfillment.customerservice.dto.CustomerRequestDto;
 import com.orderfulfillment.customerservice.dto.CustomerResponseDto;
+import com.orderfulfillment.customerservice.dto.CustomerSearchHitDto;
 
+import java.util.BitSet;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CustomerService {
 
@@ -13,11 +17,40 @@ public interface CustomerService {
 
     CustomerResponseDto getCustomerByEmail(String email);
 
+    /**
+     * Looks up several customers at once. The result has one entry per ID in the same order,
+     * null where no customer has that ID.
+     */
+    List<CustomerResponseDto> getCustomersByIds(List<Long> customerIds);
+
     List<CustomerResponseDto> getAllCustomers();
 
+    /**
+     * Keyset page of customers in ID order, starting after the given ID (from the start when
+     * null). The page size is capped by customer.listing.max-page-size.
+     */
+    CustomerPageDto getCustomerPage(Long after, int limit);
+
+    /**
+     * Hands every customer after the given ID (all when null) to the consumer in ID order,
+     * without holding them all in memory.
+     */
+    void streamCustomers(Long after, Consumer<CustomerResponseDto> consumer);
+
+    /**
+     * Finds customers whose names or email match every term of the query, by prefix, substring
+     * or with a typo. Returns at most limit hits, best first.
+     */
+    List<CustomerSearchHitDto> searchCustomers(String query, int limit);
+
     CustomerResponseDto updateCustomer(Long customerId, CustomerRequestDto customerRequestDto);
 
     void deleteCustomer(Long customerId);
 
     boolean existsById(Long customerId);
+
+    /**
+     * Checks several customer IDs at once. Bit i of the result is set if the i-th ID exists.
+     */
+    BitSet existsByIds(List<Long> customerIds);
 }
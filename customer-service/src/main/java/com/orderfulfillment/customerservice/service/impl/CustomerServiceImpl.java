@@ -1,21 +1,42 @@
 package com.orderfulfillment.customerservice.service.impl;
 
+import com.orderfulfillment.customerservice.cache.CustomerCache;
+import com.orderfulfillment.customerservice.dto.CustomerPageDto;
 import com.orderfulfillment.customerservice.dto.CustomerRequestDto;
 import com.orderfulfillment.customerservice.dto.CustomerResponseDto;
+import com.orderfulfillment.customerservice.dto.CustomerSearchHitDto;
 import com.orderfulfillment.customerservice.entity.Customer;
 import com.orderfulfillment.customerservice.exception.CustomerAlreadyExistsException;
 import com.orderfulfillment.customerservice.exception.CustomerNotFoundException;
+import com.orderfulfillment.customerservice.exception.InvalidBatchRequestException;
+import com.orderfulfillment.customerservice.filter.CustomerExistenceFilter;
 import com.orderfulfillment.customerservice.mapper.CustomerMapper;
 import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import com.orderfulfillment.customerservice.search.CustomerSearchIndex;
+import com.orderfulfillment.customerservice.search.CustomerSearchIndex.SearchMatch;
 import com.orderfulfillment.customerservice.service.CustomerService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -25,11 +46,34 @@ public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
+    private final CustomerCache customerCache;
+    private final CustomerExistenceFilter customerExistenceFilter;
+    private final CustomerSearchIndex customerSearchIndex;
+
+    @Value("${customer.batch.max-ids:1000}")
+    private int maxBatchIds;
+
+    @Value("${customer.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${customer.search.max-results:100}")
+    private int maxSearchResults;
+
+    @Value("${customer.listing.max-page-size:500}")
+    private int maxPageSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerMapper customerMapper) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerMapper customerMapper,
+                               CustomerCache customerCache, CustomerExistenceFilter customerExistenceFilter,
+                               CustomerSearchIndex customerSearchIndex) {
         this.customerRepository = customerRepository;
         this.customerMapper = customerMapper;
+        this.customerCache = customerCache;
+        this.customerExistenceFilter = customerExistenceFilter;
+        this.customerSearchIndex = customerSearchIndex;
     }
 
     @Override
@@ -37,7 +81,7 @@ public class CustomerServiceImpl implements CustomerService {
         logger.info("Creating new customer with email: {}", customerRequestDto.getEmail());
 
         // Check if customer already exists with this email
-        if (customerRepository.existsByEmail(customerRequestDto.getEmail())) {
+        if (emailExists(customerRequestDto.getEmail())) {
             logger.error("Customer already exists with email: {}", customerRequestDto.getEmail());
             throw new CustomerAlreadyExistsException("Customer already exists with email: " + customerRequestDto.getEmail());
         }
@@ -54,18 +98,23 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CustomerResponseDto getCustomerById(Long customerId) {
+        // Called by order-service for every order; cache hits never open a transaction
+        CustomerResponseDto cached = customerCache.get(customerId);
+        if (cached != null) {
+            return cached;
+        }
         logger.info("Fetching customer with ID: {}", customerId);
 
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> {
-                    logger.error("Customer not found with ID: {}", customerId);
-                    return new CustomerNotFoundException("Customer not found with ID: " + customerId);
-                });
+        CustomerResponseDto customer = loadCustomer(customerId);
+        if (customer == null) {
+            logger.error("Customer not found with ID: {}", customerId);
+            throw new CustomerNotFoundException("Customer not found with ID: " + customerId);
+        }
 
         logger.info("Customer found with ID: {}", customerId);
-        return customerMapper.toResponseDto(customer);
+        return customer;
     }
 
     @Override
@@ -83,6 +132,40 @@ public class CustomerServiceImpl implements CustomerService {
         return customerMapper.toResponseDto(customer);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerResponseDto> getCustomersByIds(List<Long> customerIds) {
+        checkBatch(customerIds);
+        logger.info("Fetching {} customers by ID", customerIds.size());
+
+        // Cache hits first; the rest are read in chunked IN queries
+        Map<Long, CustomerResponseDto> found = new HashMap<>();
+        Set<Long> toLoad = new LinkedHashSet<>();
+        for (Long customerId : customerIds) {
+            CustomerResponseDto cached = customerCache.get(customerId);
+            if (cached != null) {
+                found.put(customerId, cached);
+            } else {
+                toLoad.add(customerId);
+            }
+        }
+        long cacheVersion = customerCache.version();
+        for (List<Long> chunk : chunks(toLoad)) {
+            for (Customer customer : customerRepository.findByIdIn(chunk)) {
+                CustomerResponseDto dto = customerMapper.toResponseDto(customer);
+                found.put(customer.getId(), dto);
+                customerCache.put(customer.getId(), dto, cacheVersion);
+            }
+        }
+
+        List<CustomerResponseDto> customers = new ArrayList<>(customerIds.size());
+        for (Long customerId : customerIds) {
+            customers.add(found.get(customerId));
+        }
+        logger.info("Found {} of {} requested customers", found.size(), customerIds.size());
+        return customers;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<CustomerResponseDto> getAllCustomers() {
@@ -96,6 +179,66 @@ public class CustomerServiceImpl implements CustomerService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPageDto getCustomerPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        long afterId = after == null ? 0L : after;
+
+        // One extra row tells whether there is a next page without a count query
+        List<Customer> customers = customerRepository.findByIdGreaterThanOrderByIdAsc(afterId,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = customers.size() > pageSize;
+        List<CustomerResponseDto> items = customers.stream()
+                .limit(pageSize)
+                .map(customerMapper::toResponseDto)
+                .collect(Collectors.toList());
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+
+        logger.debug("Listed {} customers after ID {}", items.size(), afterId);
+        return new CustomerPageDto(items, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamCustomers(Long after, Consumer<CustomerResponseDto> consumer) {
+        long afterId = after == null ? 0L : after;
+        logger.info("Streaming customers after ID {}", afterId);
+
+        long streamed = 0;
+        try (Stream<Customer> customers = customerRepository.streamAllAfter(afterId)) {
+            for (Customer customer : (Iterable<Customer>) customers::iterator) {
+                consumer.accept(customerMapper.toResponseDto(customer));
+                // Keep the persistence context from holding on to every row read so far
+                entityManager.detach(customer);
+                streamed++;
+            }
+        }
+        logger.info("Streamed {} customers", streamed);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerSearchHitDto> searchCustomers(String query, int limit) {
+        int cappedLimit = Math.min(limit, maxSearchResults);
+        logger.debug("Searching customers for '{}' (limit {})", query, cappedLimit);
+
+        List<SearchMatch> matches = customerSearchIndex.search(query, cappedLimit);
+        List<Long> customerIds = matches.stream().map(SearchMatch::getCustomerId).collect(Collectors.toList());
+        List<CustomerResponseDto> customers = getCustomersByIds(customerIds);
+
+        // A customer deleted since it was indexed loads as null and is left out
+        List<CustomerSearchHitDto> hits = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            if (customers.get(i) != null) {
+                hits.add(new CustomerSearchHitDto(matches.get(i).getScore(), customers.get(i)));
+            }
+        }
+        logger.debug("Customer search for '{}' found {} customers", query, hits.size());
+        return hits;
+    }
+
     @Override
     public CustomerResponseDto updateCustomer(Long customerId, CustomerRequestDto customerRequestDto) {
         logger.info("Updating customer with ID: {}", customerId);
@@ -108,7 +251,7 @@ public class CustomerServiceImpl implements CustomerService {
 
         // Check if email is being changed and if new email already exists
         if (!existingCustomer.getEmail().equals(customerRequestDto.getEmail())) {
-            if (customerRepository.existsByEmail(customerRequestDto.getEmail())) {
+            if (emailExists(customerRequestDto.getEmail())) {
                 logger.error("Email already exists: {}", customerRequestDto.getEmail());
                 throw new CustomerAlreadyExistsException("Email already exists: " + customerRequestDto.getEmail());
             }
@@ -118,7 +261,9 @@ public class CustomerServiceImpl implements CustomerService {
         customerMapper.updateEntityFromDto(customerRequestDto, existingCustomer);
 
         // Save updated customer
-        Customer updatedCustomer = customerRepository.save(existingCustomer);
+        // Flushed so the response carries the new updatedAt, which callers use as a validator
+        Customer updatedCustomer = customerRepository.saveAndFlush(existingCustomer);
+        customerCache.invalidate(customerId);
         logger.info("Customer updated successfully with ID: {}", updatedCustomer.getId());
 
         return customerMapper.toResponseDto(updatedCustomer);
@@ -134,15 +279,98 @@ public class CustomerServiceImpl implements CustomerService {
         }
 
         customerRepository.deleteById(customerId);
+        customerCache.invalidate(customerId);
         logger.info("Customer deleted successfully with ID: {}", customerId);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean existsById(Long customerId) {
         logger.debug("Checking if customer exists with ID: {}", customerId);
-        boolean exists = customerRepository.existsById(customerId);
+        // Loading the whole row costs the same query and warms the cache for the lookup that usually follows
+        boolean exists = customerCache.get(customerId) != null || loadCustomer(customerId) != null;
         logger.debug("Customer exists with ID {}: {}", customerId, exists);
         return exists;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BitSet existsByIds(List<Long> customerIds) {
+        checkBatch(customerIds);
+        logger.debug("Checking if {} customers exist", customerIds.size());
+
+        Set<Long> existing = new HashSet<>();
+        Set<Long> toQuery = new LinkedHashSet<>();
+        for (Long customerId : customerIds) {
+            if (customerCache.get(customerId) != null) {
+                existing.add(customerId);
+            } else {
+                toQuery.add(customerId);
+            }
+        }
+        for (List<Long> chunk : chunks(toQuery)) {
+            existing.addAll(customerRepository.findExistingIds(chunk));
+        }
+
+        BitSet result = new BitSet(customerIds.size());
+        for (int i = 0; i < customerIds.size(); i++) {
+            if (existing.contains(customerIds.get(i))) {
+                result.set(i);
+            }
+        }
+        logger.debug("{} of {} customers exist", result.cardinality(), customerIds.size());
+        return result;
+    }
+
+    private void checkBatch(List<Long> customerIds) {
+        if (customerIds.size() > maxBatchIds) {
+            throw new InvalidBatchRequestException("At most " + maxBatchIds + " customer IDs can be requested at once, got "
+                    + customerIds.size());
+        }
+        // A blank element in ?ids=1,,2 binds as null
+        for (int i = 0; i < customerIds.size(); i++) {
+            if (customerIds.get(i) == null) {
+                throw new InvalidBatchRequestException("Customer ID at position " + (i + 1) + " is missing");
+            }
+        }
+    }
+
+    private List<List<Long>> chunks(Set<Long> customerIds) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(customerIds);
+        for (int from = 0; from < ids.size(); from += batchChunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + batchChunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Reads a customer from the database and caches it. Returns null if there is none.
+     */
+    private CustomerResponseDto loadCustomer(Long customerId) {
+        long cacheVersion = customerCache.version();
+        CustomerResponseDto customer = customerRepository.findById(customerId)
+                .map(customerMapper::toResponseDto)
+                .orElse(null);
+        if (customer != null) {
+            customerCache.put(customerId, customer, cacheVersion);
+        }
+        return customer;
+    }
+
+    /**
+     * Pre-check for a clearer error than the unique constraint gives. The filter only knows
+     * emails written through this instance, so a "no" can miss an email taken elsewhere; the
+     * constraint then rejects the write and the caller gets a 409 all the same.
+     */
+    private boolean emailExists(String email) {
+        if (!customerExistenceFilter.mightContainEmail(email)) {
+            return false;
+        }
+        boolean exists = customerRepository.existsByEmail(email);
+        if (!exists && customerExistenceFilter.isReady()) {
+            customerExistenceFilter.recordEmailFalsePositive();
+        }
+        return exists;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.orderfulfillment.customerservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Base64;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"customer.batch.chunk-size=2", "customer.batch.max-ids=20"})
+@AutoConfigureMockMvc
+class CustomerBatchLookupTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Test
+	void batchGetReturnsCustomersInRequestOrderWithMissesMarked() throws Exception {
+		Long first = customerRepository.save(new Customer("Batch", "One", "batch.one@example.com")).getId();
+		Long second = customerRepository.save(new Customer("Batch", "Two", "batch.two@example.com")).getId();
+		Long third = customerRepository.save(new Customer("Batch", "Three", "batch.three@example.com")).getId();
+
+		String ids = third + ",999999," + first + "," + second + "," + third;
+		JsonNode body = objectMapper.readTree(mockMvc.perform(get("/api/v1/customers").param("ids", ids))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+
+		JsonNode customers = body.get("customers");
+		assertEquals(5, customers.size());
+		assertEquals("Three", customers.get(0).get("lastName").asText());
+		assertTrue(customers.get(1).isNull());
+		assertEquals("One", customers.get(2).get("lastName").asText());
+		assertEquals("Two", customers.get(3).get("lastName").asText());
+		assertEquals("Three", customers.get(4).get("lastName").asText());
+		assertEquals(1, body.get("missingIds").size());
+		assertEquals(999999L, body.get("missingIds").get(0).asLong());
+	}
+
+	@Test
+	void batchExistsAnswersWithABitmapInRequestOrder() throws Exception {
+		Long existing = customerRepository.save(new Customer("Batch", "Exists", "batch.exists@example.com")).getId();
+
+		String request = "{\"ids\":[888888," + existing + ",777777," + existing + "]}";
+		JsonNode body = objectMapper.readTree(mockMvc.perform(post("/api/v1/customers/exists")
+						.contentType(MediaType.APPLICATION_JSON).content(request))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+
+		assertEquals(4, body.get("count").asInt());
+		assertEquals(2, body.get("existingCount").asInt());
+		BitSet bitmap = BitSet.valueOf(Base64.getDecoder().decode(body.get("bitmap").asText()));
+		assertFalse(bitmap.get(0));
+		assertTrue(bitmap.get(1));
+		assertFalse(bitmap.get(2));
+		assertTrue(bitmap.get(3));
+		assertEquals("[888888,777777]", body.get("missingIds").toString());
+	}
+
+	@Test
+	void rejectsOversizedAndEmptyBatches() throws Exception {
+		mockMvc.perform(get("/api/v1/customers").param("ids", "1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20,21"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/api/v1/customers/exists").contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[]}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void rejectsBlankAndNullIds() throws Exception {
+		mockMvc.perform(get("/api/v1/customers").param("ids", "1,,2"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/api/v1/customers/exists").contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[1,null]}"))
+				.andExpect(status().isBadRequest());
+	}
+}
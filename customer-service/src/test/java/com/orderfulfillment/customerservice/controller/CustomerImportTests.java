@@ -0,0 +1,94 @@
+package com.orderfulfillment.customerservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import com.orderfulfillment.customerservice.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "customer.import.chunk-size=100")
+@AutoConfigureMockMvc
+class CustomerImportTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Test
+	void csvImportCreatesValidRowsAcrossChunksAndReportsTheRest() throws Exception {
+		customerRepository.save(new Customer("Existing", "Customer", "existing.csv@example.com"));
+
+		StringBuilder csv = new StringBuilder("first_name,last_name,email,phone_number,address\n");
+		for (int i = 1; i <= 250; i++) {
+			csv.append("First").append(i).append(",Last").append(i).append(",bulk.csv").append(i)
+					.append("@example.com,555").append(i).append(",\"").append(i).append(" Main St, Springfield\"\n");
+		}
+		csv.append("Bad,Email,not-an-email,,\n");                        // line 252
+		csv.append("Dup,Row,bulk.csv7@example.com,,\n");                 // line 253, dup of an earlier chunk
+		csv.append("Existing,Row,existing.csv@example.com,,\n");         // line 254
+		csv.append("Too,Few,fields\n");                                  // line 255
+
+		JsonNode report = importFile(MediaType.parseMediaType("text/csv"), csv.toString());
+
+		assertEquals(254, report.get("received").asLong());
+		assertEquals(250, report.get("imported").asLong());
+		assertEquals(4, report.get("rejected").asLong());
+		assertFalse(report.get("errorsTruncated").asBoolean());
+		assertEquals(252, report.get("errors").get(0).get("line").asLong());
+		assertEquals("Email should be valid", report.get("errors").get(0).get("message").asText());
+		assertEquals(253, report.get("errors").get(1).get("line").asLong());
+		assertEquals(254, report.get("errors").get(2).get("line").asLong());
+		assertEquals(255, report.get("errors").get(3).get("line").asLong());
+
+		Customer imported = customerRepository.findByEmail("bulk.csv42@example.com").orElseThrow();
+		assertEquals("42 Main St, Springfield", imported.getAddress());
+		assertTrue(customerService.existsById(imported.getId()));
+	}
+
+	@Test
+	void ndjsonImportReportsMalformedLinesAndDuplicatesWithinTheFile() throws Exception {
+		String ndjson = """
+				{"firstName":"Nd","lastName":"One","email":"bulk.nd1@example.com"}
+				{"firstName":"Nd","lastName":"Two",
+				{"firstName":"Nd","lastName":"Three","email":"bulk.nd1@example.com"}
+
+				{"firstName":"Nd","lastName":"Four","email":"bulk.nd4@example.com"}
+				""";
+
+		JsonNode report = importFile(MediaType.APPLICATION_NDJSON, ndjson);
+
+		assertEquals(4, report.get("received").asLong());
+		assertEquals(2, report.get("imported").asLong());
+		assertEquals(2, report.get("errors").get(0).get("line").asLong());
+		assertTrue(report.get("errors").get(0).get("message").asText().startsWith("Malformed JSON"));
+		assertEquals("Duplicate email in import, first on line 1", report.get("errors").get(1).get("message").asText());
+		assertTrue(customerRepository.findByEmail("bulk.nd4@example.com").isPresent());
+	}
+
+	private JsonNode importFile(MediaType contentType, String content) throws Exception {
+		String response = mockMvc.perform(post("/api/v1/customers/import").contentType(contentType).content(content))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(response);
+	}
+}
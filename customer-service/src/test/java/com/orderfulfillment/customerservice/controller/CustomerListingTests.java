@@ -0,0 +1,99 @@
+package com.orderfulfillment.customerservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "customer.listing.max-page-size=10")
+@AutoConfigureMockMvc
+class CustomerListingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Test
+	void pagesFollowTheCursorAndHonourTheFieldSet() throws Exception {
+		List<Long> created = createCustomers("page", 25);
+
+		List<Long> ids = new ArrayList<>();
+		String after = String.valueOf(created.get(0) - 1);
+		do {
+			JsonNode page = objectMapper.readTree(mockMvc.perform(get("/api/v1/customers")
+							.param("limit", "50").param("after", after).param("fields", "id,email"))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			assertTrue(page.get("customers").size() <= 10);
+			page.get("customers").forEach(customer -> {
+				assertEquals(2, customer.size());
+				assertTrue(customer.get("email").asText().startsWith("page."));
+				ids.add(customer.get("id").asLong());
+			});
+			after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+		} while (after != null);
+
+		assertEquals(created, ids);
+
+		mockMvc.perform(get("/api/v1/customers").param("limit", "5").param("fields", "id,password"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void customersAreExportedAsNdjsonFromTheCursor() throws Exception {
+		List<Long> created = createCustomers("export", 8);
+
+		MvcResult result = mockMvc.perform(get("/api/v1/customers")
+						.param("after", String.valueOf(created.get(4)))
+						.param("fields", "id,lastName")
+						.accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.strip().split("\n");
+		assertEquals(3, lines.length);
+		for (int i = 0; i < lines.length; i++) {
+			JsonNode customer = objectMapper.readTree(lines[i]);
+			assertEquals(created.get(5 + i), customer.get("id").asLong());
+			assertEquals("Export" + (5 + i), customer.get("lastName").asText());
+			assertEquals(2, customer.size());
+		}
+	}
+
+	private List<Long> createCustomers(String prefix, int count) {
+		List<Long> ids = new ArrayList<>();
+		String lastName = Character.toUpperCase(prefix.charAt(0)) + prefix.substring(1);
+		for (int i = 0; i < count; i++) {
+			ids.add(customerRepository.save(new Customer("Listing", lastName + i, prefix + "." + i + "@listing.example")).getId());
+		}
+		return ids;
+	}
+}
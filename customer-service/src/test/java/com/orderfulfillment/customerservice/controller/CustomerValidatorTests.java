@@ -0,0 +1,82 @@
+package com.orderfulfillment.customerservice.controller;
+
+import com.orderfulfillment.customerservice.cache.CustomerCache;
+import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerValidatorTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerCache customerCache;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void unchangedCustomersRevalidateWith304AndUpdatesChangeTheETag() throws Exception {
+		Customer customer = customerRepository.save(new Customer("Ada", "Lovelace", "ada.validators@example.com"));
+		String uri = "/api/v1/customers/" + customer.getId();
+
+		String eTag = mockMvc.perform(get(uri))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotNull(eTag);
+
+		mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+		assertEquals(1.0, meterRegistry.get("customer.revalidations").tag("result", "not-modified")
+				.functionCounter().count());
+
+		String body = "{\"firstName\":\"Ada\",\"lastName\":\"King\",\"email\":\"ada.validators@example.com\"}";
+		String updatedETag = mockMvc.perform(put(uri).contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(eTag, updatedETag);
+
+		// The update evicted the cached copy, so the stale ETag now gets the new customer
+		mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.lastName").value("King"));
+		mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, updatedETag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void existenceChecksWarmTheCacheAndDeletesEvict() throws Exception {
+		Customer customer = customerRepository.save(new Customer("Alan", "Turing", "alan.validators@example.com"));
+		String uri = "/api/v1/customers/" + customer.getId();
+
+		mockMvc.perform(get(uri + "/exists")).andExpect(jsonPath("$").value(true));
+		assertNotNull(customerCache.get(customer.getId()));
+
+		mockMvc.perform(delete(uri))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(get(uri + "/exists")).andExpect(jsonPath("$").value(false));
+		mockMvc.perform(get(uri)).andExpect(status().isNotFound());
+	}
+}
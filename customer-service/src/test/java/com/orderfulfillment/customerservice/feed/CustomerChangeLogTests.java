@@ -0,0 +1,97 @@
+package com.orderfulfillment.customerservice.feed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderfulfillment.customerservice.dto.CustomerChangePageDto;
+import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "customer.feed.retention=0")
+@AutoConfigureMockMvc
+class CustomerChangeLogTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerChangeLog changeLog;
+
+	@Test
+	void createUpdateAndDeleteAppearInCommitOrder() throws Exception {
+		long start = changeLog.changesAfter(0L, 1).getLatestSequence();
+
+		String created = mockMvc.perform(post("/api/v1/customers")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"firstName\":\"Feed\",\"lastName\":\"Before\",\"email\":\"feed.person@example.com\"}"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		long id = objectMapper.readTree(created).get("id").asLong();
+		mockMvc.perform(put("/api/v1/customers/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"firstName\":\"Feed\",\"lastName\":\"After\",\"email\":\"feed.person@example.com\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(delete("/api/v1/customers/{id}", id))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(post("/api/v1/customers/import")
+						.contentType("text/csv")
+						.content("firstName,lastName,email\nFeed,Imported,feed.imported@example.com\n"))
+				.andExpect(status().isOk());
+
+		JsonNode page = objectMapper.readTree(mockMvc.perform(get("/api/v1/customers/changes")
+						.param("after", String.valueOf(start)).param("limit", "2"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+		assertEquals(2, page.get("changes").size());
+		assertEquals(start + 4, page.get("latestSequence").asLong());
+		assertEquals("CREATED", page.get("changes").get(0).get("type").asText());
+		assertEquals("Before", page.get("changes").get(0).get("lastName").asText());
+		assertEquals("UPDATED", page.get("changes").get(1).get("type").asText());
+		assertEquals("After", page.get("changes").get(1).get("lastName").asText());
+
+		CustomerChangePageDto rest = changeLog.changesAfter(page.get("nextCursor").asLong(), 10);
+		assertEquals(2, rest.getChanges().size());
+		assertEquals(id, rest.getChanges().get(0).getCustomerId());
+		assertEquals("DELETED", rest.getChanges().get(0).getType().name());
+		assertEquals("Imported", rest.getChanges().get(1).getLastName());
+		assertEquals(start + 4, rest.getNextCursor());
+		assertEquals(List.of(start + 3, start + 4),
+				rest.getChanges().stream().map(change -> change.getSequence()).toList());
+	}
+
+	@Test
+	void consumersBehindThePrunedFeedAreToldToReset() {
+		customerRepository.save(new Customer("Feed", "Pruned", "feed.pruned@example.com"));
+		long latest = changeLog.changesAfter(0L, 1).getLatestSequence();
+
+		changeLog.prune();
+
+		CustomerChangePageDto behind = changeLog.changesAfter(0L, 10);
+		assertTrue(behind.isResetRequired());
+		assertTrue(behind.getChanges().isEmpty());
+		CustomerChangePageDto current = changeLog.changesAfter(latest, 10);
+		assertFalse(current.isResetRequired());
+	}
+}
@@ -0,0 +1,100 @@
+package com.orderfulfillment.customerservice.filter;
+
+import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import com.orderfulfillment.customerservice.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerExistenceFilterTests {
+
+	@Autowired
+	private CustomerExistenceFilter customerExistenceFilter;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void bloomFilterHasNoFalseNegativesAndStaysNearItsFalsePositiveRate() {
+		BloomFilter filter = BloomFilter.create(10_000, 0.01);
+		for (long key = 0; key < 10_000; key++) {
+			filter.add(BloomFilter.hash(key));
+		}
+
+		int falsePositives = 0;
+		for (long key = 0; key < 10_000; key++) {
+			assertTrue(filter.mightContain(BloomFilter.hash(key)));
+			if (filter.mightContain(BloomFilter.hash(key + 1_000_000))) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+		assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+	}
+
+	@Test
+	void knowsNewEmailsAndRejectsUnknownOnesWithoutAQuery() {
+		customerRepository.save(new Customer("Grace", "Hopper", "grace.filter@example.com"));
+
+		assertTrue(customerExistenceFilter.isReady());
+		assertTrue(customerExistenceFilter.mightContainEmail("grace.filter@example.com"));
+
+		double negatives = meterRegistry.get("customer.filter.checks")
+				.tags("filter", "email", "result", "negative").counter().count();
+		assertFalse(customerExistenceFilter.mightContainEmail("nobody.filter@example.com"));
+		assertTrue(meterRegistry.get("customer.filter.checks")
+				.tags("filter", "email", "result", "negative").counter().count() > negatives);
+
+		// A rebuild keeps every email
+		customerExistenceFilter.rebuild();
+		assertTrue(customerExistenceFilter.mightContainEmail("grace.filter@example.com"));
+	}
+
+	@Test
+	void customersWrittenByAnotherInstanceAreFoundAndTheirEmailsStayUnique() throws Exception {
+		// Written without going through this instance, so its filter has not seen the email
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.update("INSERT INTO customers (first_name, last_name, email, created_at, updated_at) " +
+				"VALUES (?, ?, ?, ?, ?)", "Ada", "Elsewhere", "ada.elsewhere@example.com", now, now);
+		Long customerId = customerRepository.findByEmail("ada.elsewhere@example.com").orElseThrow().getId();
+		assertFalse(customerExistenceFilter.mightContainEmail("ada.elsewhere@example.com"));
+
+		assertEquals("Elsewhere", customerService.getCustomerById(customerId).getLastName());
+		assertTrue(customerService.existsById(customerId));
+
+		// The filter misses the duplicate; the unique constraint still turns it away
+		mockMvc.perform(post("/api/v1/customers")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"firstName\":\"Ada\",\"lastName\":\"Again\",\"email\":\"ada.elsewhere@example.com\"}"))
+				.andExpect(status().isConflict());
+	}
+}
@@ -0,0 +1,164 @@
+package com.orderfulfillment.customerservice.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderfulfillment.customerservice.entity.Customer;
+import com.orderfulfillment.customerservice.repository.CustomerRepository;
+import com.orderfulfillment.customerservice.repository.CustomerRepository.CustomerSearchFields;
+import com.orderfulfillment.customerservice.search.CustomerSearchIndex.SearchMatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerSearchIndexTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerSearchIndex searchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void findsCustomersByPrefixSubstringAndTypo() {
+		Long id = customerRepository.save(new Customer("Quentin", "Zabrowski", "q.zabrowski@searchtest.example")).getId();
+
+		assertEquals(List.of(id), ids(searchIndex.search("zabro", 10)));
+		assertEquals(List.of(id), ids(searchIndex.search("QUENT zab", 10)));
+		assertEquals(List.of(id), ids(searchIndex.search("brows", 10)));
+		assertEquals(List.of(id), ids(searchIndex.search("zabrowksi", 10)));
+		assertEquals(List.of(id), ids(searchIndex.search("q.zabrowski@search", 10)));
+		assertTrue(searchIndex.search("quentin nomatch", 10).isEmpty());
+	}
+
+	@Test
+	void followsUpdatesAndDeletes() {
+		Customer customer = customerRepository.save(new Customer("Ottoline", "Vexley", "ottoline@searchtest.example"));
+		assertEquals(List.of(customer.getId()), ids(searchIndex.search("vexley", 10)));
+
+		customer.setLastName("Wrenfield");
+		customerRepository.save(customer);
+		assertTrue(searchIndex.search("vexley", 10).isEmpty());
+		assertEquals(List.of(customer.getId()), ids(searchIndex.search("wrenf", 10)));
+
+		customerRepository.deleteById(customer.getId());
+		assertTrue(searchIndex.search("wrenf", 10).isEmpty());
+	}
+
+	@Test
+	void searchEndpointRanksExactMatchesFirstAndHonoursTheLimit() throws Exception {
+		Long prefix = customerRepository.save(new Customer("Marisol", "Dunmorrow", "marisol.d@searchtest.example")).getId();
+		Long exact = customerRepository.save(new Customer("Maris", "Dunmorrow", "maris.d@searchtest.example")).getId();
+
+		JsonNode body = objectMapper.readTree(mockMvc.perform(get("/api/v1/customers/search").param("q", "maris dunmorrow"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+		assertTrue(body.get("complete").asBoolean());
+		assertEquals(2, body.get("hits").size());
+		assertEquals(exact, body.get("hits").get(0).get("customer").get("id").asLong());
+		assertEquals(prefix, body.get("hits").get(1).get("customer").get("id").asLong());
+		assertTrue(body.get("hits").get(0).get("score").asDouble() > body.get("hits").get(1).get("score").asDouble());
+
+		body = objectMapper.readTree(mockMvc.perform(get("/api/v1/customers/search").param("q", "dunmorrow").param("limit", "1"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+		assertEquals(1, body.get("hits").size());
+	}
+
+	@Test
+	void customersWrittenByAnotherInstanceAreFoundAfterARebuild() {
+		// Written without going through this instance, so its index has not seen the customer
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.update("INSERT INTO customers (first_name, last_name, email, created_at, updated_at) " +
+				"VALUES (?, ?, ?, ?, ?)", "Perpetua", "Elsewhither", "perpetua@searchtest.example", now, now);
+		Long id = customerRepository.findByEmail("perpetua@searchtest.example").orElseThrow().getId();
+		assertTrue(searchIndex.search("elsewhither", 10).isEmpty());
+
+		searchIndex.rebuild();
+
+		assertEquals(List.of(id), ids(searchIndex.search("elsewhither", 10)));
+		assertTrue(searchIndex.isReady());
+	}
+
+	@Test
+	void changesCommittedDuringARebuildAreNotOverwrittenByTheScan() {
+		CustomerRepository repository = mock(CustomerRepository.class);
+		CustomerSearchIndex index = new CustomerSearchIndex(repository, mock(PlatformTransactionManager.class),
+				1000, new SimpleMeterRegistry());
+		when(repository.streamAllSearchFields()).thenReturn(Stream.of(
+				fields(1L, "Nadia", "Original"), fields(2L, "Gone", "Soon"), fields(3L, "Stays", "Put")));
+		index.rebuild();
+
+		// The scan reads each row, then a change to it commits before the scanned copy is indexed
+		when(repository.streamAllSearchFields()).thenReturn(Stream.of(
+				fields(1L, "Nadia", "Original"), fields(2L, "Gone", "Soon"), fields(3L, "Stays", "Put"))
+				.peek(row -> {
+					if (row.getId() == 1L) {
+						index.index(1L, "Nadia", "Renamed", "nadia@searchtest.example");
+					} else if (row.getId() == 2L) {
+						index.remove(2L);
+					}
+				}));
+		index.rebuild();
+
+		assertEquals(List.of(1L), ids(index.search("renamed", 10)));
+		assertTrue(index.search("original", 10).isEmpty());
+		assertTrue(index.search("gone", 10).isEmpty());
+		assertEquals(List.of(3L), ids(index.search("stays", 10)));
+	}
+
+	private static CustomerSearchFields fields(Long id, String firstName, String lastName) {
+		return new CustomerSearchFields() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getFirstName() {
+				return firstName;
+			}
+
+			@Override
+			public String getLastName() {
+				return lastName;
+			}
+
+			@Override
+			public String getEmail() {
+				return null;
+			}
+		};
+	}
+
+	private static List<Long> ids(List<SearchMatch> matches) {
+		return matches.stream().map(SearchMatch::getCustomerId).toList();
+	}
+}
@@ -1,9 +1,21 @@
 package com.orderfulfillment.orderservice.client;
 
+import com.orderfulfillment.orderservice.dto.CustomerChangePageDto;
 import com.orderfulfillment.orderservice.dto.CustomerDto;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface CustomerServiceClient {
     Mono<CustomerDto> getCustomerById(Long customerId);
     Mono<Boolean> validateCustomer(Long customerId);
+
+    /**
+     * Polls customer-service's change feed for changes after the given sequence.
+     */
+    Mono<CustomerChangePageDto> getCustomerChanges(long afterSequence, int limit);
+
+    /**
+     * Streams the ID, names and email of every customer (NDJSON export).
+     */
+    Flux<CustomerDto> streamCustomerSummaries();
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.orderfulfillment.orderservice.client.impl;
 
 import com.orderfulfillment.orderservice.client.CustomerServiceClient;
+import com.orderfulfillment.orderservice.dto.CustomerChangePageDto;
 import com.orderfulfillment.orderservice.dto.CustomerDto;
 import com.orderfulfillment.orderservice.exception.CustomerNotFoundException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
@@ -9,8 +10,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
@@ -66,6 +69,35 @@ public class CustomerServiceClientImpl implements CustomerServiceClient {
                 .doOnError(error -> logger.error("Failed to validate customer: {}", customerId, error));
     }
 
+    // Replica sync calls run in the background and retry on the next poll, so they bypass the
+    // circuit breaker that guards order placement
+    @Override
+    public Mono<CustomerChangePageDto> getCustomerChanges(long afterSequence, int limit) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/customers/changes")
+                        .queryParam("after", afterSequence)
+                        .queryParam("limit", limit)
+                        .build())
+                .retrieve()
+                .bodyToMono(CustomerChangePageDto.class)
+                .timeout(Duration.ofMillis(timeout));
+    }
+
+    @Override
+    public Flux<CustomerDto> streamCustomerSummaries() {
+        logger.info("Streaming customer summaries from customer service");
+
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/customers")
+                        .queryParam("fields", "id,firstName,lastName,email")
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(CustomerDto.class)
+                // Per element, so a large export is not cut short
+                .timeout(Duration.ofMillis(timeout));
+    }
+
     // Fallback methods
     public Mono<CustomerDto> getCustomerByIdFallback(Long customerId, Exception ex) {
         logger.warn("Fallback: Unable to fetch customer {}, error: {}", customerId, ex.getMessage());
@@ -1,8 +1,13 @@
 package com.orderfulfillment.orderservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.orderfulfillment.orderservice.dto.CompleteOrderDetailsDto;
 import com.orderfulfillment.orderservice.dto.OrderRequestDto;
 import com.orderfulfillment.orderservice.dto.OrderResponseDto;
+import com.orderfulfillment.orderservice.dto.OrderStatusSummaryDto;
+import com.orderfulfillment.orderservice.dto.OrderStatusUpdateDto;
+import com.orderfulfillment.orderservice.dto.OrderStatusUpdateResultDto;
 import com.orderfulfillment.orderservice.enums.OrderStatus;
 import com.orderfulfillment.orderservice.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,9 +20,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -30,10 +40,12 @@ public class OrderController {
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
 
     private final OrderService orderService;
+    private final ObjectWriter statusSummaryWriter;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.statusSummaryWriter = objectMapper.writerFor(OrderStatusSummaryDto.class);
     }
 
     @PostMapping
@@ -134,6 +146,38 @@ public class OrderController {
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping(path = "/status-summaries", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream order statuses",
+            description = "Streams id, status and paymentId of up to 'limit' orders with an ID above 'afterId', " +
+                    "in ID order, one JSON object per line (used by payment-service reconciliation)")
+    @ApiResponse(responseCode = "200", description = "Order statuses streamed successfully")
+    public ResponseEntity<StreamingResponseBody> streamOrderStatuses(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "10000") int limit) {
+        logger.debug("Received request to stream up to {} order statuses after ID {}", limit, afterId);
+
+        StreamingResponseBody body = outputStream -> orderService.streamOrderStatuses(afterId, limit,
+                summary -> writeLine(outputStream, summary));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PutMapping("/status/batch")
+    @Operation(summary = "Update order statuses in bulk",
+            description = "Applies several status updates in one transaction (used by payment-service reconciliation). " +
+                    "Each entry reports whether it was applied")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Updates processed; see the per-order results"),
+            @ApiResponse(responseCode = "400", description = "Invalid entries or more updates than allowed in one batch")
+    })
+    public ResponseEntity<List<OrderStatusUpdateResultDto>> updateOrderStatuses(
+            @Valid @RequestBody List<@Valid OrderStatusUpdateDto> updates) {
+        logger.info("Received request to update {} order statuses", updates.size());
+
+        return ResponseEntity.ok(orderService.updateOrderStatuses(updates));
+    }
+
     @PutMapping("/{orderId}/cancel")
     @Operation(summary = "Cancel order", description = "Cancels an order with a reason")
     @ApiResponses(value = {
@@ -152,6 +196,15 @@ public class OrderController {
         return ResponseEntity.ok().build();
     }
 
+    private void writeLine(OutputStream outputStream, OrderStatusSummaryDto summary) {
+        try {
+            outputStream.write(statusSummaryWriter.writeValueAsBytes(summary));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stream order " + summary.getId(), e);
+        }
+    }
+
     @GetMapping("/health")
     @Operation(summary = "Health check", description = "Simple health check endpoint")
     @ApiResponse(responseCode = "200", description = "Service is healthy")
@@ -0,0 +1,49 @@
+package com.orderfulfillment.orderservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of customer-service's change feed.
+ */
+public class CustomerChangeDto {
+
+    private Long sequence;
+    private Long customerId;
+    private String type;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private LocalDateTime changedAt;
+
+    // Constructors
+    public CustomerChangeDto() {}
+
+    // Getters and Setters
+    public Long getSequence() { return sequence; }
+    public void setSequence(Long sequence) { this.sequence = sequence; }
+
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+
+    /**
+     * CREATED, UPDATED or DELETED.
+     */
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+
+    public boolean isDeletion() {
+        return "DELETED".equals(type);
+    }
+}
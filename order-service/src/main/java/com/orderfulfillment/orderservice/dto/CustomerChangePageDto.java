@@ -0,0 +1,30 @@
+package com.orderfulfillment.orderservice.dto;
+
+import java.util.List;
+
+/**
+ * One poll of customer-service's change feed.
+ */
+public class CustomerChangePageDto {
+
+    private List<CustomerChangeDto> changes;
+    private Long nextCursor;
+    private Long latestSequence;
+    private boolean resetRequired;
+
+    // Constructors
+    public CustomerChangePageDto() {}
+
+    // Getters and Setters
+    public List<CustomerChangeDto> getChanges() { return changes; }
+    public void setChanges(List<CustomerChangeDto> changes) { this.changes = changes; }
+
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+
+    public Long getLatestSequence() { return latestSequence; }
+    public void setLatestSequence(Long latestSequence) { this.latestSequence = latestSequence; }
+
+    public boolean isResetRequired() { return resetRequired; }
+    public void setResetRequired(boolean resetRequired) { this.resetRequired = resetRequired; }
+}
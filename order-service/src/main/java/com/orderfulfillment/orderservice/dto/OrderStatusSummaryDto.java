@@ -0,0 +1,39 @@
+package com.orderfulfillment.orderservice.dto;
+
+import com.orderfulfillment.orderservice.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slim view of an order's status, streamed to payment-service for reconciliation.
+ */
+public class OrderStatusSummaryDto {
+
+    private Long id;
+    private OrderStatus status;
+    private Long paymentId;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public OrderStatusSummaryDto() {}
+
+    public OrderStatusSummaryDto(Long id, OrderStatus status, Long paymentId, LocalDateTime updatedAt) {
+        this.id = id;
+        this.status = status;
+        this.paymentId = paymentId;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
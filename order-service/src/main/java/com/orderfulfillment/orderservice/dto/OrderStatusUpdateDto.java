@@ -0,0 +1,42 @@
+package com.orderfulfillment.orderservice.dto;
+
+import com.orderfulfillment.orderservice.enums.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One entry of a batched order status update.
+ */
+public class OrderStatusUpdateDto {
+
+    @NotNull(message = "Order ID is required")
+    private Long orderId;
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+
+    private Long paymentId;
+    private String reason;
+
+    // Constructors
+    public OrderStatusUpdateDto() {}
+
+    public OrderStatusUpdateDto(Long orderId, OrderStatus status, Long paymentId, String reason) {
+        this.orderId = orderId;
+        this.status = status;
+        this.paymentId = paymentId;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
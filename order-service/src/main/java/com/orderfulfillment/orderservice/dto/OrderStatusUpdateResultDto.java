@@ -0,0 +1,31 @@
+package com.orderfulfillment.orderservice.dto;
+
+/**
+ * Outcome of one entry of a batched order status update: APPLIED, UNCHANGED when the order
+ * already had the requested status, REJECTED for invalid transitions or NOT_FOUND.
+ */
+public class OrderStatusUpdateResultDto {
+
+    private Long orderId;
+    private String result;
+    private String message;
+
+    // Constructors
+    public OrderStatusUpdateResultDto() {}
+
+    public OrderStatusUpdateResultDto(Long orderId, String result, String message) {
+        this.orderId = orderId;
+        this.result = result;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public String getResult() { return result; }
+    public void setResult(String result) { this.result = result; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,6 @@
+package com.orderfulfillment.orderservice.exception;
+
+public class InvalidBatchRequestException extends RuntimeException {
+    public InvalidBatchRequestException(String message) { super(message); }
+    public InvalidBatchRequestException(String message, Throwable cause) { super(message, cause); }
+}
@@ -0,0 +1,152 @@
+package com.orderfulfillment.orderservice.replica;
+
+import com.orderfulfillment.orderservice.client.CustomerServiceClient;
+import com.orderfulfillment.orderservice.dto.CustomerChangeDto;
+import com.orderfulfillment.orderservice.dto.CustomerChangePageDto;
+import com.orderfulfillment.orderservice.dto.CustomerDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Local copy of customer IDs and summary fields, kept current from customer-service's change
+ * feed so that order placement need not ask customer-service whether a customer exists.
+ *
+ * On start (and whenever the feed says this replica fell too far behind) it reads the feed's
+ * latest sequence, loads every customer from the NDJSON export and then polls the feed from
+ * that sequence. Changes made during the load are replayed afterwards, which is harmless
+ * because applying a change is idempotent.
+ *
+ * Lookups only trust the replica while the last poll that caught up with the feed started
+ * within order.customer-replica.max-staleness. Customers it does not know, and every lookup
+ * while it is stale, go to customer-service instead, so a customer created moments ago is never
+ * rejected; a customer deleted within the staleness bound may still be accepted.
+ */
+@Component
+public class CustomerReplica {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerReplica.class);
+
+    private final CustomerServiceClient customerServiceClient;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleLookups;
+
+    @Value("${order.customer-replica.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.customer-replica.max-staleness:10000}")
+    private long maxStalenessMillis;
+
+    @Value("${order.customer-replica.page-size:500}")
+    private int pageSize;
+
+    // Replaced wholesale on a reload so lookups never see a half-loaded replica
+    private volatile Map<Long, CustomerSummary> customers = new ConcurrentHashMap<>();
+    private volatile long cursor = -1;
+    private volatile long syncedAtMillis;
+
+    public CustomerReplica(CustomerServiceClient customerServiceClient, MeterRegistry meterRegistry) {
+        this.customerServiceClient = customerServiceClient;
+
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.staleLookups = lookupCounter(meterRegistry, "stale");
+        Gauge.builder("customer.replica.size", this, replica -> replica.customers.size())
+                .description("Customers in the local replica")
+                .register(meterRegistry);
+        Gauge.builder("customer.replica.staleness", this, CustomerReplica::stalenessMillis)
+                .description("Time since the replica last caught up with the customer change feed")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The customer's summary if the replica is fresh and has the customer; empty means "ask
+     * customer-service", not "no such customer".
+     */
+    public Optional<CustomerSummary> find(Long customerId) {
+        if (!isFresh()) {
+            staleLookups.increment();
+            return Optional.empty();
+        }
+        CustomerSummary customer = customers.get(customerId);
+        (customer != null ? hits : misses).increment();
+        return Optional.ofNullable(customer);
+    }
+
+    public boolean isFresh() {
+        return cursor >= 0 && stalenessMillis() <= maxStalenessMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${order.customer-replica.poll-interval:1000}")
+    public synchronized void sync() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (cursor < 0) {
+                reload();
+            }
+            CustomerChangePageDto page;
+            do {
+                page = customerServiceClient.getCustomerChanges(cursor, pageSize).block();
+                if (page.isResetRequired()) {
+                    logger.warn("Customer replica fell behind the change feed at sequence {}; reloading", cursor);
+                    reload();
+                    continue;
+                }
+                page.getChanges().forEach(this::apply);
+                cursor = page.getNextCursor();
+            } while (page.isResetRequired() || cursor < page.getLatestSequence());
+            // Everything committed before this poll started has been applied
+            syncedAtMillis = startedAt;
+        } catch (RuntimeException e) {
+            logger.warn("Customer replica sync failed at sequence {}: {}", cursor, e.getMessage());
+        }
+    }
+
+    private void reload() {
+        long latestSequence = customerServiceClient.getCustomerChanges(0L, 1).block().getLatestSequence();
+        Map<Long, CustomerSummary> loaded = new ConcurrentHashMap<>();
+        try (Stream<CustomerDto> summaries = customerServiceClient.streamCustomerSummaries().toStream()) {
+            summaries.forEach(customer -> loaded.put(customer.getId(), new CustomerSummary(customer.getId(),
+                    customer.getFirstName(), customer.getLastName(), customer.getEmail())));
+        }
+        customers = loaded;
+        cursor = latestSequence;
+        logger.info("Loaded {} customers into the replica at change sequence {}", loaded.size(), latestSequence);
+    }
+
+    private void apply(CustomerChangeDto change) {
+        if (change.isDeletion()) {
+            customers.remove(change.getCustomerId());
+        } else {
+            customers.put(change.getCustomerId(), new CustomerSummary(change.getCustomerId(),
+                    change.getFirstName(), change.getLastName(), change.getEmail()));
+        }
+    }
+
+    private long stalenessMillis() {
+        return System.currentTimeMillis() - syncedAtMillis;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("customer.replica.lookups")
+                .description("Customer existence checks by whether the local replica answered them (hit), " +
+                        "did not know the customer (miss) or was too stale to ask (stale)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
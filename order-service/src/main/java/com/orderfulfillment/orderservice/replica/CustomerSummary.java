@@ -0,0 +1,28 @@
+package com.orderfulfillment.orderservice.replica;
+
+/**
+ * The customer fields order-service keeps locally: enough to know a customer exists and to
+ * label orders, without the rest of the customer record.
+ */
+public final class CustomerSummary {
+
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+
+    public CustomerSummary(Long id, String firstName, String lastName, String email) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    public Long getId() { return id; }
+
+    public String getFirstName() { return firstName; }
+
+    public String getLastName() { return lastName; }
+
+    public String getEmail() { return email; }
+}
@@ -1,14 +1,21 @@
 package com.orderfulfillment.orderservice.repository;
 
+import com.orderfulfillment.orderservice.dto.OrderStatusSummaryDto;
 import com.orderfulfillment.orderservice.entity.Order;
 import com.orderfulfillment.orderservice.enums.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -26,6 +33,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     long countByStatus(@Param("status") OrderStatus status);
 
+    /**
+     * Forward-only cursor over order statuses after the given ID, in ID order. Must be
+     * consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.orderfulfillment.orderservice.dto.OrderStatusSummaryDto(o.id, o.status, o.paymentId, o.updatedAt) " +
+            "FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    Stream<OrderStatusSummaryDto> streamStatusSummaries(@Param("afterId") Long afterId, Limit limit);
+
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
     List<Order> findOrdersCreatedBetween(@Param("startDate") LocalDateTime startDate,
                                          @Param("endDate") LocalDateTime endDate);
@@ -3,9 +3,13 @@ package com.orderfulfillment.orderservice.service;
 import com.orderfulfillment.orderservice.dto.CompleteOrderDetailsDto;
 import com.orderfulfillment.orderservice.dto.OrderRequestDto;
 import com.orderfulfillment.orderservice.dto.OrderResponseDto;
+import com.orderfulfillment.orderservice.dto.OrderStatusSummaryDto;
+import com.orderfulfillment.orderservice.dto.OrderStatusUpdateDto;
+import com.orderfulfillment.orderservice.dto.OrderStatusUpdateResultDto;
 import com.orderfulfillment.orderservice.enums.OrderStatus;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
@@ -24,4 +28,16 @@ public interface OrderService {
     void updateOrderStatus(Long orderId, OrderStatus status, Long paymentId);
 
     void cancelOrder(Long orderId, String reason);
+
+    /**
+     * Passes up to {@code limit} order statuses with an ID above {@code afterId} to the
+     * consumer in ID order, reading from a database cursor.
+     */
+    void streamOrderStatuses(Long afterId, int limit, Consumer<OrderStatusSummaryDto> consumer);
+
+    /**
+     * Applies several status updates in one transaction. Entries that cannot be applied are
+     * reported in the results and do not affect the others.
+     */
+    List<OrderStatusUpdateResultDto> updateOrderStatuses(List<OrderStatusUpdateDto> updates);
 }
\ No newline at end of file
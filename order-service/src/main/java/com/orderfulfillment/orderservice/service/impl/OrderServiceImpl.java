@@ -7,19 +7,27 @@ import com.orderfulfillment.orderservice.dto.*;
 import com.orderfulfillment.orderservice.enums.OrderStatus;
 import com.orderfulfillment.orderservice.exception.*;
         import com.orderfulfillment.orderservice.mapper.OrderMapper;
+import com.orderfulfillment.orderservice.replica.CustomerReplica;
 import com.orderfulfillment.orderservice.repository.OrderRepository;
 import com.orderfulfillment.orderservice.service.OrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -31,6 +39,13 @@ public class OrderServiceImpl implements OrderService {
     private final OrderMapper orderMapper;
     private final CustomerServiceClient customerServiceClient;
     private final PaymentServiceClient paymentServiceClient;
+    private final CustomerReplica customerReplica;
+
+    @Value("${order.reconciliation.max-stream-size:100000}")
+    private int maxStreamSize;
+
+    @Value("${order.reconciliation.max-update-batch-size:1000}")
+    private int maxUpdateBatchSize;
 
     // Circuit breaker state tracking
     private final AtomicInteger paymentServiceFailureCount = new AtomicInteger(0);
@@ -41,11 +56,13 @@ public class OrderServiceImpl implements OrderService {
     public OrderServiceImpl(OrderRepository orderRepository,
                             OrderMapper orderMapper,
                             CustomerServiceClient customerServiceClient,
-                            PaymentServiceClient paymentServiceClient) {
+                            PaymentServiceClient paymentServiceClient,
+                            CustomerReplica customerReplica) {
         this.orderRepository = orderRepository;
         this.orderMapper = orderMapper;
         this.customerServiceClient = customerServiceClient;
         this.paymentServiceClient = paymentServiceClient;
+        this.customerReplica = customerReplica;
     }
 
     @Override
@@ -87,6 +104,12 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private void validateCustomer(Long customerId) {
+        if (customerReplica.find(customerId).isPresent()) {
+            logger.debug("Customer {} found in the local replica", customerId);
+            return;
+        }
+
+        // Not in the replica (created since its last poll, or no such customer) or the replica is stale
         Boolean customerExists = customerServiceClient.validateCustomer(customerId)
                 .timeout(Duration.ofSeconds(5))
                 .block();
@@ -298,4 +321,62 @@ public class OrderServiceImpl implements OrderService {
             throw new InvalidOrderStateException("Cannot cancel order: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamOrderStatuses(Long afterId, int limit, Consumer<OrderStatusSummaryDto> consumer) {
+        int size = Math.max(1, Math.min(limit, maxStreamSize));
+        logger.debug("Streaming up to {} order statuses after ID {}", size, afterId);
+
+        // Constructor projection, so nothing accumulates in the persistence context
+        try (Stream<OrderStatusSummaryDto> orders = orderRepository.streamStatusSummaries(
+                afterId == null ? 0L : afterId, Limit.of(size))) {
+            orders.forEach(consumer);
+        }
+    }
+
+    @Override
+    public List<OrderStatusUpdateResultDto> updateOrderStatuses(List<OrderStatusUpdateDto> updates) {
+        if (updates.size() > maxUpdateBatchSize) {
+            throw new InvalidBatchRequestException("At most " + maxUpdateBatchSize
+                    + " status updates may be sent in one batch, got " + updates.size());
+        }
+        logger.info("Applying {} batched order status updates", updates.size());
+
+        Map<Long, Order> orders = orderRepository.findAllById(
+                        updates.stream().map(OrderStatusUpdateDto::getOrderId).toList())
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        List<OrderStatusUpdateResultDto> results = new ArrayList<>(updates.size());
+        List<Order> changed = new ArrayList<>();
+        for (OrderStatusUpdateDto update : updates) {
+            Order order = orders.get(update.getOrderId());
+            if (order == null) {
+                results.add(new OrderStatusUpdateResultDto(update.getOrderId(), "NOT_FOUND", null));
+                continue;
+            }
+            if (order.getStatus() == update.getStatus()) {
+                results.add(new OrderStatusUpdateResultDto(update.getOrderId(), "UNCHANGED", null));
+                continue;
+            }
+            try {
+                switch (update.getStatus()) {
+                    case COMPLETED -> order.complete(update.getPaymentId());
+                    case FAILED -> order.fail(update.getReason());
+                    case CANCELLED -> order.cancel(update.getReason());
+                    default -> throw new IllegalStateException("Batched updates do not support " + update.getStatus());
+                }
+                changed.add(order);
+                results.add(new OrderStatusUpdateResultDto(update.getOrderId(), "APPLIED", null));
+            } catch (IllegalStateException e) {
+                logger.warn("Rejected batched status update for order {}: {}", update.getOrderId(), e.getMessage());
+                results.add(new OrderStatusUpdateResultDto(update.getOrderId(), "REJECTED", e.getMessage()));
+            }
+        }
+
+        orderRepository.saveAll(changed);
+        logger.info("Applied {} of {} batched order status updates", changed.size(), updates.size());
+        return results;
+    }
+}
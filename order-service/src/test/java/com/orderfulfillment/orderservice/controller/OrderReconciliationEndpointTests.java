@@ -0,0 +1,151 @@
+package com.orderfulfillment.orderservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderfulfillment.orderservice.dto.OrderStatusUpdateDto;
+import com.orderfulfillment.orderservice.entity.Order;
+import com.orderfulfillment.orderservice.enums.OrderStatus;
+import com.orderfulfillment.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "order.reconciliation.max-update-batch-size=4")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderReconciliationEndpointTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository.deleteAll();
+	}
+
+	@Test
+	void streamsOrderStatusesInPagesAfterTheGivenId() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ids.add(orderRepository.save(order(OrderStatus.CONFIRMED)).getId());
+		}
+
+		List<Long> seen = new ArrayList<>();
+		long afterId = 0;
+		List<JsonNode> page;
+		while (!(page = stream("/api/v1/orders/status-summaries?afterId=" + afterId + "&limit=2")).isEmpty()) {
+			assertTrue(page.size() <= 2, "Page of " + page.size() + " exceeds the limit");
+			for (JsonNode summary : page) {
+				assertEquals("CONFIRMED", summary.get("status").asText());
+				seen.add(summary.get("id").asLong());
+			}
+			afterId = seen.get(seen.size() - 1);
+		}
+
+		assertEquals(ids, seen);
+	}
+
+	@Test
+	void reportsTheResultOfEveryBatchedUpdate() throws Exception {
+		Order processing = orderRepository.save(order(OrderStatus.PAYMENT_PROCESSING));
+		Order completed = orderRepository.save(order(OrderStatus.COMPLETED));
+		Order alsoCompleted = orderRepository.save(order(OrderStatus.COMPLETED));
+		long missingId = alsoCompleted.getId() + 1000;
+
+		mockMvc.perform(put("/api/v1/orders/status/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(List.of(
+								new OrderStatusUpdateDto(processing.getId(), OrderStatus.COMPLETED, 42L, null),
+								new OrderStatusUpdateDto(completed.getId(), OrderStatus.COMPLETED, 7L, null),
+								new OrderStatusUpdateDto(missingId, OrderStatus.FAILED, null, "Payment failed"),
+								new OrderStatusUpdateDto(alsoCompleted.getId(), OrderStatus.CANCELLED, null, "Too late")))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].result").value("APPLIED"))
+				.andExpect(jsonPath("$[1].result").value("UNCHANGED"))
+				.andExpect(jsonPath("$[2].result").value("NOT_FOUND"))
+				.andExpect(jsonPath("$[2].orderId").value(missingId))
+				.andExpect(jsonPath("$[3].result").value("REJECTED"))
+				.andExpect(jsonPath("$[3].message").value("Cannot transition from COMPLETED to CANCELLED"));
+
+		Order applied = orderRepository.findById(processing.getId()).orElseThrow();
+		assertEquals(OrderStatus.COMPLETED, applied.getStatus());
+		assertEquals(42L, applied.getPaymentId());
+		assertEquals(OrderStatus.COMPLETED, orderRepository.findById(alsoCompleted.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void rejectsBatchesOverTheConfiguredMaximum() throws Exception {
+		List<OrderStatusUpdateDto> updates = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Order order = orderRepository.save(order(OrderStatus.PAYMENT_PROCESSING));
+			updates.add(new OrderStatusUpdateDto(order.getId(), OrderStatus.COMPLETED, 100L + i, null));
+		}
+
+		mockMvc.perform(put("/api/v1/orders/status/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(updates)))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errorCode").value("INVALID_BATCH_REQUEST"));
+
+		for (OrderStatusUpdateDto update : updates) {
+			assertEquals(OrderStatus.PAYMENT_PROCESSING,
+					orderRepository.findById(update.getOrderId()).orElseThrow().getStatus());
+		}
+	}
+
+	private List<JsonNode> stream(String uri) throws Exception {
+		MvcResult result = mockMvc.perform(get(uri).accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		List<JsonNode> summaries = new ArrayList<>();
+		for (String line : body.strip().split("\n")) {
+			if (!line.isBlank()) {
+				summaries.add(objectMapper.readTree(line));
+			}
+		}
+		return summaries;
+	}
+
+	private static Order order(OrderStatus status) {
+		Order order = new Order(1L);
+		order.confirm();
+		if (status == OrderStatus.PAYMENT_PROCESSING || status == OrderStatus.COMPLETED) {
+			order.markPaymentProcessing();
+		}
+		if (status == OrderStatus.COMPLETED) {
+			order.complete(1L);
+		}
+		return order;
+	}
+}
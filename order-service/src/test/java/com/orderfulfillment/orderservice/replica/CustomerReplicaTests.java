@@ -0,0 +1,156 @@
+package com.orderfulfillment.orderservice.replica;
+
+import com.orderfulfillment.orderservice.client.CustomerServiceClient;
+import com.orderfulfillment.orderservice.dto.CustomerChangeDto;
+import com.orderfulfillment.orderservice.dto.CustomerChangePageDto;
+import com.orderfulfillment.orderservice.dto.CustomerDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerReplicaTests {
+
+	private static final int PAGE_SIZE = 2;
+
+	private final CustomerServiceClient customerServiceClient = mock(CustomerServiceClient.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private CustomerReplica replica;
+
+	@BeforeEach
+	void setUp() {
+		replica = new CustomerReplica(customerServiceClient, meterRegistry);
+		ReflectionTestUtils.setField(replica, "enabled", true);
+		ReflectionTestUtils.setField(replica, "maxStalenessMillis", 10_000L);
+		ReflectionTestUtils.setField(replica, "pageSize", PAGE_SIZE);
+	}
+
+	@Test
+	void loadsOnFirstSyncThenPagesThroughTheFeedUntilCaughtUp() {
+		feedAt(5L);
+		export(customer(1L, "Ada"), customer(2L, "Grace"));
+		when(customerServiceClient.getCustomerChanges(5L, PAGE_SIZE))
+				.thenReturn(Mono.just(page(7L, 8L, change(6L, 3L, "CREATED", "Edsger"), change(7L, 1L, "DELETED", null))));
+		when(customerServiceClient.getCustomerChanges(7L, PAGE_SIZE))
+				.thenReturn(Mono.just(page(8L, 8L, change(8L, 2L, "UPDATED", "Barbara"))));
+
+		assertFalse(replica.isFresh());
+		replica.sync();
+
+		assertTrue(replica.isFresh());
+		assertTrue(replica.find(1L).isEmpty(), "Deleted by the feed after the load");
+		assertEquals("Barbara", replica.find(2L).orElseThrow().getFirstName());
+		assertEquals("Edsger", replica.find(3L).orElseThrow().getFirstName());
+		verify(customerServiceClient).getCustomerChanges(5L, PAGE_SIZE);
+		verify(customerServiceClient).getCustomerChanges(7L, PAGE_SIZE);
+		assertEquals(2.0, lookups("hit"));
+		assertEquals(1.0, lookups("miss"));
+
+		// Caught up: the next poll asks from the last cursor and does not reload
+		when(customerServiceClient.getCustomerChanges(8L, PAGE_SIZE)).thenReturn(Mono.just(page(8L, 8L)));
+		replica.sync();
+		verify(customerServiceClient, times(1)).streamCustomerSummaries();
+	}
+
+	@Test
+	void reloadsWhenTheFeedSaysItFellTooFarBehind() {
+		feedAt(5L);
+		export(customer(1L, "Ada"));
+		when(customerServiceClient.getCustomerChanges(5L, PAGE_SIZE)).thenReturn(Mono.just(page(5L, 5L)));
+		replica.sync();
+		assertTrue(replica.find(1L).isPresent());
+
+		CustomerChangePageDto reset = page(5L, 40L);
+		reset.setResetRequired(true);
+		when(customerServiceClient.getCustomerChanges(5L, PAGE_SIZE)).thenReturn(Mono.just(reset));
+		feedAt(40L);
+		export(customer(2L, "Grace"));
+		when(customerServiceClient.getCustomerChanges(40L, PAGE_SIZE)).thenReturn(Mono.just(page(40L, 40L)));
+
+		replica.sync();
+
+		verify(customerServiceClient, times(2)).streamCustomerSummaries();
+		assertTrue(replica.isFresh());
+		assertTrue(replica.find(1L).isEmpty(), "The reload replaces the old contents");
+		assertTrue(replica.find(2L).isPresent());
+	}
+
+	@Test
+	void staleReplicaSendsEveryLookupToCustomerService() throws InterruptedException {
+		ReflectionTestUtils.setField(replica, "maxStalenessMillis", 50L);
+		feedAt(5L);
+		export(customer(1L, "Ada"));
+		when(customerServiceClient.getCustomerChanges(5L, PAGE_SIZE)).thenReturn(Mono.just(page(5L, 5L)));
+		replica.sync();
+		assertTrue(replica.find(1L).isPresent());
+
+		// A failed poll does not count as caught up
+		when(customerServiceClient.getCustomerChanges(5L, PAGE_SIZE))
+				.thenReturn(Mono.error(new IllegalStateException("customer-service is down")));
+		Thread.sleep(100);
+		replica.sync();
+
+		assertFalse(replica.isFresh());
+		assertTrue(replica.find(1L).isEmpty());
+		assertEquals(1.0, lookups("stale"));
+	}
+
+	@Test
+	void disabledReplicaNeverPolls() {
+		ReflectionTestUtils.setField(replica, "enabled", false);
+
+		replica.sync();
+
+		assertFalse(replica.isFresh());
+		verify(customerServiceClient, never()).getCustomerChanges(0L, 1);
+	}
+
+	private void feedAt(long latestSequence) {
+		when(customerServiceClient.getCustomerChanges(0L, 1)).thenReturn(Mono.just(page(0L, latestSequence)));
+	}
+
+	private void export(CustomerDto... customers) {
+		when(customerServiceClient.streamCustomerSummaries()).thenReturn(Flux.just(customers));
+	}
+
+	private double lookups(String result) {
+		return meterRegistry.get("customer.replica.lookups").tag("result", result).counter().count();
+	}
+
+	private static CustomerChangePageDto page(long nextCursor, long latestSequence, CustomerChangeDto... changes) {
+		CustomerChangePageDto page = new CustomerChangePageDto();
+		page.setChanges(List.of(changes));
+		page.setNextCursor(nextCursor);
+		page.setLatestSequence(latestSequence);
+		return page;
+	}
+
+	private static CustomerChangeDto change(long sequence, long customerId, String type, String firstName) {
+		CustomerChangeDto change = new CustomerChangeDto();
+		change.setSequence(sequence);
+		change.setCustomerId(customerId);
+		change.setType(type);
+		change.setFirstName(firstName);
+		return change;
+	}
+
+	private static CustomerDto customer(long id, String firstName) {
+		CustomerDto customer = new CustomerDto();
+		customer.setId(id);
+		customer.setFirstName(firstName);
+		return customer;
+	}
+}
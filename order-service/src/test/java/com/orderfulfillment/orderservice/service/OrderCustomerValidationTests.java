@@ -0,0 +1,83 @@
+package com.orderfulfillment.orderservice.service;
+
+import com.orderfulfillment.orderservice.client.CustomerServiceClient;
+import com.orderfulfillment.orderservice.client.PaymentServiceClient;
+import com.orderfulfillment.orderservice.dto.OrderItemDto;
+import com.orderfulfillment.orderservice.dto.OrderRequestDto;
+import com.orderfulfillment.orderservice.dto.PaymentDto;
+import com.orderfulfillment.orderservice.entity.Order;
+import com.orderfulfillment.orderservice.exception.CustomerNotFoundException;
+import com.orderfulfillment.orderservice.mapper.OrderMapper;
+import com.orderfulfillment.orderservice.replica.CustomerReplica;
+import com.orderfulfillment.orderservice.replica.CustomerSummary;
+import com.orderfulfillment.orderservice.repository.OrderRepository;
+import com.orderfulfillment.orderservice.service.impl.OrderServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderCustomerValidationTests {
+
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+	private final CustomerServiceClient customerServiceClient = mock(CustomerServiceClient.class);
+	private final PaymentServiceClient paymentServiceClient = mock(PaymentServiceClient.class);
+	private final CustomerReplica customerReplica = mock(CustomerReplica.class);
+	private OrderService orderService;
+
+	@BeforeEach
+	void setUp() {
+		orderService = new OrderServiceImpl(orderRepository, new OrderMapper(), customerServiceClient,
+				paymentServiceClient, customerReplica);
+		when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		PaymentDto payment = new PaymentDto();
+		payment.setId(1L);
+		when(paymentServiceClient.createPayment(any())).thenReturn(Mono.just(payment));
+	}
+
+	@Test
+	void customerInTheReplicaIsNotCheckedRemotely() {
+		when(customerReplica.find(7L)).thenReturn(Optional.of(new CustomerSummary(7L, "Ada", "Lovelace", "ada@example.com")));
+
+		orderService.createOrder(order(7L));
+
+		verify(customerServiceClient, never()).validateCustomer(any());
+		verify(paymentServiceClient).createPayment(any());
+	}
+
+	@Test
+	void customerTheReplicaCannotVouchForIsCheckedWithCustomerService() {
+		// Unknown to the replica, or the replica is stale: both answer empty
+		when(customerReplica.find(8L)).thenReturn(Optional.empty());
+		when(customerServiceClient.validateCustomer(8L)).thenReturn(Mono.just(true));
+
+		orderService.createOrder(order(8L));
+
+		verify(customerServiceClient).validateCustomer(8L);
+		verify(paymentServiceClient).createPayment(any());
+	}
+
+	@Test
+	void customerUnknownToCustomerServiceIsRejected() {
+		when(customerReplica.find(9L)).thenReturn(Optional.empty());
+		when(customerServiceClient.validateCustomer(9L)).thenReturn(Mono.just(false));
+
+		assertThrows(CustomerNotFoundException.class, () -> orderService.createOrder(order(9L)));
+
+		verify(orderRepository, never()).save(any(Order.class));
+	}
+
+	private static OrderRequestDto order(Long customerId) {
+		return new OrderRequestDto(customerId, List.of(new OrderItemDto("Widget", 2, new BigDecimal("9.99"))));
+	}
+}
@@ -0,0 +1,202 @@
+package com.orderfulfillment.paymentservice.cache;
+
+import com.orderfulfillment.paymentservice.dto.PaymentResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of payments by order ID for the payment-by-order lookup.
+ *
+ * Payments in a terminal status never change and are kept until evicted for space; all
+ * others expire after payment.cache.by-order.ttl. Every status transition invalidates the
+ * affected orders, again once its transaction commits. A lookup that raced with an
+ * invalidation does not cache the non-terminal state it loaded, so a reader cannot put back
+ * a status that was just replaced.
+ *
+ * Once payment.cache.by-order.max-size is reached, each new entry evicts an expired or
+ * non-terminal entry if one is found among the first few, otherwise an arbitrary one.
+ */
+@Component
+public class PaymentByOrderCache {
+
+    private static final String CACHE_NAME = "payment-by-order";
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; lookups only cache non-terminal payments if it did not move
+    private final AtomicLong invalidations = new AtomicLong();
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Counter evictionCounter;
+
+    public PaymentByOrderCache(@Value("${payment.cache.by-order.max-size:10000}") int maxSize,
+                               @Value("${payment.cache.by-order.ttl:2000}") long ttlMillis,
+                               MeterRegistry meterRegistry) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .description("Payment-by-order lookups answered from the cache")
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .description("Payment-by-order lookups that went to the database")
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, PaymentByOrderCache::hitRatio)
+                .description("Share of payment-by-order lookups answered from the cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", entries, Map::size)
+                .description("Payments held in the payment-by-order cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("cache.evictions")
+                .description("Entries evicted to keep the payment-by-order cache within its size")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached payment for the order, or null on a miss.
+     */
+    public PaymentResponseDto get(Long orderId) {
+        Entry entry = entries.get(orderId);
+        if (entry != null && entry.isExpired(System.nanoTime())) {
+            entries.remove(orderId, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.payment;
+    }
+
+    /**
+     * Marker to take before loading a payment from the database and to pass to {@link #put}.
+     */
+    public long version() {
+        return invalidations.get();
+    }
+
+    public void put(Long orderId, PaymentResponseDto payment, long version) {
+        boolean terminal = payment.getStatus() != null && payment.getStatus().isTerminalStatus();
+        if (!terminal && invalidations.get() != version) {
+            return;
+        }
+
+        Entry entry = new Entry(payment, terminal ? Long.MAX_VALUE : System.nanoTime() + ttlNanos);
+        if (entries.put(orderId, entry) == null && entries.size() > maxSize) {
+            evictOne(orderId);
+        }
+        // An invalidation may have slipped in between the check and the put
+        if (!terminal && invalidations.get() != version) {
+            entries.remove(orderId, entry);
+        }
+    }
+
+    public void invalidate(Long orderId) {
+        invalidateNowAndAfterCommit(() -> entries.remove(orderId));
+    }
+
+    public void invalidate(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            invalidateNowAndAfterCommit(() -> orderIds.forEach(entries::remove));
+        }
+    }
+
+    /**
+     * Drops every non-terminal entry, for bulk transitions that do not report which orders
+     * they touched.
+     */
+    public void invalidateNonTerminal() {
+        invalidateNowAndAfterCommit(() -> entries.values().removeIf(entry -> !entry.isTerminal()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private void invalidateNowAndAfterCommit(Runnable invalidation) {
+        invalidations.incrementAndGet();
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Readers may have reloaded the old state before the transaction committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidations.incrementAndGet();
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private void evictOne(Long keep) {
+        long now = System.nanoTime();
+        Map.Entry<Long, Entry> fallback = null;
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        for (int sampled = 0; iterator.hasNext() && sampled < EVICTION_SAMPLE; sampled++) {
+            Map.Entry<Long, Entry> candidate = iterator.next();
+            if (candidate.getKey().equals(keep)) {
+                continue;
+            }
+            if (!candidate.getValue().isTerminal() || candidate.getValue().isExpired(now)) {
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictionCounter.increment();
+                }
+                return;
+            }
+            if (fallback == null) {
+                fallback = candidate;
+            }
+        }
+        if (fallback != null && entries.remove(fallback.getKey(), fallback.getValue())) {
+            evictionCounter.increment();
+        }
+    }
+
+    private static final class Entry {
+        private final PaymentResponseDto payment;
+        private final long expiresAtNanos;
+
+        private Entry(PaymentResponseDto payment, long expiresAtNanos) {
+            this.payment = payment;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isTerminal() {
+            return expiresAtNanos == Long.MAX_VALUE;
+        }
+
+        private boolean isExpired(long now) {
+            return !isTerminal() && now - expiresAtNanos > 0;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.orderfulfillment.paymentservice.client;
 
+import com.orderfulfillment.paymentservice.dto.OrderStatusSummaryDto;
+import com.orderfulfillment.paymentservice.dto.OrderStatusUpdateDto;
+import com.orderfulfillment.paymentservice.dto.OrderStatusUpdateResultDto;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface OrderServiceClient {
 
     /**
@@ -18,4 +24,14 @@ public interface OrderServiceClient {
      * Check if order service is available
      */
     Mono<Boolean> isOrderServiceAvailable();
+
+    /**
+     * Stream the statuses of up to {@code limit} orders with an ID above {@code afterId}, in ID order
+     */
+    Flux<OrderStatusSummaryDto> streamOrderStatuses(Long afterId, int limit);
+
+    /**
+     * Apply several order status updates in one request
+     */
+    Mono<List<OrderStatusUpdateResultDto>> updateOrderStatuses(List<OrderStatusUpdateDto> updates);
 }
\ No newline at end of file
@@ -1,18 +1,25 @@
 package com.orderfulfillment.paymentservice.client.impl;
 
 import com.orderfulfillment.paymentservice.client.OrderServiceClient;
+import com.orderfulfillment.paymentservice.dto.OrderStatusSummaryDto;
+import com.orderfulfillment.paymentservice.dto.OrderStatusUpdateDto;
+import com.orderfulfillment.paymentservice.dto.OrderStatusUpdateResultDto;
 import com.orderfulfillment.paymentservice.exception.OrderServiceException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -96,18 +103,54 @@ public class OrderServiceClientImpl implements OrderServiceClient {
                 .onErrorReturn(false);
     }
 
-    // Circuit breaker fallback methods
+    @Override
+    public Flux<OrderStatusSummaryDto> streamOrderStatuses(Long afterId, int limit) {
+        logger.debug("Streaming up to {} order statuses after order {}", limit, afterId);
+
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/orders/status-summaries")
+                        .queryParam("afterId", afterId)
+                        .queryParam("limit", limit)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .onStatus(status -> status.isError(), response -> Mono.error(new OrderServiceException(
+                        "Failed to stream order statuses: " + response.statusCode())))
+                .bodyToFlux(OrderStatusSummaryDto.class)
+                // Applies between elements, so long streams are fine as long as they keep moving
+                .timeout(Duration.ofMillis(timeout));
+    }
+
+    @Override
+    @CircuitBreaker(name = "order-service")
+    @Retry(name = "order-service")
+    public Mono<List<OrderStatusUpdateResultDto>> updateOrderStatuses(List<OrderStatusUpdateDto> updates) {
+        logger.info("Sending {} batched order status updates", updates.size());
+
+        return webClient.put()
+                .uri("/api/v1/orders/status/batch")
+                .bodyValue(updates)
+                .retrieve()
+                .onStatus(status -> status.isError(), response -> Mono.error(new OrderServiceException(
+                        "Failed to update order statuses: " + response.statusCode())))
+                .bodyToMono(new ParameterizedTypeReference<List<OrderStatusUpdateResultDto>>() {})
+                .timeout(Duration.ofMillis(timeout))
+                .doOnError(error -> logger.error("Failed to send {} batched order status updates", updates.size(), error));
+    }
+
+    // Circuit breaker fallback methods. Failures are propagated so that callers can
+    // queue the notification for redelivery instead of treating it as delivered.
     public Mono<Void> updateOrderStatusFallback(Long orderId, Long paymentId, Exception ex) {
         logger.warn("Fallback: Failed to update order {} status, will retry later. Error: {}",
                 orderId, ex.getMessage());
-        // In production, this could queue the request for later retry
-        return Mono.empty();
+        return Mono.error(new OrderServiceException(
+                "Order service unavailable, could not update order " + orderId, ex));
     }
 
     public Mono<Void> cancelOrderFallback(Long orderId, String reason, Exception ex) {
         logger.warn("Fallback: Failed to cancel order {}, will retry later. Error: {}",
                 orderId, ex.getMessage());
-        // In production, this could queue the request for later retry
-        return Mono.empty();
+        return Mono.error(new OrderServiceException(
+                "Order service unavailable, could not cancel order " + orderId, ex));
     }
 }
\ No newline at end of file
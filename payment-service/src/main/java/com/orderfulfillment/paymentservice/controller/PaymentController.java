@@ -1,9 +1,16 @@
 package com.orderfulfillment.paymentservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.orderfulfillment.paymentservice.dto.PaymentPageDto;
 import com.orderfulfillment.paymentservice.dto.PaymentRequestDto;
 import com.orderfulfillment.paymentservice.dto.PaymentResponseDto;
+import com.orderfulfillment.paymentservice.dto.ReconciliationReportDto;
+import com.orderfulfillment.paymentservice.dto.RollingPaymentStatsDto;
 import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.reconciliation.OrderPaymentReconciler;
 import com.orderfulfillment.paymentservice.service.PaymentService;
+import com.orderfulfillment.paymentservice.service.PaymentStatisticsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,9 +21,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -28,17 +40,28 @@ public class PaymentController {
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
 
     private final PaymentService paymentService;
+    private final PaymentStatisticsService paymentStatisticsService;
+    private final OrderPaymentReconciler orderPaymentReconciler;
+    private final ObjectWriter paymentWriter;
 
     @Autowired
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService,
+                             PaymentStatisticsService paymentStatisticsService,
+                             OrderPaymentReconciler orderPaymentReconciler,
+                             ObjectMapper objectMapper) {
         this.paymentService = paymentService;
+        this.paymentStatisticsService = paymentStatisticsService;
+        this.orderPaymentReconciler = orderPaymentReconciler;
+        this.paymentWriter = objectMapper.writerFor(PaymentResponseDto.class);
     }
 
     @PostMapping
-    @Operation(summary = "Create a new payment", description = "Creates a new payment for an order")
+    @Operation(summary = "Create a new payment",
+            description = "Creates a new payment for an order. Idempotent per order: repeating an identical request returns the existing payment")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Payment created successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid input data")
+            @ApiResponse(responseCode = "201", description = "Payment created successfully, or the order's existing payment"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "409", description = "The order already has a payment with a different amount or payment method")
     })
     public ResponseEntity<PaymentResponseDto> createPayment(
             @Valid @RequestBody PaymentRequestDto paymentRequestDto) {
@@ -113,6 +136,48 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping(params = "limit")
+    @Operation(summary = "Get a page of payments",
+            description = "Keyset-paginated listing in ID order. Pass the returned nextCursor as 'after' " +
+                    "to fetch the next page; the page size is capped by payment.listing.max-page-size")
+    @ApiResponse(responseCode = "200", description = "Page retrieved successfully")
+    public ResponseEntity<PaymentPageDto> getPaymentPage(
+            @Parameter(description = "Only payments with this status") @RequestParam(required = false) PaymentStatus status,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size") @RequestParam int limit) {
+
+        return ResponseEntity.ok(paymentService.getPaymentPage(status, after, limit));
+    }
+
+    @GetMapping(path = "/status/{status}", params = "limit")
+    @Operation(summary = "Get a page of payments by status",
+            description = "Keyset-paginated listing of payments in one status, in ID order")
+    @ApiResponse(responseCode = "200", description = "Page retrieved successfully")
+    public ResponseEntity<PaymentPageDto> getPaymentPageByStatus(
+            @Parameter(description = "Payment status", required = true) @PathVariable PaymentStatus status,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size") @RequestParam int limit) {
+
+        return ResponseEntity.ok(paymentService.getPaymentPage(status, after, limit));
+    }
+
+    @GetMapping(path = {"", "/status/{status}"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream payments as NDJSON",
+            description = "Streams all payments, or those in one status, one JSON object per line. " +
+                    "Memory use stays flat regardless of how many payments match")
+    @ApiResponse(responseCode = "200", description = "Payments streamed successfully")
+    public ResponseEntity<StreamingResponseBody> streamPayments(
+            @Parameter(description = "Payment status") @PathVariable(required = false) PaymentStatus status) {
+
+        logger.info("Received request to stream payments with status: {}", status == null ? "any" : status);
+
+        StreamingResponseBody body = outputStream -> paymentService.streamPayments(status,
+                payment -> writeLine(outputStream, payment));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/order/{orderId}/exists")
     @Operation(summary = "Check if payment exists for order", description = "Checks if a payment exists for the given order ID")
     @ApiResponse(responseCode = "200", description = "Check completed")
@@ -128,6 +193,42 @@ public class PaymentController {
         return ResponseEntity.ok(exists);
     }
 
+    @GetMapping("/stats/rolling")
+    @Operation(summary = "Rolling payment statistics",
+            description = "Throughput, success rate, amounts, failure reasons and processing latency " +
+                    "percentiles over the last 1m/5m/1h")
+    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    public ResponseEntity<RollingPaymentStatsDto> getRollingStats() {
+        return ResponseEntity.ok(paymentStatisticsService.getRollingStats());
+    }
+
+    @PostMapping("/reconciliation")
+    @Operation(summary = "Reconcile orders and payments",
+            description = "Compares order statuses in order-service with payment statuses and reports mismatches. " +
+                    "With repair=true, orders whose payment notification was lost are updated")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reconciliation run finished"),
+            @ApiResponse(responseCode = "409", description = "A reconciliation run is already in progress")
+    })
+    public ResponseEntity<ReconciliationReportDto> reconcile(
+            @Parameter(description = "Send repairing status updates to order-service")
+            @RequestParam(defaultValue = "false") boolean repair) {
+        logger.info("Received request to reconcile orders and payments (repair: {})", repair);
+
+        return orderPaymentReconciler.reconcile(repair)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    private void writeLine(OutputStream outputStream, PaymentResponseDto payment) {
+        try {
+            outputStream.write(paymentWriter.writeValueAsBytes(payment));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stream payment " + payment.getId(), e);
+        }
+    }
+
     @GetMapping("/health")
     @Operation(summary = "Health check", description = "Simple health check endpoint")
     @ApiResponse(responseCode = "200", description = "Service is healthy")
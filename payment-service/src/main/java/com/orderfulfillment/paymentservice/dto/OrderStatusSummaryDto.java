@@ -0,0 +1,58 @@
+package com.orderfulfillment.paymentservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order's status as streamed by order-service for reconciliation.
+ */
+public class OrderStatusSummaryDto {
+
+    private Long id;
+    private String status;
+    private Long paymentId;
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public OrderStatusSummaryDto() {}
+
+    // Constructor with all fields
+    public OrderStatusSummaryDto(Long id, String status, Long paymentId, LocalDateTime updatedAt) {
+        this.id = id;
+        this.status = status;
+        this.paymentId = paymentId;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,56 @@
+package com.orderfulfillment.paymentservice.dto;
+
+/**
+ * One entry of a batched order status update sent to order-service.
+ */
+public class OrderStatusUpdateDto {
+
+    private Long orderId;
+    private String status;
+    private Long paymentId;
+    private String reason;
+
+    // Default constructor
+    public OrderStatusUpdateDto() {}
+
+    // Constructor with all fields
+    public OrderStatusUpdateDto(Long orderId, String status, Long paymentId, String reason) {
+        this.orderId = orderId;
+        this.status = status;
+        this.paymentId = paymentId;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
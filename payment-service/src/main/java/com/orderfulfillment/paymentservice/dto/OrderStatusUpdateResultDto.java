@@ -0,0 +1,46 @@
+package com.orderfulfillment.paymentservice.dto;
+
+/**
+ * Order-service's outcome for one batched status update: APPLIED, UNCHANGED, REJECTED or NOT_FOUND.
+ */
+public class OrderStatusUpdateResultDto {
+
+    private Long orderId;
+    private String result;
+    private String message;
+
+    // Default constructor
+    public OrderStatusUpdateResultDto() {}
+
+    // Constructor with all fields
+    public OrderStatusUpdateResultDto(Long orderId, String result, String message) {
+        this.orderId = orderId;
+        this.result = result;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,38 @@
+package com.orderfulfillment.paymentservice.dto;
+
+import java.util.List;
+
+public class PaymentPageDto {
+
+    private List<PaymentResponseDto> payments;
+    private Long nextCursor;
+
+    // Default constructor
+    public PaymentPageDto() {}
+
+    // Constructor with all fields
+    public PaymentPageDto(List<PaymentResponseDto> payments, Long nextCursor) {
+        this.payments = payments;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<PaymentResponseDto> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<PaymentResponseDto> payments) {
+        this.payments = payments;
+    }
+
+    /**
+     * Value to pass as {@code after} for the next page; null on the last page.
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
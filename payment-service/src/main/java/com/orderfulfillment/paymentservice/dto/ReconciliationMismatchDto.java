@@ -0,0 +1,67 @@
+package com.orderfulfillment.paymentservice.dto;
+
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.enums.ReconciliationMismatchType;
+
+public class ReconciliationMismatchDto {
+
+    private ReconciliationMismatchType type;
+    private Long orderId;
+    private String orderStatus;
+    private Long paymentId;
+    private PaymentStatus paymentStatus;
+
+    // Default constructor
+    public ReconciliationMismatchDto() {}
+
+    // Constructor with all fields
+    public ReconciliationMismatchDto(ReconciliationMismatchType type, Long orderId, String orderStatus,
+                                     Long paymentId, PaymentStatus paymentStatus) {
+        this.type = type;
+        this.orderId = orderId;
+        this.orderStatus = orderStatus;
+        this.paymentId = paymentId;
+        this.paymentStatus = paymentStatus;
+    }
+
+    // Getters and Setters
+    public ReconciliationMismatchType getType() {
+        return type;
+    }
+
+    public void setType(ReconciliationMismatchType type) {
+        this.type = type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getOrderStatus() {
+        return orderStatus;
+    }
+
+    public void setOrderStatus(String orderStatus) {
+        this.orderStatus = orderStatus;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+}
@@ -0,0 +1,122 @@
+package com.orderfulfillment.paymentservice.dto;
+
+import com.orderfulfillment.paymentservice.enums.ReconciliationMismatchType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class ReconciliationReportDto {
+
+    private LocalDateTime startedAt;
+    private long durationMillis;
+    private long ordersScanned;
+    private long paymentsScanned;
+    private Map<ReconciliationMismatchType, Long> mismatches;
+    private List<ReconciliationMismatchDto> sample;
+    private long repaired;
+    private long repairFailed;
+    private boolean completed;
+    private Long resumeAfterOrderId;
+
+    // Default constructor
+    public ReconciliationReportDto() {}
+
+    // Constructor with all fields
+    public ReconciliationReportDto(LocalDateTime startedAt, long durationMillis, long ordersScanned,
+                                   long paymentsScanned, Map<ReconciliationMismatchType, Long> mismatches,
+                                   List<ReconciliationMismatchDto> sample, long repaired, long repairFailed,
+                                   boolean completed, Long resumeAfterOrderId) {
+        this.startedAt = startedAt;
+        this.durationMillis = durationMillis;
+        this.ordersScanned = ordersScanned;
+        this.paymentsScanned = paymentsScanned;
+        this.mismatches = mismatches;
+        this.sample = sample;
+        this.repaired = repaired;
+        this.repairFailed = repairFailed;
+        this.completed = completed;
+        this.resumeAfterOrderId = resumeAfterOrderId;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public long getOrdersScanned() {
+        return ordersScanned;
+    }
+
+    public void setOrdersScanned(long ordersScanned) {
+        this.ordersScanned = ordersScanned;
+    }
+
+    public long getPaymentsScanned() {
+        return paymentsScanned;
+    }
+
+    public void setPaymentsScanned(long paymentsScanned) {
+        this.paymentsScanned = paymentsScanned;
+    }
+
+    public Map<ReconciliationMismatchType, Long> getMismatches() {
+        return mismatches;
+    }
+
+    public void setMismatches(Map<ReconciliationMismatchType, Long> mismatches) {
+        this.mismatches = mismatches;
+    }
+
+    public List<ReconciliationMismatchDto> getSample() {
+        return sample;
+    }
+
+    public void setSample(List<ReconciliationMismatchDto> sample) {
+        this.sample = sample;
+    }
+
+    public long getRepaired() {
+        return repaired;
+    }
+
+    public void setRepaired(long repaired) {
+        this.repaired = repaired;
+    }
+
+    public long getRepairFailed() {
+        return repairFailed;
+    }
+
+    public void setRepairFailed(long repairFailed) {
+        this.repairFailed = repairFailed;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public Long getResumeAfterOrderId() {
+        return resumeAfterOrderId;
+    }
+
+    public void setResumeAfterOrderId(Long resumeAfterOrderId) {
+        this.resumeAfterOrderId = resumeAfterOrderId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.orderfulfillment.paymentservice.dto;
+
+import java.util.Map;
+
+public class RollingPaymentStatsDto {
+
+    private Map<String, RollingWindowStatsDto> windows;
+
+    // Default constructor
+    public RollingPaymentStatsDto() {}
+
+    // Constructor with all fields
+    public RollingPaymentStatsDto(Map<String, RollingWindowStatsDto> windows) {
+        this.windows = windows;
+    }
+
+    // Getters and Setters
+    public Map<String, RollingWindowStatsDto> getWindows() {
+        return windows;
+    }
+
+    public void setWindows(Map<String, RollingWindowStatsDto> windows) {
+        this.windows = windows;
+    }
+}
@@ -0,0 +1,108 @@
+package com.orderfulfillment.paymentservice.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public class RollingWindowStatsDto {
+
+    private int windowSeconds;
+    private long completed;
+    private long failed;
+    private double paymentsPerSecond;
+    private double successRate;
+    private BigDecimal completedAmount;
+    private BigDecimal failedAmount;
+    private Map<String, Long> failureReasons;
+    private Map<String, Double> processingLatencyMillis;
+
+    // Default constructor
+    public RollingWindowStatsDto() {}
+
+    // Constructor with all fields
+    public RollingWindowStatsDto(int windowSeconds, long completed, long failed, double paymentsPerSecond,
+                                 double successRate, BigDecimal completedAmount, BigDecimal failedAmount,
+                                 Map<String, Long> failureReasons, Map<String, Double> processingLatencyMillis) {
+        this.windowSeconds = windowSeconds;
+        this.completed = completed;
+        this.failed = failed;
+        this.paymentsPerSecond = paymentsPerSecond;
+        this.successRate = successRate;
+        this.completedAmount = completedAmount;
+        this.failedAmount = failedAmount;
+        this.failureReasons = failureReasons;
+        this.processingLatencyMillis = processingLatencyMillis;
+    }
+
+    // Getters and Setters
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(int windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public double getPaymentsPerSecond() {
+        return paymentsPerSecond;
+    }
+
+    public void setPaymentsPerSecond(double paymentsPerSecond) {
+        this.paymentsPerSecond = paymentsPerSecond;
+    }
+
+    public double getSuccessRate() {
+        return successRate;
+    }
+
+    public void setSuccessRate(double successRate) {
+        this.successRate = successRate;
+    }
+
+    public BigDecimal getCompletedAmount() {
+        return completedAmount;
+    }
+
+    public void setCompletedAmount(BigDecimal completedAmount) {
+        this.completedAmount = completedAmount;
+    }
+
+    public BigDecimal getFailedAmount() {
+        return failedAmount;
+    }
+
+    public void setFailedAmount(BigDecimal failedAmount) {
+        this.failedAmount = failedAmount;
+    }
+
+    public Map<String, Long> getFailureReasons() {
+        return failureReasons;
+    }
+
+    public void setFailureReasons(Map<String, Long> failureReasons) {
+        this.failureReasons = failureReasons;
+    }
+
+    public Map<String, Double> getProcessingLatencyMillis() {
+        return processingLatencyMillis;
+    }
+
+    public void setProcessingLatencyMillis(Map<String, Double> processingLatencyMillis) {
+        this.processingLatencyMillis = processingLatencyMillis;
+    }
+}
@@ -4,6 +4,7 @@ import com.orderfulfillment.paymentservice.enums.PaymentStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,7 +12,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payments_order_id", columnNames = "order_id"),
+        indexes = @Index(name = "idx_payments_status_id", columnList = "status, id"))
 public class Payment {
 
     @Id
@@ -43,6 +46,23 @@ public class Payment {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
 
+    @Column(name = "claimed_by")
+    private String claimedBy;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @ColumnDefault("0")
+    @Column(name = "attempt_count", nullable = false)
+    private int attemptCount = 0;
+
+    // Not claimed again before this time; set when a payment is deferred by the gateway rate limit
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -134,6 +154,46 @@ public class Payment {
         this.processedAt = processedAt;
     }
 
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public int getAttemptCount() {
+        return attemptCount;
+    }
+
+    public void setAttemptCount(int attemptCount) {
+        this.attemptCount = attemptCount;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -171,11 +231,20 @@ public class Payment {
         }
     }
 
+    public void markAsClaimed(String claimedBy, String claimToken, LocalDateTime leaseExpiresAt) {
+        markAsProcessing();
+        this.claimedBy = claimedBy;
+        this.claimToken = claimToken;
+        this.leaseExpiresAt = leaseExpiresAt;
+        this.attemptCount++;
+    }
+
     public void markAsCompleted(String transactionId) {
         if (status.canTransitionTo(PaymentStatus.COMPLETED)) {
             this.status = PaymentStatus.COMPLETED;
             this.transactionId = transactionId;
             this.processedAt = LocalDateTime.now();
+            endLease();
         } else {
             throw new IllegalStateException("Cannot transition from " + status + " to COMPLETED");
         }
@@ -186,11 +255,51 @@ public class Payment {
             this.status = PaymentStatus.FAILED;
             this.failureReason = failureReason;
             this.processedAt = LocalDateTime.now();
+            endLease();
         } else {
             throw new IllegalStateException("Cannot transition from " + status + " to FAILED");
         }
     }
 
+    /**
+     * Returns a claimed payment to PENDING for another attempt.
+     */
+    public void releaseClaim() {
+        if (status.canTransitionTo(PaymentStatus.PENDING)) {
+            this.status = PaymentStatus.PENDING;
+            this.claimedBy = null;
+            this.nextAttemptAt = null;
+            endLease();
+        } else {
+            throw new IllegalStateException("Cannot transition from " + status + " to PENDING");
+        }
+    }
+
+    /**
+     * Returns a claimed payment to PENDING without counting the claim as an attempt, for
+     * payments that never reached the gateway. It is not claimed again before nextAttemptAt.
+     */
+    public void deferClaim(LocalDateTime nextAttemptAt) {
+        releaseClaim();
+        this.attemptCount = Math.max(0, attemptCount - 1);
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public void markAsQuarantined(String reason) {
+        if (status.canTransitionTo(PaymentStatus.QUARANTINED)) {
+            this.status = PaymentStatus.QUARANTINED;
+            this.failureReason = reason;
+            endLease();
+        } else {
+            throw new IllegalStateException("Cannot transition from " + status + " to QUARANTINED");
+        }
+    }
+
+    private void endLease() {
+        this.claimToken = null;
+        this.leaseExpiresAt = null;
+    }
+
     @Override
     public String toString() {
         return "Payment{" +
@@ -0,0 +1,16 @@
+package com.orderfulfillment.paymentservice.enums;
+
+public enum BatchPartialFailureMode {
+    RELEASE("Release transiently failed batch items for a later attempt"),
+    RETRY_INDIVIDUALLY("Retry each transiently failed batch item once on its own before releasing it");
+
+    private final String description;
+
+    BatchPartialFailureMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
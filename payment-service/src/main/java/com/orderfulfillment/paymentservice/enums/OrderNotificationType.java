@@ -0,0 +1,16 @@
+package com.orderfulfillment.paymentservice.enums;
+
+public enum OrderNotificationType {
+    PAYMENT_COMPLETED("Order should be marked as paid"),
+    PAYMENT_FAILED("Order should be cancelled because payment failed");
+
+    private final String description;
+
+    OrderNotificationType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
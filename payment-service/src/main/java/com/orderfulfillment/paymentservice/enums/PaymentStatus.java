@@ -5,7 +5,8 @@ public enum PaymentStatus {
     PROCESSING("Payment is being processed"),
     COMPLETED("Payment has been completed successfully"),
     FAILED("Payment processing failed"),
-    CANCELLED("Payment has been cancelled");
+    CANCELLED("Payment has been cancelled"),
+    QUARANTINED("Payment exceeded its processing attempts and needs manual review");
 
     private final String description;
 
@@ -26,7 +27,11 @@ public enum PaymentStatus {
             case PENDING:
                 return newStatus == PROCESSING || newStatus == FAILED || newStatus == CANCELLED;
             case PROCESSING:
-                return newStatus == COMPLETED || newStatus == FAILED;
+                // PENDING when an expired lease is reclaimed, QUARANTINED when it keeps expiring
+                return newStatus == COMPLETED || newStatus == FAILED
+                        || newStatus == PENDING || newStatus == QUARANTINED;
+            case QUARANTINED:
+                return newStatus == PENDING || newStatus == FAILED || newStatus == CANCELLED;
             case COMPLETED:
             case FAILED:
             case CANCELLED:
@@ -0,0 +1,27 @@
+package com.orderfulfillment.paymentservice.enums;
+
+public enum ReconciliationMismatchType {
+    ORDER_NOT_COMPLETED("Payment completed but the order is still awaiting payment"),
+    ORDER_NOT_CANCELLED("Payment failed but the order is still awaiting payment"),
+    MISSING_PAYMENT("Order is awaiting a payment that does not exist"),
+    ORPHAN_PAYMENT("Payment belongs to an order that does not exist"),
+    STATUS_CONFLICT("Order and payment reached contradicting outcomes");
+
+    private final String description;
+
+    ReconciliationMismatchType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Mismatches caused by a lost order notification, which reconciliation can repair by
+     * sending the order status the notification would have set.
+     */
+    public boolean isRepairable() {
+        return this == ORDER_NOT_COMPLETED || this == ORDER_NOT_CANCELLED;
+    }
+}
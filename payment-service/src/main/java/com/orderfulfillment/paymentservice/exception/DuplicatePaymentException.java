@@ -0,0 +1,12 @@
+package com.orderfulfillment.paymentservice.exception;
+
+/**
+ * Thrown when a payment is requested for an order that already has a payment with different
+ * details.
+ */
+public class DuplicatePaymentException extends RuntimeException {
+
+    public DuplicatePaymentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.orderfulfillment.paymentservice.gateway;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+
+import java.util.List;
+
+/**
+ * Authorizes payments against an external provider. Implementations are Spring beans and
+ * are selected per payment method by {@link PaymentGatewayRouter}.
+ *
+ * Implementations are called from worker threads and may block. They should report
+ * provider-side problems as {@link PaymentGatewayResult#transientFailure} rather than
+ * throwing, so the payment can be retried.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Name used to route payment methods to this gateway in configuration.
+     */
+    String getName();
+
+    PaymentGatewayResult authorize(Payment payment);
+
+    /**
+     * Authorizes several payments in one call. Returns one result per payment, in the same
+     * order. Gateways without a batch API keep the default, which authorizes one at a time.
+     */
+    default List<PaymentGatewayResult> authorizeBatch(List<Payment> payments) {
+        return payments.stream().map(this::authorize).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.orderfulfillment.paymentservice.gateway;
+
+/**
+ * Outcome of a gateway authorization. Declines are final; transient failures (provider errors,
+ * timeouts, rate limiting) leave the payment eligible for another attempt.
+ */
+public class PaymentGatewayResult {
+
+    public enum Outcome {
+        APPROVED,
+        DECLINED,
+        TRANSIENT_FAILURE
+    }
+
+    private final Outcome outcome;
+    private final String transactionId;
+    private final String reason;
+
+    private PaymentGatewayResult(Outcome outcome, String transactionId, String reason) {
+        this.outcome = outcome;
+        this.transactionId = transactionId;
+        this.reason = reason;
+    }
+
+    public static PaymentGatewayResult approved(String transactionId) {
+        return new PaymentGatewayResult(Outcome.APPROVED, transactionId, null);
+    }
+
+    public static PaymentGatewayResult declined(String reason) {
+        return new PaymentGatewayResult(Outcome.DECLINED, null, reason);
+    }
+
+    public static PaymentGatewayResult transientFailure(String reason) {
+        return new PaymentGatewayResult(Outcome.TRANSIENT_FAILURE, null, reason);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public boolean isApproved() {
+        return outcome == Outcome.APPROVED;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentGatewayResult{" +
+                "outcome=" + outcome +
+                ", transactionId='" + transactionId + '\'' +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.orderfulfillment.paymentservice.gateway;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Selects the {@link PaymentGateway} for a payment method. Routes are configured under
+ * payment.gateway.routes as paymentMethod: gatewayName; methods without a route use
+ * payment.gateway.default.
+ */
+@Component
+public class PaymentGatewayRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentGatewayRouter.class);
+
+    private final Map<String, PaymentGateway> gatewaysByMethod = new HashMap<>();
+    private final PaymentGateway defaultGateway;
+
+    public PaymentGatewayRouter(List<PaymentGateway> gateways,
+                                Environment environment,
+                                @Value("${payment.gateway.default:simulated}") String defaultGatewayName) {
+        Map<String, PaymentGateway> gatewaysByName = new HashMap<>();
+        gateways.forEach(gateway -> gatewaysByName.put(gateway.getName(), gateway));
+
+        this.defaultGateway = lookup(gatewaysByName, defaultGatewayName);
+
+        Map<String, String> routes = Binder.get(environment)
+                .bind("payment.gateway.routes", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        routes.forEach((method, gatewayName) ->
+                gatewaysByMethod.put(normalize(method), lookup(gatewaysByName, gatewayName)));
+
+        logger.info("Payment gateways: default '{}', routes {}", defaultGatewayName, routes);
+    }
+
+    public PaymentGateway route(String paymentMethod) {
+        if (paymentMethod == null) {
+            return defaultGateway;
+        }
+        return gatewaysByMethod.getOrDefault(normalize(paymentMethod), defaultGateway);
+    }
+
+    private static PaymentGateway lookup(Map<String, PaymentGateway> gatewaysByName, String name) {
+        PaymentGateway gateway = gatewaysByName.get(name);
+        if (gateway == null) {
+            throw new IllegalStateException("No payment gateway named '" + name + "', available: "
+                    + gatewaysByName.keySet());
+        }
+        return gateway;
+    }
+
+    private static String normalize(String paymentMethod) {
+        return paymentMethod.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+    }
+}
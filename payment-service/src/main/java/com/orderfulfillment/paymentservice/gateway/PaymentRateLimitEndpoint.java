@@ -0,0 +1,45 @@
+package com.orderfulfillment.paymentservice.gateway;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for inspecting and changing gateway rate limits at runtime
+ * (/actuator/paymentratelimits). Changes are not persisted and last until the next restart.
+ */
+@Component
+@Endpoint(id = "paymentratelimits")
+public class PaymentRateLimitEndpoint {
+
+    private final PaymentRateLimiter paymentRateLimiter;
+
+    public PaymentRateLimitEndpoint(PaymentRateLimiter paymentRateLimiter) {
+        this.paymentRateLimiter = paymentRateLimiter;
+    }
+
+    @ReadOperation
+    public Map<String, RateLimitSettings> rateLimits() {
+        return paymentRateLimiter.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, RateLimitSettings> updateRateLimit(@Selector String paymentMethod,
+                                                          double rate, @Nullable Integer burst) {
+        // Without an explicit burst allow one second worth of calls
+        paymentRateLimiter.update(paymentMethod, rate, burst != null ? burst : (int) Math.ceil(rate));
+        return paymentRateLimiter.snapshot();
+    }
+
+    @DeleteOperation
+    public Map<String, RateLimitSettings> removeRateLimit(@Selector String paymentMethod) {
+        paymentRateLimiter.update(paymentMethod, 0, 0);
+        return paymentRateLimiter.snapshot();
+    }
+}
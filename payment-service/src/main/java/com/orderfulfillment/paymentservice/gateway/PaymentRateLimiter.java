@@ -0,0 +1,200 @@
+package com.orderfulfillment.paymentservice.gateway;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token buckets per payment method, consulted before every gateway call so that draining a
+ * backlog does not push a gateway past the rate it accepts.
+ *
+ * Limits are configured under payment.gateway.rate-limits as paymentMethod: {rate, burst},
+ * where rate is calls per second and burst the bucket size. Methods without a limit are not
+ * throttled. Limits can be changed at runtime through the paymentratelimits actuator endpoint.
+ *
+ * Acquiring is lock-free: the bucket state is swapped by compare-and-set, and a changed limit
+ * takes effect on the next refill without resetting the tokens already in the bucket.
+ */
+@Component
+public class PaymentRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRateLimiter.class);
+
+    private final Map<String, MethodLimiter> limiters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public PaymentRateLimiter(Environment environment, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        Map<String, RateLimitSettings> configured = Binder.get(environment)
+                .bind("payment.gateway.rate-limits", Bindable.mapOf(String.class, RateLimitSettings.class))
+                .orElse(Map.of());
+        configured.forEach((method, settings) -> update(method, settings.getRate(), settings.getBurst()));
+
+        logger.info("Payment gateway rate limits: {}", snapshot());
+    }
+
+    /**
+     * Takes up to {@code requested} permits for the payment method and returns how many were
+     * granted. Never blocks; payments that were not granted a permit should be deferred.
+     */
+    public int tryAcquire(String paymentMethod, int requested) {
+        if (requested <= 0 || paymentMethod == null) {
+            return Math.max(requested, 0);
+        }
+        MethodLimiter limiter = limiters.get(normalize(paymentMethod));
+        if (limiter == null) {
+            return requested;
+        }
+        int granted = limiter.tryAcquire(requested);
+        if (granted < requested) {
+            limiter.throttledCounter.increment(requested - granted);
+        }
+        return granted;
+    }
+
+    /**
+     * Time until {@code tokens} permits will have accumulated for the payment method, assuming
+     * none are taken in the meantime; zero if the method is not limited or they are available.
+     * Deferred payments are not claimed again before then.
+     */
+    public Duration refillTime(String paymentMethod, int tokens) {
+        if (tokens <= 0 || paymentMethod == null) {
+            return Duration.ZERO;
+        }
+        MethodLimiter limiter = limiters.get(normalize(paymentMethod));
+        if (limiter == null) {
+            return Duration.ZERO;
+        }
+        Limits current = limiter.limits;
+        if (!current.isLimited()) {
+            return Duration.ZERO;
+        }
+        double missing = tokens - limiter.availableTokens();
+        return missing <= 0 ? Duration.ZERO : Duration.ofNanos((long) Math.ceil(missing / current.rate * 1e9));
+    }
+
+    /**
+     * Sets the limit for a payment method. A rate of zero or less removes the limit.
+     */
+    public void update(String paymentMethod, double rate, int burst) {
+        String method = normalize(paymentMethod);
+        Limits limits = rate > 0 ? new Limits(rate, Math.max(1, burst)) : Limits.UNLIMITED;
+        limiters.computeIfAbsent(method, this::newLimiter).limits = limits;
+        logger.info("Rate limit for payment method {} set to {}", method, limits);
+    }
+
+    public Map<String, RateLimitSettings> snapshot() {
+        Map<String, RateLimitSettings> snapshot = new TreeMap<>();
+        limiters.forEach((method, limiter) -> {
+            Limits limits = limiter.limits;
+            if (limits.isLimited()) {
+                snapshot.put(method, new RateLimitSettings(limits.rate, limits.burst, limiter.availableTokens()));
+            }
+        });
+        return snapshot;
+    }
+
+    private MethodLimiter newLimiter(String method) {
+        MethodLimiter limiter = new MethodLimiter();
+        limiter.throttledCounter = Counter.builder("payment.gateway.rate-limit.throttled")
+                .description("Payments deferred because their payment method was out of gateway tokens")
+                .tag("method", method)
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.rate-limit.saturation", limiter, MethodLimiter::saturation)
+                .description("Share of the token bucket in use: 0 is idle, 1 is throttling")
+                .tag("method", method)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    static String normalize(String paymentMethod) {
+        return paymentMethod.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+    }
+
+    private static final class Limits {
+        private static final Limits UNLIMITED = new Limits(0, 0);
+
+        private final double rate;
+        private final int burst;
+
+        private Limits(double rate, int burst) {
+            this.rate = rate;
+            this.burst = burst;
+        }
+
+        private boolean isLimited() {
+            return rate > 0;
+        }
+
+        @Override
+        public String toString() {
+            return isLimited() ? rate + "/s, burst " + burst : "unlimited";
+        }
+    }
+
+    private static final class BucketState {
+        private final double tokens;
+        private final long refilledAtNanos;
+
+        private BucketState(double tokens, long refilledAtNanos) {
+            this.tokens = tokens;
+            this.refilledAtNanos = refilledAtNanos;
+        }
+    }
+
+    private static final class MethodLimiter {
+        // New buckets start full so a restart does not throttle the first burst
+        private final AtomicReference<BucketState> state = new AtomicReference<>();
+        private volatile Limits limits = Limits.UNLIMITED;
+        private Counter throttledCounter;
+
+        private int tryAcquire(int requested) {
+            while (true) {
+                Limits current = limits;
+                if (!current.isLimited()) {
+                    return requested;
+                }
+                BucketState before = state.get();
+                long now = System.nanoTime();
+                double tokens = refill(before, current, now);
+                int granted = (int) Math.min(requested, Math.floor(tokens));
+                if (state.compareAndSet(before, new BucketState(tokens - granted, now))) {
+                    return granted;
+                }
+            }
+        }
+
+        private double availableTokens() {
+            Limits current = limits;
+            return current.isLimited() ? refill(state.get(), current, System.nanoTime()) : 0;
+        }
+
+        private double saturation() {
+            Limits current = limits;
+            return current.isLimited() ? 1.0 - availableTokens() / current.burst : 0.0;
+        }
+
+        private static double refill(BucketState state, Limits limits, long now) {
+            if (state == null) {
+                return limits.burst;
+            }
+            double elapsedSeconds = (now - state.refilledAtNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            return Math.min(limits.burst, state.tokens + elapsedSeconds * limits.rate);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.orderfulfillment.paymentservice.gateway;
+
+/**
+ * Gateway rate limit for one payment method: rate in calls per second and the burst the
+ * token bucket holds. Bound from payment.gateway.rate-limits and reported by the
+ * paymentratelimits actuator endpoint together with the tokens currently available.
+ */
+public class RateLimitSettings {
+
+    private double rate;
+    private int burst;
+    private Double availableTokens;
+
+    public RateLimitSettings() {}
+
+    public RateLimitSettings(double rate, int burst, Double availableTokens) {
+        this.rate = rate;
+        this.burst = burst;
+        this.availableTokens = availableTokens;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public Double getAvailableTokens() {
+        return availableTokens;
+    }
+
+    public void setAvailableTokens(Double availableTokens) {
+        this.availableTokens = availableTokens;
+    }
+
+    @Override
+    public String toString() {
+        return rate + "/s, burst " + burst;
+    }
+}
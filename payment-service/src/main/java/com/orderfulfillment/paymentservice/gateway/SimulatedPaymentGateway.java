@@ -0,0 +1,179 @@
+package com.orderfulfillment.paymentservice.gateway;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process gateway for local runs and performance tests. Latency follows a log-normal
+ * distribution defined by its median and 99th percentile, and a configurable share of calls
+ * is declined, fails with a provider error or times out. Calls beyond the rate limit are
+ * rejected as transient failures, like a provider answering 429.
+ *
+ * Batch calls pay the sampled latency once plus a small per-item cost. Timeouts and rate
+ * limiting affect the whole batch; provider errors and declines are rolled per item, so a
+ * batch can come back partially failed.
+ */
+@Component
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedPaymentGateway.class);
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.326;
+
+    private final double medianLatencyMillis;
+    private final double latencySigma;
+    private final double declineRate;
+    private final double errorRate;
+    private final double timeoutRate;
+    private final long timeoutMillis;
+    private final int rateLimitPerSecond;
+    private final long batchItemLatencyMillis;
+
+    private final AtomicLong rateWindow = new AtomicLong();
+
+    public SimulatedPaymentGateway(@Value("${payment.gateway.simulator.latency.median:100}") long medianLatencyMillis,
+                                   @Value("${payment.gateway.simulator.latency.p99:500}") long p99LatencyMillis,
+                                   @Value("${payment.gateway.simulator.decline-rate:0.1}") double declineRate,
+                                   @Value("${payment.gateway.simulator.error-rate:0.0}") double errorRate,
+                                   @Value("${payment.gateway.simulator.timeout-rate:0.0}") double timeoutRate,
+                                   @Value("${payment.gateway.simulator.timeout:5000}") long timeoutMillis,
+                                   @Value("${payment.gateway.simulator.rate-limit:0}") int rateLimitPerSecond,
+                                   @Value("${payment.gateway.simulator.batch-item-latency:2}") long batchItemLatencyMillis) {
+        this.medianLatencyMillis = medianLatencyMillis;
+        this.latencySigma = medianLatencyMillis > 0 && p99LatencyMillis > medianLatencyMillis
+                ? Math.log((double) p99LatencyMillis / medianLatencyMillis) / Z_99
+                : 0.0;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+        this.timeoutRate = timeoutRate;
+        this.timeoutMillis = timeoutMillis;
+        this.rateLimitPerSecond = rateLimitPerSecond;
+        this.batchItemLatencyMillis = batchItemLatencyMillis;
+
+        logger.info("Simulated payment gateway: median {} ms, p99 {} ms, decline {}, error {}, timeout {}, rate limit {}/s",
+                medianLatencyMillis, p99LatencyMillis, declineRate, errorRate, timeoutRate, rateLimitPerSecond);
+    }
+
+    @Override
+    public String getName() {
+        return "simulated";
+    }
+
+    @Override
+    public PaymentGatewayResult authorize(Payment payment) {
+        if (!tryAcquireRate()) {
+            return PaymentGatewayResult.transientFailure("Gateway rate limit exceeded");
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+
+        if (roll < timeoutRate) {
+            sleep(timeoutMillis);
+            return PaymentGatewayResult.transientFailure("Gateway timed out after " + timeoutMillis + " ms");
+        }
+
+        sleep(sampleLatencyMillis(random));
+
+        if (roll < timeoutRate + errorRate) {
+            return PaymentGatewayResult.transientFailure("Gateway error");
+        }
+        if (roll < timeoutRate + errorRate + declineRate) {
+            return PaymentGatewayResult.declined("Payment processing failed - insufficient funds");
+        }
+        return PaymentGatewayResult.approved("TXN-" + UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    @Override
+    public List<PaymentGatewayResult> authorizeBatch(List<Payment> payments) {
+        if (!tryAcquireRate()) {
+            return repeat(PaymentGatewayResult.transientFailure("Gateway rate limit exceeded"), payments.size());
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < timeoutRate) {
+            sleep(timeoutMillis);
+            return repeat(PaymentGatewayResult.transientFailure("Gateway timed out after " + timeoutMillis + " ms"),
+                    payments.size());
+        }
+
+        sleep(sampleLatencyMillis(random) + batchItemLatencyMillis * (payments.size() - 1));
+
+        List<PaymentGatewayResult> results = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            double roll = random.nextDouble();
+            if (roll < errorRate) {
+                results.add(PaymentGatewayResult.transientFailure("Gateway error"));
+            } else if (roll < errorRate + declineRate) {
+                results.add(PaymentGatewayResult.declined("Payment processing failed - insufficient funds"));
+            } else {
+                results.add(PaymentGatewayResult.approved("TXN-" + UUID.randomUUID().toString().substring(0, 8)));
+            }
+        }
+        return results;
+    }
+
+    private static List<PaymentGatewayResult> repeat(PaymentGatewayResult result, int count) {
+        List<PaymentGatewayResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(result);
+        }
+        return results;
+    }
+
+    private long sampleLatencyMillis(ThreadLocalRandom random) {
+        if (medianLatencyMillis <= 0) {
+            return 0;
+        }
+        return Math.round(medianLatencyMillis * Math.exp(latencySigma * random.nextGaussian()));
+    }
+
+    /**
+     * Fixed one-second window packed into a single long: the window's second in the high bits
+     * and the number of calls admitted in it in the low 20 bits.
+     */
+    private boolean tryAcquireRate() {
+        if (rateLimitPerSecond <= 0) {
+            return true;
+        }
+        long second = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        while (true) {
+            long current = rateWindow.get();
+            long currentSecond = current >>> 20;
+            long admitted = current & 0xFFFFF;
+            long next;
+            if (currentSecond != second) {
+                next = (second << 20) | 1;
+            } else if (admitted < rateLimitPerSecond) {
+                next = current + 1;
+            } else {
+                return false;
+            }
+            if (rateWindow.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
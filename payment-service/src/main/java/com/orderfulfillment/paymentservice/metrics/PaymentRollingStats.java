@@ -0,0 +1,215 @@
+package com.orderfulfillment.paymentservice.metrics;
+
+import com.orderfulfillment.paymentservice.dto.RollingWindowStatsDto;
+import com.orderfulfillment.paymentservice.entity.Payment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rolling-window payment outcomes kept in a ring of one-second buckets.
+ *
+ * Recording is lock-free: a stale bucket is replaced with a fresh one by compare-and-set,
+ * and counts are accumulated in LongAdders. Reading a window walks at most one bucket per
+ * second of the window and never touches the database.
+ *
+ * Each bucket also keeps a histogram of processing latency (createdAt to processedAt) in
+ * log-spaced bins that are 20% wide, so a window's latency percentiles are computed from that
+ * window alone, to within the bin width. The payment.processing.latency timer records the
+ * same latencies for metrics export.
+ */
+@Component
+public class PaymentRollingStats {
+
+    private static final String OTHER_FAILURE_REASON = "Other";
+    private static final double[] LATENCY_PERCENTILES = {0.5, 0.95, 0.99};
+    // Bin 0 holds latencies below 1 ms; bin b >= 1 holds [GROWTH^(b-1), GROWTH^b) ms, the last
+    // bin everything from about a day upwards
+    private static final double LATENCY_BIN_GROWTH = 1.2;
+    private static final int LATENCY_BINS = 102;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final int maxFailureReasons;
+    private final Timer processingLatencyTimer;
+
+    public PaymentRollingStats(@Value("${payment.statistics.rolling.window:3600}") int windowSeconds,
+                               @Value("${payment.statistics.rolling.max-failure-reasons:20}") int maxFailureReasons,
+                               MeterRegistry meterRegistry) {
+        this.buckets = new AtomicReferenceArray<>(windowSeconds);
+        this.maxFailureReasons = maxFailureReasons;
+
+        this.processingLatencyTimer = Timer.builder("payment.processing.latency")
+                .description("Time from payment creation until its outcome was recorded")
+                .publishPercentiles(LATENCY_PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void recordCompleted(Payment payment) {
+        Bucket bucket = currentBucket();
+        bucket.completed.increment();
+        bucket.completedAmountCents.add(toCents(payment.getAmount()));
+        recordLatency(bucket, payment);
+    }
+
+    public void recordFailed(Payment payment) {
+        Bucket bucket = currentBucket();
+        bucket.failed.increment();
+        bucket.failedAmountCents.add(toCents(payment.getAmount()));
+        bucket.failureReasonCounter(payment.getFailureReason(), maxFailureReasons).increment();
+        recordLatency(bucket, payment);
+    }
+
+    /**
+     * Aggregates the last {@code seconds} seconds, including the current partial second.
+     * Latency percentiles cover only the payments recorded in that window.
+     */
+    public RollingWindowStatsDto window(int seconds) {
+        int span = Math.min(seconds, buckets.length());
+        long now = currentSecond();
+
+        long completed = 0;
+        long failed = 0;
+        long completedAmountCents = 0;
+        long failedAmountCents = 0;
+        Map<String, Long> failureReasons = new HashMap<>();
+        long[] latencyCounts = new long[LATENCY_BINS];
+
+        for (long second = now - span + 1; second <= now; second++) {
+            Bucket bucket = buckets.get(index(second));
+            if (bucket == null || bucket.second != second) {
+                continue;
+            }
+            completed += bucket.completed.sum();
+            failed += bucket.failed.sum();
+            completedAmountCents += bucket.completedAmountCents.sum();
+            failedAmountCents += bucket.failedAmountCents.sum();
+            bucket.failureReasons.forEach((reason, count) -> failureReasons.merge(reason, count.sum(), Long::sum));
+            for (int bin = 0; bin < LATENCY_BINS; bin++) {
+                latencyCounts[bin] += bucket.latencyCounts.get(bin);
+            }
+        }
+
+        long total = completed + failed;
+        return new RollingWindowStatsDto(span, completed, failed,
+                (double) total / span,
+                total == 0 ? 0.0 : (double) completed / total,
+                BigDecimal.valueOf(completedAmountCents, 2),
+                BigDecimal.valueOf(failedAmountCents, 2),
+                failureReasons,
+                latencyPercentiles(latencyCounts));
+    }
+
+    /**
+     * Latency percentiles in milliseconds, keyed by percentile (e.g. "p95"); empty if the
+     * window holds no latencies. Each value is the geometric midpoint of its bin.
+     */
+    private static Map<String, Double> latencyPercentiles(long[] latencyCounts) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        long total = 0;
+        for (long count : latencyCounts) {
+            total += count;
+        }
+        if (total == 0) {
+            return percentiles;
+        }
+
+        for (double percentile : LATENCY_PERCENTILES) {
+            long rank = Math.max(1, (long) Math.ceil(percentile * total));
+            long seen = 0;
+            int bin = 0;
+            while (bin < LATENCY_BINS - 1 && seen + latencyCounts[bin] < rank) {
+                seen += latencyCounts[bin];
+                bin++;
+            }
+            percentiles.put("p" + Math.round(percentile * 100), binMidpointMillis(bin));
+        }
+        return percentiles;
+    }
+
+    private void recordLatency(Bucket bucket, Payment payment) {
+        if (payment.getCreatedAt() != null && payment.getProcessedAt() != null) {
+            Duration latency = Duration.between(payment.getCreatedAt(), payment.getProcessedAt());
+            processingLatencyTimer.record(latency);
+            bucket.latencyCounts.incrementAndGet(latencyBin(latency.toNanos() / 1_000_000.0));
+        }
+    }
+
+    private static int latencyBin(double millis) {
+        if (millis < 1) {
+            return 0;
+        }
+        int bin = 1 + (int) (Math.log(millis) / Math.log(LATENCY_BIN_GROWTH));
+        return Math.min(bin, LATENCY_BINS - 1);
+    }
+
+    private static double binMidpointMillis(int bin) {
+        return bin == 0 ? 0.5 : Math.pow(LATENCY_BIN_GROWTH, bin - 0.5);
+    }
+
+    private Bucket currentBucket() {
+        long second = currentSecond();
+        int index = index(second);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.second == second) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(second);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int index(long second) {
+        return (int) Math.floorMod(second, (long) buckets.length());
+    }
+
+    private static long currentSecond() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+
+    private static final class Bucket {
+        private final long second;
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder completedAmountCents = new LongAdder();
+        private final LongAdder failedAmountCents = new LongAdder();
+        private final Map<String, LongAdder> failureReasons = new ConcurrentHashMap<>();
+        private final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BINS);
+
+        private Bucket(long second) {
+            this.second = second;
+        }
+
+        private LongAdder failureReasonCounter(String reason, int maxReasons) {
+            String key = reason == null || reason.isBlank() ? OTHER_FAILURE_REASON : reason;
+            LongAdder counter = failureReasons.get(key);
+            if (counter != null) {
+                return counter;
+            }
+            // Reasons can embed exception messages; keep the number of distinct keys bounded
+            if (failureReasons.size() >= maxReasons) {
+                key = OTHER_FAILURE_REASON;
+            }
+            return failureReasons.computeIfAbsent(key, k -> new LongAdder());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.orderfulfillment.paymentservice.metrics;
+
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live count of payments per status, updated on every status transition and published
+ * as the payment.status.count gauge. Reads never touch the database; the counters are
+ * periodically reconciled against it to correct any drift.
+ *
+ * Changes recorded inside a transaction are applied when it commits, so rolled back
+ * transitions are never counted.
+ */
+@Component
+public class PaymentStatusCounters {
+
+    private final Map<PaymentStatus, LongAdder> counters = new EnumMap<>(PaymentStatus.class);
+
+    public PaymentStatusCounters(MeterRegistry meterRegistry) {
+        for (PaymentStatus status : PaymentStatus.values()) {
+            LongAdder counter = new LongAdder();
+            counters.put(status, counter);
+            Gauge.builder("payment.status.count", counter, LongAdder::sum)
+                    .description("Payments currently in each status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public void recordCreated(PaymentStatus status) {
+        afterCommit(() -> counters.get(status).increment());
+    }
+
+    public void recordTransition(PaymentStatus from, PaymentStatus to) {
+        recordTransition(from, to, 1);
+    }
+
+    public void recordTransition(PaymentStatus from, PaymentStatus to, long count) {
+        if (count <= 0 || from == to) {
+            return;
+        }
+        afterCommit(() -> {
+            counters.get(from).add(-count);
+            counters.get(to).add(count);
+        });
+    }
+
+    public long get(PaymentStatus status) {
+        return counters.get(status).sum();
+    }
+
+    public Map<PaymentStatus, Long> snapshot() {
+        Map<PaymentStatus, Long> snapshot = new EnumMap<>(PaymentStatus.class);
+        counters.forEach((status, counter) -> snapshot.put(status, counter.sum()));
+        return snapshot;
+    }
+
+    /**
+     * Adjusts the counters to the given database counts and returns the total drift that was
+     * corrected. Statuses missing from the map are treated as zero.
+     */
+    public long reconcile(Map<PaymentStatus, Long> databaseCounts) {
+        long drift = 0;
+        for (PaymentStatus status : PaymentStatus.values()) {
+            LongAdder counter = counters.get(status);
+            long delta = databaseCounts.getOrDefault(status, 0L) - counter.sum();
+            counter.add(delta);
+            drift += Math.abs(delta);
+        }
+        return drift;
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,247 @@
+package com.orderfulfillment.paymentservice.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Sends order-service requests with a bounded number in flight.
+ *
+ * Requests are spread over lanes by orderId. Each lane is a bounded queue drained by a
+ * single thread, so requests for the same order are sent one after another in the order
+ * they were dispatched. When a lane is full, {@link #dispatch} blocks the caller for up to
+ * the configured offer timeout, which slows down payment processing instead of flooding
+ * order-service.
+ *
+ * A lane sends one request at a time, so at most min(lanes, max-in-flight) requests are in
+ * flight. The lane count defaults to max-in-flight.
+ *
+ * The dispatcher stops as a {@link SmartLifecycle}, after the payment worker pool and before
+ * any bean is destroyed, so notifications left over after the drain timeout can still be
+ * queued in the database.
+ */
+@Component
+public class OrderNotificationDispatcher implements SmartLifecycle {
+
+    /** Stops right after {@link com.orderfulfillment.paymentservice.processing.PaymentWorkerPool}. */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 1;
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNotificationDispatcher.class);
+
+    private final List<Lane> lanes;
+    private final Semaphore inFlightPermits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long offerTimeoutMillis;
+    private final Duration requestTimeout;
+    private final long drainTimeoutMillis;
+    private volatile boolean running = true;
+
+    private final Timer dispatchLatencyTimer;
+    private final Timer requestLatencyTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    public OrderNotificationDispatcher(@Value("${payment.notifications.dispatcher.lanes:${payment.notifications.dispatcher.max-in-flight:16}}") int laneCount,
+                                       @Value("${payment.notifications.dispatcher.lane-capacity:1000}") int laneCapacity,
+                                       @Value("${payment.notifications.dispatcher.max-in-flight:16}") int maxInFlight,
+                                       @Value("${payment.notifications.dispatcher.offer-timeout:5000}") long offerTimeoutMillis,
+                                       @Value("${payment.notifications.dispatcher.request-timeout:30000}") long requestTimeoutMillis,
+                                       @Value("${payment.notifications.dispatcher.drain-timeout:10000}") long drainTimeoutMillis,
+                                       MeterRegistry meterRegistry) {
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.drainTimeoutMillis = drainTimeoutMillis;
+
+        this.dispatchLatencyTimer = Timer.builder("order.notifications.dispatch.latency")
+                .description("Time from dispatch until order-service acknowledged the notification")
+                .register(meterRegistry);
+        this.requestLatencyTimer = Timer.builder("order.notifications.request.latency")
+                .description("Duration of order-service notification requests")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("order.notifications.dispatch.rejected")
+                .description("Notifications not accepted because their lane stayed full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("order.notifications.dispatch.failed")
+                .description("Dispatched notifications that order-service did not accept")
+                .register(meterRegistry);
+
+        if (laneCount < maxInFlight) {
+            logger.warn("Only {} notification lanes for max-in-flight {}; each lane sends one request at a time, "
+                    + "so at most {} requests will be in flight", laneCount, maxInFlight, laneCount);
+        }
+
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            Lane lane = new Lane(i, laneCapacity);
+            lanes.add(lane);
+            lane.thread.start();
+        }
+
+        Gauge.builder("order.notifications.dispatch.queue-depth", lanes,
+                        all -> all.stream().mapToInt(lane -> lane.queue.size()).sum())
+                .description("Notifications waiting in dispatcher lanes")
+                .register(meterRegistry);
+        Gauge.builder("order.notifications.dispatch.in-flight", inFlight, AtomicInteger::get)
+                .description("Notification requests currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a request on the lane of the given order. Blocks while the lane is full, up to the
+     * offer timeout. Returns false if the request was not accepted; the caller then owns it.
+     *
+     * @param request   creates the order-service request; invoked on the lane thread
+     * @param onFailure called on the lane thread if the request fails, or on the stopping thread if it
+     *                  is abandoned on shutdown
+     */
+    public boolean dispatch(Long orderId, Supplier<Mono<Void>> request, Consumer<Throwable> onFailure) {
+        if (!running) {
+            rejectedCounter.increment();
+            return false;
+        }
+
+        Lane lane = lanes.get(Math.floorMod(orderId.hashCode(), lanes.size()));
+        try {
+            if (lane.queue.offer(new Task(request, onFailure, System.nanoTime()), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        rejectedCounter.increment();
+        logger.warn("Notification lane {} is full, could not dispatch notification for order {}", lane.index, orderId);
+        return false;
+    }
+
+    public int getQueueDepth() {
+        return lanes.stream().mapToInt(lane -> lane.queue.size()).sum();
+    }
+
+    private void execute(Task task) throws InterruptedException {
+        inFlightPermits.acquire();
+        inFlight.incrementAndGet();
+        long startNanos = System.nanoTime();
+        try {
+            task.request.get().block(requestTimeout);
+            dispatchLatencyTimer.record(System.nanoTime() - task.dispatchedAtNanos, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            failedCounter.increment();
+            task.onFailure.accept(e);
+        } finally {
+            requestLatencyTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            inFlight.decrementAndGet();
+            inFlightPermits.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        // Lane threads are started on construction
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Stops accepting notifications and waits up to the drain timeout for the lanes to empty.
+     * Notifications still waiting after that are handed to their failure callback, which
+     * queues them in the database.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        while ((getQueueDepth() > 0 || inFlight.get() > 0) && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        List<Task> abandoned = new ArrayList<>();
+        for (Lane lane : lanes) {
+            lane.thread.interrupt();
+            lane.queue.drainTo(abandoned);
+        }
+        if (!abandoned.isEmpty()) {
+            logger.warn("Dispatcher did not drain within {} ms, handing back {} notifications",
+                    drainTimeoutMillis, abandoned.size());
+            IllegalStateException shutdown = new IllegalStateException("Notification dispatcher shut down");
+            abandoned.forEach(task -> task.onFailure.accept(shutdown));
+        }
+    }
+
+    private static final class Task {
+        private final Supplier<Mono<Void>> request;
+        private final Consumer<Throwable> onFailure;
+        private final long dispatchedAtNanos;
+
+        private Task(Supplier<Mono<Void>> request, Consumer<Throwable> onFailure, long dispatchedAtNanos) {
+            this.request = request;
+            this.onFailure = onFailure;
+            this.dispatchedAtNanos = dispatchedAtNanos;
+        }
+    }
+
+    private final class Lane {
+        private final int index;
+        private final BlockingQueue<Task> queue;
+        private final Thread thread;
+
+        private Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this::drain, "order-notification-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void drain() {
+            while (running || !queue.isEmpty()) {
+                try {
+                    Task task = queue.poll(1, TimeUnit.SECONDS);
+                    if (task != null) {
+                        execute(task);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    logger.error("Unexpected error in notification lane {}", index, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.orderfulfillment.paymentservice.notification;
+
+import com.orderfulfillment.paymentservice.client.OrderServiceClient;
+import com.orderfulfillment.paymentservice.entity.OrderNotification;
+import com.orderfulfillment.paymentservice.enums.OrderNotificationType;
+import com.orderfulfillment.paymentservice.repository.OrderNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers payment outcomes to order-service. Notifications that cannot be delivered are
+ * persisted in the order_notifications table and redelivered with exponential backoff,
+ * oldest first per order, while order-service is reachable.
+ */
+@Service
+public class OrderNotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNotificationService.class);
+
+    private final OrderNotificationRepository orderNotificationRepository;
+    private final OrderServiceClient orderServiceClient;
+    private final OrderNotificationDispatcher orderNotificationDispatcher;
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int concurrency;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final AtomicLong pendingNotifications = new AtomicLong();
+    private final AtomicLong deliveryPaused = new AtomicLong();
+    private final Counter queuedCounter;
+    private final Counter redeliveredCounter;
+    private final Counter redeliveryFailedCounter;
+
+    public OrderNotificationService(OrderNotificationRepository orderNotificationRepository,
+                                    OrderServiceClient orderServiceClient,
+                                    OrderNotificationDispatcher orderNotificationDispatcher,
+                                    @Value("${payment.notifications.retry.batch-size:50}") int batchSize,
+                                    @Value("${payment.notifications.retry.max-batches-per-run:20}") int maxBatchesPerRun,
+                                    @Value("${payment.notifications.retry.concurrency:8}") int concurrency,
+                                    @Value("${payment.notifications.retry.initial-backoff:5000}") long initialBackoffMillis,
+                                    @Value("${payment.notifications.retry.max-backoff:600000}") long maxBackoffMillis,
+                                    MeterRegistry meterRegistry) {
+        this.orderNotificationRepository = orderNotificationRepository;
+        this.orderServiceClient = orderServiceClient;
+        this.orderNotificationDispatcher = orderNotificationDispatcher;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.concurrency = concurrency;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMillis);
+
+        this.queuedCounter = Counter.builder("order.notifications.queued")
+                .description("Order notifications persisted for redelivery")
+                .register(meterRegistry);
+        this.redeliveredCounter = Counter.builder("order.notifications.redelivered")
+                .description("Queued order notifications delivered on retry")
+                .register(meterRegistry);
+        this.redeliveryFailedCounter = Counter.builder("order.notifications.redelivery.failed")
+                .description("Failed redelivery attempts of queued order notifications")
+                .register(meterRegistry);
+        Gauge.builder("order.notifications.pending", pendingNotifications, AtomicLong::get)
+                .description("Order notifications waiting for redelivery")
+                .register(meterRegistry);
+        Gauge.builder("order.notifications.paused", deliveryPaused, AtomicLong::get)
+                .description("1 while redelivery is paused because order-service is unavailable")
+                .register(meterRegistry);
+
+        this.pendingNotifications.set(orderNotificationRepository.count());
+    }
+
+    /**
+     * Notifies order-service of a payment outcome through the dispatcher, which may block while
+     * order-service is saturated. If the order already has queued notifications, or delivery
+     * fails, the notification is queued so that it is delivered after them.
+     *
+     * The check for queued notifications runs on the order's dispatcher lane, right before the
+     * send. An earlier notification for the same order has then either been delivered or been
+     * queued, so a newer one cannot overtake it.
+     */
+    public void notifyOrder(Long orderId, Long paymentId, OrderNotificationType type, String reason) {
+        OrderNotification notification = new OrderNotification(orderId, paymentId, type, reason);
+
+        boolean dispatched = orderNotificationDispatcher.dispatch(orderId,
+                () -> {
+                    if (orderNotificationRepository.existsByOrderId(orderId)) {
+                        logger.info("Order {} has undelivered notifications, queueing {} behind them", orderId, type);
+                        notification.setLastError("Queued behind earlier notifications for this order");
+                        queue(notification);
+                        return Mono.empty();
+                    }
+                    return send(notification)
+                            .doOnSuccess(result -> logger.info("Successfully notified order service of {} for order: {}",
+                                    type, orderId));
+                },
+                error -> {
+                    logger.error("Failed to notify order service of {} for order: {}, queueing for retry",
+                            type, orderId, error);
+                    notification.recordFailedAttempt(error.getMessage(), LocalDateTime.now().plus(backoff(1)));
+                    queue(notification);
+                });
+
+        if (!dispatched) {
+            // The dispatcher is saturated; keep the notification instead of adding more load
+            notification.setLastError("Notification dispatcher saturated");
+            queue(notification);
+        }
+    }
+
+    /**
+     * Redelivers queued notifications that are due, in batches. Does nothing while
+     * order-service reports itself unavailable.
+     */
+    public int redeliverDue() {
+        List<OrderNotification> due = orderNotificationRepository.findDueForDelivery(
+                LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        if (!Boolean.TRUE.equals(orderServiceClient.isOrderServiceAvailable().block())) {
+            deliveryPaused.set(1);
+            logger.warn("Order service unavailable, pausing redelivery of {} queued notifications",
+                    pendingNotifications.get());
+            return 0;
+        }
+        deliveryPaused.set(0);
+
+        int delivered = 0;
+        for (int batch = 0; batch < maxBatchesPerRun && !due.isEmpty(); batch++) {
+            List<Long> deliveredIds = Collections.synchronizedList(new ArrayList<>());
+            List<OrderNotification> failed = Collections.synchronizedList(new ArrayList<>());
+
+            // Each batch holds at most one notification per order, so they can go out concurrently
+            Flux.fromIterable(due)
+                    .flatMap(notification -> send(notification)
+                            .then(Mono.fromRunnable(() -> deliveredIds.add(notification.getId())))
+                            .onErrorResume(error -> {
+                                notification.recordFailedAttempt(error.getMessage(),
+                                        LocalDateTime.now().plus(backoff(notification.getAttempts() + 1)));
+                                failed.add(notification);
+                                return Mono.empty();
+                            }), concurrency)
+                    .blockLast();
+
+            orderNotificationRepository.deleteAllByIdInBatch(deliveredIds);
+            orderNotificationRepository.saveAll(failed);
+            delivered += deliveredIds.size();
+            redeliveredCounter.increment(deliveredIds.size());
+            redeliveryFailedCounter.increment(failed.size());
+
+            if (!failed.isEmpty() || due.size() < batchSize) {
+                // Back off instead of pushing more at an order-service that is failing
+                break;
+            }
+            due = orderNotificationRepository.findDueForDelivery(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        }
+
+        pendingNotifications.set(orderNotificationRepository.count());
+        logger.info("Redelivered {} queued order notifications, {} still pending", delivered, pendingNotifications.get());
+        return delivered;
+    }
+
+    private Mono<Void> send(OrderNotification notification) {
+        return switch (notification.getType()) {
+            case PAYMENT_COMPLETED -> orderServiceClient.updateOrderStatusToCompleted(
+                    notification.getOrderId(), notification.getPaymentId());
+            case PAYMENT_FAILED -> orderServiceClient.cancelOrder(
+                    notification.getOrderId(), notification.getReason());
+        };
+    }
+
+    private void queue(OrderNotification notification) {
+        orderNotificationRepository.save(notification);
+        pendingNotifications.incrementAndGet();
+        queuedCounter.increment();
+    }
+
+    private Duration backoff(int attempts) {
+        long multiplier = 1L << Math.min(attempts - 1, 20);
+        Duration backoff = initialBackoff.multipliedBy(multiplier);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -0,0 +1,158 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.cache.PaymentByOrderCache;
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.metrics.PaymentStatusCounters;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Atomically claims eligible payments for this instance so that several replicas
+ * can poll the same table without processing a payment twice.
+ *
+ * On PostgreSQL the batch is selected with FOR UPDATE SKIP LOCKED. Other databases
+ * (H2) select candidate ids without locking and rely on a conditional
+ * PENDING -> PROCESSING update; rows lost to another replica are simply not claimed.
+ */
+@Service
+public class PaymentClaimService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentClaimService.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatusCounters paymentStatusCounters;
+    private final PaymentByOrderCache paymentByOrderCache;
+    private final String instanceId;
+    private final Duration leaseDuration;
+    private final boolean skipLockedSupported;
+
+    public PaymentClaimService(PaymentRepository paymentRepository,
+                               PaymentStatusCounters paymentStatusCounters,
+                               PaymentByOrderCache paymentByOrderCache,
+                               DataSource dataSource,
+                               @Value("${payment.processing.instance-id:}") String instanceId,
+                               @Value("${payment.processing.lease-duration:300000}") long leaseDurationMillis) {
+        this.paymentRepository = paymentRepository;
+        this.paymentStatusCounters = paymentStatusCounters;
+        this.paymentByOrderCache = paymentByOrderCache;
+        this.instanceId = instanceId.isBlank() ? "payment-service-" + UUID.randomUUID().toString().substring(0, 8) : instanceId;
+        this.leaseDuration = Duration.ofMillis(leaseDurationMillis);
+        this.skipLockedSupported = isPostgreSql(dataSource);
+
+        logger.info("Payment claims owned by instance '{}' using {} strategy",
+                this.instanceId, skipLockedSupported ? "SKIP LOCKED" : "conditional update");
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Claims up to {@code limit} pending payments created at or before the cutoff for this instance.
+     */
+    @Transactional
+    public List<Payment> claimEligible(LocalDateTime cutoffTime, int limit) {
+        return claimEligible(instanceId, cutoffTime, limit);
+    }
+
+    /**
+     * Claims up to {@code limit} pending payments for the given owner. The returned payments are
+     * already PROCESSING with the owner, a fresh claim token and a lease expiry set.
+     */
+    @Transactional
+    public List<Payment> claimEligible(String owner, LocalDateTime cutoffTime, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiresAt = now.plus(leaseDuration);
+        String claimToken = UUID.randomUUID().toString();
+
+        if (skipLockedSupported) {
+            List<Payment> locked = paymentRepository.lockEligibleForProcessing(cutoffTime, now, limit);
+            if (locked.isEmpty()) {
+                return locked;
+            }
+
+            List<Long> ids = locked.stream().map(Payment::getId).toList();
+            paymentRepository.claimPending(ids, owner, claimToken, leaseExpiresAt, now);
+            paymentStatusCounters.recordTransition(PaymentStatus.PENDING, PaymentStatus.PROCESSING, locked.size());
+
+            // Rows are locked by this transaction, so every one of them was claimed
+            locked.forEach(payment -> payment.markAsClaimed(owner, claimToken, leaseExpiresAt));
+            invalidateCached(locked);
+            logger.debug("Instance {} claimed {} payments", owner, locked.size());
+            return locked;
+        }
+
+        List<Long> candidateIds = paymentRepository.findEligibleIdsForProcessing(
+                PaymentStatus.PENDING, cutoffTime, now, PageRequest.of(0, limit));
+        if (candidateIds.isEmpty()) {
+            return List.of();
+        }
+
+        int claimed = paymentRepository.claimPending(candidateIds, owner, claimToken, leaseExpiresAt, now);
+        paymentStatusCounters.recordTransition(PaymentStatus.PENDING, PaymentStatus.PROCESSING, claimed);
+        if (claimed < candidateIds.size()) {
+            logger.debug("Instance {} lost {} of {} candidate payments to other replicas",
+                    owner, candidateIds.size() - claimed, candidateIds.size());
+        }
+        if (claimed == 0) {
+            return List.of();
+        }
+
+        List<Payment> payments = paymentRepository.findByClaimTokenOrderByCreatedAt(claimToken);
+        invalidateCached(payments);
+        logger.debug("Instance {} claimed {} payments", owner, payments.size());
+        return payments;
+    }
+
+    /**
+     * Claims the given payments for this instance if they are still PENDING. Used by the work
+     * queue, where the ids are already known; the conditional update is safe on every database.
+     */
+    @Transactional
+    public List<Payment> claimByIds(List<Long> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String claimToken = UUID.randomUUID().toString();
+        int claimed = paymentRepository.claimPending(paymentIds, instanceId, claimToken, now.plus(leaseDuration), now);
+        paymentStatusCounters.recordTransition(PaymentStatus.PENDING, PaymentStatus.PROCESSING, claimed);
+        if (claimed == 0) {
+            return List.of();
+        }
+        List<Payment> payments = paymentRepository.findByClaimTokenOrderByCreatedAt(claimToken);
+        invalidateCached(payments);
+        return payments;
+    }
+
+    private void invalidateCached(List<Payment> claimed) {
+        paymentByOrderCache.invalidate(claimed.stream().map(Payment::getOrderId).toList());
+    }
+
+    private static boolean isPostgreSql(DataSource dataSource) {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(productName);
+        } catch (MetaDataAccessException e) {
+            logger.warn("Could not determine database product, falling back to conditional claims", e);
+            return false;
+        }
+    }
+}
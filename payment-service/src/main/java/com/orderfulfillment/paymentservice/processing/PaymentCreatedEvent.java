@@ -0,0 +1,46 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published when a payment has been persisted and is ready to be processed. Carries what
+ * the work queue needs to pick a priority lane without reading the payment back.
+ */
+public class PaymentCreatedEvent {
+
+    private final Long paymentId;
+    private final Long orderId;
+    private final BigDecimal amount;
+    private final String paymentMethod;
+    private final LocalDateTime createdAt;
+
+    public PaymentCreatedEvent(Long paymentId, Long orderId, BigDecimal amount,
+                               String paymentMethod, LocalDateTime createdAt) {
+        this.paymentId = paymentId;
+        this.orderId = orderId;
+        this.amount = amount;
+        this.paymentMethod = paymentMethod;
+        this.createdAt = createdAt;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
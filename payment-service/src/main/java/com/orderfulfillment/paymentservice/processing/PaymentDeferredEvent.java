@@ -0,0 +1,46 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published when a payment has been returned to PENDING by the gateway rate limit. Carries
+ * what the work queue needs to queue the payment again once it may be claimed.
+ */
+public class PaymentDeferredEvent {
+
+    private final Long paymentId;
+    private final BigDecimal amount;
+    private final String paymentMethod;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime nextAttemptAt;
+
+    public PaymentDeferredEvent(Long paymentId, BigDecimal amount, String paymentMethod,
+                                LocalDateTime createdAt, LocalDateTime nextAttemptAt) {
+        this.paymentId = paymentId;
+        this.amount = amount;
+        this.paymentMethod = paymentMethod;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+}
@@ -0,0 +1,108 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A priority lane of the payment work queue, bound from payment.processing.lanes.
+ *
+ * A payment goes to the first lane whose criteria all match; a lane without criteria
+ * matches everything. Lanes are served in proportion to their weight.
+ *
+ * A lane with a min-age matches on how long a payment has existed, which is only known at
+ * dispatch; see {@link PaymentWorkQueue}.
+ */
+public class PaymentLaneDefinition {
+
+    private String name;
+    private int weight = 1;
+    private List<String> paymentMethods = new ArrayList<>();
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Duration minAge;
+
+    public PaymentLaneDefinition() {}
+
+    public PaymentLaneDefinition(String name, int weight) {
+        this.name = name;
+        this.weight = weight;
+    }
+
+    public boolean matches(String paymentMethod, BigDecimal amount, LocalDateTime createdAt) {
+        if (!paymentMethods.isEmpty() && (paymentMethod == null
+                || paymentMethods.stream().noneMatch(method -> method.equalsIgnoreCase(paymentMethod.trim())))) {
+            return false;
+        }
+        if (minAmount != null && (amount == null || amount.compareTo(minAmount) < 0)) {
+            return false;
+        }
+        if (maxAmount != null && (amount == null || amount.compareTo(maxAmount) >= 0)) {
+            return false;
+        }
+        if (minAge != null && (createdAt == null
+                || Duration.between(createdAt, LocalDateTime.now()).compareTo(minAge) < 0)) {
+            return false;
+        }
+        return true;
+    }
+
+    public boolean isAgeBased() {
+        return minAge != null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    public List<String> getPaymentMethods() {
+        return paymentMethods;
+    }
+
+    public void setPaymentMethods(List<String> paymentMethods) {
+        this.paymentMethods = paymentMethods;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public Duration getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Duration minAge) {
+        this.minAge = minAge;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(weight=" + weight + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.cache.PaymentByOrderCache;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.metrics.PaymentStatusCounters;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reclaims payments whose processing lease has expired, e.g. because the instance
+ * that claimed them crashed mid-flight. Payments go back to PENDING until they have
+ * used up their attempts, after which they are quarantined for manual review.
+ */
+@Service
+public class PaymentLeaseReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentLeaseReaper.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatusCounters paymentStatusCounters;
+    private final PaymentByOrderCache paymentByOrderCache;
+    private final int maxAttempts;
+
+    private final AtomicLong reclaimLagMillis = new AtomicLong();
+    private final Counter reclaimedCounter;
+    private final Counter quarantinedCounter;
+
+    public PaymentLeaseReaper(PaymentRepository paymentRepository,
+                              PaymentStatusCounters paymentStatusCounters,
+                              PaymentByOrderCache paymentByOrderCache,
+                              @Value("${payment.processing.max-attempts:3}") int maxAttempts,
+                              MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.paymentStatusCounters = paymentStatusCounters;
+        this.paymentByOrderCache = paymentByOrderCache;
+        this.maxAttempts = maxAttempts;
+
+        this.reclaimedCounter = Counter.builder("payment.lease.reclaimed")
+                .description("Payments returned to PENDING after their lease expired")
+                .register(meterRegistry);
+        this.quarantinedCounter = Counter.builder("payment.lease.quarantined")
+                .description("Payments quarantined after exhausting their processing attempts")
+                .register(meterRegistry);
+        Gauge.builder("payment.lease.reclaim.lag", reclaimLagMillis, lag -> lag.get() / 1000.0)
+                .description("How long the oldest expired lease had been expired when last reclaimed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public int reclaimExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+
+        LocalDateTime oldestExpiry = paymentRepository.findOldestExpiredLease(now);
+        if (oldestExpiry == null) {
+            reclaimLagMillis.set(0);
+            return 0;
+        }
+        reclaimLagMillis.set(Duration.between(oldestExpiry, now).toMillis());
+
+        int quarantined = paymentRepository.quarantineExpiredLeases(now, maxAttempts,
+                "Quarantined after " + maxAttempts + " expired processing attempts");
+        int reclaimed = paymentRepository.releaseExpiredLeases(now, maxAttempts);
+
+        paymentStatusCounters.recordTransition(PaymentStatus.PROCESSING, PaymentStatus.QUARANTINED, quarantined);
+        paymentStatusCounters.recordTransition(PaymentStatus.PROCESSING, PaymentStatus.PENDING, reclaimed);
+        if (quarantined + reclaimed > 0) {
+            // The bulk updates do not report which orders they touched
+            paymentByOrderCache.invalidateNonTerminal();
+        }
+        quarantinedCounter.increment(quarantined);
+        reclaimedCounter.increment(reclaimed);
+
+        if (quarantined > 0) {
+            logger.warn("Quarantined {} payments that exhausted {} processing attempts", quarantined, maxAttempts);
+        }
+        logger.info("Reclaimed {} payments with expired leases (oldest expired {} ms ago)",
+                reclaimed, reclaimLagMillis.get());
+        return reclaimed + quarantined;
+    }
+}
@@ -0,0 +1,339 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.cache.PaymentByOrderCache;
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.BatchPartialFailureMode;
+import com.orderfulfillment.paymentservice.enums.OrderNotificationType;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.gateway.PaymentGateway;
+import com.orderfulfillment.paymentservice.gateway.PaymentGatewayResult;
+import com.orderfulfillment.paymentservice.gateway.PaymentGatewayRouter;
+import com.orderfulfillment.paymentservice.gateway.PaymentRateLimiter;
+import com.orderfulfillment.paymentservice.metrics.PaymentRollingStats;
+import com.orderfulfillment.paymentservice.metrics.PaymentStatusCounters;
+import com.orderfulfillment.paymentservice.notification.OrderNotificationService;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import com.orderfulfillment.paymentservice.repository.PaymentStatusUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes claimed payments: authorizes them through the gateway routed for their
+ * payment method, records the outcomes and notifies order-service. Runs on worker threads;
+ * outcomes are written with one set-based, claim-fenced UPDATE batch per gateway batch
+ * instead of loading and saving each entity.
+ *
+ * Payments are authorized in batches of the same payment method. When a batch comes back
+ * partially failed, payment.gateway.batch.partial-failure decides whether the transiently
+ * failed items are retried once on their own or simply released.
+ *
+ * Transient gateway failures release the claim so the payment is picked up again, until it
+ * has used up its attempts and is quarantined.
+ *
+ * Every gateway call first takes a permit per payment from the {@link PaymentRateLimiter}.
+ * Payments left without a permit are deferred: returned to PENDING without using up an
+ * attempt, and not claimed again before the tokens they need have refilled. A
+ * {@link PaymentDeferredEvent} lets the work queue pick them up again at that point.
+ */
+@Component
+public class PaymentProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentProcessor.class);
+
+    private final PaymentRepository paymentRepository;
+    private final OrderNotificationService orderNotificationService;
+    private final PaymentStatusCounters paymentStatusCounters;
+    private final PaymentRollingStats paymentRollingStats;
+    private final PaymentGatewayRouter paymentGatewayRouter;
+    private final PaymentRateLimiter paymentRateLimiter;
+    private final PaymentByOrderCache paymentByOrderCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final int maxBatchSize;
+    private final BatchPartialFailureMode partialFailureMode;
+
+    private final Timer gatewayLatencyTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter partialBatchCounter;
+    private final Counter retriedItemsCounter;
+    private final Counter releasedCounter;
+    private final Counter lostClaimCounter;
+
+    @Autowired
+    public PaymentProcessor(PaymentRepository paymentRepository,
+                            OrderNotificationService orderNotificationService,
+                            PaymentStatusCounters paymentStatusCounters,
+                            PaymentRollingStats paymentRollingStats,
+                            PaymentGatewayRouter paymentGatewayRouter,
+                            PaymentRateLimiter paymentRateLimiter,
+                            PaymentByOrderCache paymentByOrderCache,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${payment.processing.max-attempts:3}") int maxAttempts,
+                            @Value("${payment.gateway.batch.max-size:20}") int maxBatchSize,
+                            @Value("${payment.gateway.batch.partial-failure:RETRY_INDIVIDUALLY}") BatchPartialFailureMode partialFailureMode,
+                            MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.orderNotificationService = orderNotificationService;
+        this.paymentStatusCounters = paymentStatusCounters;
+        this.paymentRollingStats = paymentRollingStats;
+        this.paymentGatewayRouter = paymentGatewayRouter;
+        this.paymentRateLimiter = paymentRateLimiter;
+        this.paymentByOrderCache = paymentByOrderCache;
+        this.eventPublisher = eventPublisher;
+        this.maxAttempts = maxAttempts;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.partialFailureMode = partialFailureMode;
+        this.meterRegistry = meterRegistry;
+
+        this.gatewayLatencyTimer = Timer.builder("payment.gateway.latency")
+                .description("Latency of payment gateway calls")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("payment.gateway.batch.size")
+                .description("Payments per gateway authorization call")
+                .register(meterRegistry);
+        this.partialBatchCounter = Counter.builder("payment.gateway.batch.partial")
+                .description("Gateway batches that came back with mixed outcomes")
+                .register(meterRegistry);
+        this.retriedItemsCounter = Counter.builder("payment.gateway.batch.retried-items")
+                .description("Transiently failed batch items retried individually")
+                .register(meterRegistry);
+        this.releasedCounter = Counter.builder("payment.gateway.released")
+                .description("Payments returned to PENDING after a transient gateway failure")
+                .register(meterRegistry);
+        this.lostClaimCounter = Counter.builder("payment.processing.lost-claims")
+                .description("Outcomes discarded because the payment's claim had been reclaimed")
+                .register(meterRegistry);
+    }
+
+    public double getMeanGatewayLatencyMillis() {
+        return gatewayLatencyTimer.mean(TimeUnit.MILLISECONDS);
+    }
+
+    public void process(Payment payment) {
+        processBatch(List.of(payment));
+    }
+
+    /**
+     * Splits claimed payments into gateway batches: grouped by payment method and at most
+     * payment.gateway.batch.max-size payments each, oldest first.
+     */
+    public List<List<Payment>> groupIntoBatches(List<Payment> payments) {
+        Map<String, List<Payment>> byMethod = new LinkedHashMap<>();
+        for (Payment payment : payments) {
+            byMethod.computeIfAbsent(String.valueOf(payment.getPaymentMethod()), method -> new ArrayList<>())
+                    .add(payment);
+        }
+
+        List<List<Payment>> batches = new ArrayList<>();
+        for (List<Payment> sameMethod : byMethod.values()) {
+            for (int from = 0; from < sameMethod.size(); from += maxBatchSize) {
+                batches.add(sameMethod.subList(from, Math.min(from + maxBatchSize, sameMethod.size())));
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Authorizes payments that share a payment method in a single gateway call and applies
+     * each payment's result.
+     */
+    public void processBatch(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+
+        String paymentMethod = payments.get(0).getPaymentMethod();
+        int permitted = paymentRateLimiter.tryAcquire(paymentMethod, payments.size());
+        if (permitted < payments.size()) {
+            List<Payment> throttled = payments.subList(permitted, payments.size());
+            logger.info("Deferring {} payments, gateway rate limit for {} reached", throttled.size(), paymentMethod);
+            LocalDateTime now = LocalDateTime.now();
+            List<PaymentStatusUpdate> deferrals = new ArrayList<>(throttled.size());
+            for (int i = 0; i < throttled.size(); i++) {
+                Payment payment = throttled.get(i);
+                // The i-th deferred payment needs i + 1 tokens in the bucket before it can go through
+                LocalDateTime nextAttemptAt = now.plus(paymentRateLimiter.refillTime(paymentMethod, i + 1));
+                deferrals.add(PaymentStatusUpdate.deferred(payment.getId(), payment.getClaimToken(), nextAttemptAt));
+            }
+            applyUpdates(throttled, deferrals);
+            payments = payments.subList(0, permitted);
+            if (payments.isEmpty()) {
+                return;
+            }
+        }
+
+        PaymentGateway gateway = paymentGatewayRouter.route(paymentMethod);
+        List<PaymentGatewayResult> results;
+        try {
+            logger.info("Authorizing {} payments via gateway '{}', first payment ID: {}",
+                    payments.size(), gateway.getName(), payments.get(0).getId());
+            results = authorize(gateway, payments);
+        } catch (Exception e) {
+            logger.error("Gateway '{}' failed for a batch of {} payments", gateway.getName(), payments.size(), e);
+            PaymentGatewayResult failure = PaymentGatewayResult.transientFailure("Gateway call failed: " + e.getMessage());
+            results = payments.stream().map(payment -> failure).toList();
+        }
+        // Outside the batch's try: a failing retry must not overwrite outcomes the gateway already gave
+        results = handlePartialFailures(gateway, payments, results);
+
+        recordOutcomes(payments, results);
+    }
+
+    private List<PaymentGatewayResult> handlePartialFailures(PaymentGateway gateway, List<Payment> payments,
+                                                             List<PaymentGatewayResult> results) {
+        if (results.stream().map(PaymentGatewayResult::getOutcome).distinct().count() <= 1) {
+            return results;
+        }
+        partialBatchCounter.increment();
+        if (partialFailureMode != BatchPartialFailureMode.RETRY_INDIVIDUALLY) {
+            return results;
+        }
+
+        // The gateway handled part of the batch, so the failed items are worth one immediate retry
+        List<PaymentGatewayResult> retried = new ArrayList<>(results);
+        for (int i = 0; i < payments.size(); i++) {
+            if (results.get(i).getOutcome() == PaymentGatewayResult.Outcome.TRANSIENT_FAILURE
+                    && paymentRateLimiter.tryAcquire(payments.get(i).getPaymentMethod(), 1) == 1) {
+                retriedItemsCounter.increment();
+                try {
+                    retried.set(i, authorize(gateway, List.of(payments.get(i))).get(0));
+                } catch (Exception e) {
+                    logger.warn("Gateway '{}' failed retrying payment ID: {}", gateway.getName(),
+                            payments.get(i).getId(), e);
+                    retried.set(i, PaymentGatewayResult.transientFailure("Gateway call failed: " + e.getMessage()));
+                }
+            }
+        }
+        return retried;
+    }
+
+    private List<PaymentGatewayResult> authorize(PaymentGateway gateway, List<Payment> payments) {
+        List<PaymentGatewayResult> results = gatewayLatencyTimer.record(() -> payments.size() == 1
+                ? List.of(gateway.authorize(payments.get(0)))
+                : gateway.authorizeBatch(payments));
+        if (results == null || results.size() != payments.size()) {
+            throw new IllegalStateException("Gateway '" + gateway.getName() + "' returned "
+                    + (results == null ? 0 : results.size()) + " results for " + payments.size() + " payments");
+        }
+
+        batchSizeSummary.record(payments.size());
+        for (PaymentGatewayResult result : results) {
+            meterRegistry.counter("payment.gateway.outcomes",
+                    "gateway", gateway.getName(), "outcome", result.getOutcome().name()).increment();
+        }
+        return results;
+    }
+
+    /**
+     * Writes all outcomes with one batched, claim-fenced UPDATE. Payments whose claim was lost
+     * in the meantime (lease reclaimed and the payment claimed again) are skipped.
+     */
+    private void recordOutcomes(List<Payment> payments, List<PaymentGatewayResult> results) {
+        List<PaymentStatusUpdate> updates = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            updates.add(toStatusUpdate(payments.get(i), results.get(i)));
+        }
+        applyUpdates(payments, updates);
+    }
+
+    private void applyUpdates(List<Payment> payments, List<PaymentStatusUpdate> updates) {
+        int[] applied;
+        try {
+            applied = paymentRepository.applyStatusUpdates(updates);
+        } catch (Exception e) {
+            // The payments stay PROCESSING and are reclaimed once their lease expires
+            logger.error("Failed to record outcomes for {} payments", payments.size(), e);
+            return;
+        }
+
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            if (applied[i] == 0) {
+                lostClaimCounter.increment();
+                logger.warn("Discarding outcome {} for payment ID: {}, its claim is no longer held",
+                        updates.get(i).getStatus(), payment.getId());
+                continue;
+            }
+            try {
+                onRecorded(payment, updates.get(i));
+            } catch (Exception e) {
+                logger.error("Error after recording outcome for payment ID: {}", payment.getId(), e);
+            }
+        }
+    }
+
+    private PaymentStatusUpdate toStatusUpdate(Payment payment, PaymentGatewayResult result) {
+        return switch (result.getOutcome()) {
+            case APPROVED -> PaymentStatusUpdate.completed(payment.getId(), payment.getClaimToken(),
+                    result.getTransactionId());
+            case DECLINED -> PaymentStatusUpdate.failed(payment.getId(), payment.getClaimToken(), result.getReason());
+            case TRANSIENT_FAILURE -> payment.getAttemptCount() >= maxAttempts
+                    ? PaymentStatusUpdate.quarantined(payment.getId(), payment.getClaimToken(),
+                            "Quarantined after " + payment.getAttemptCount()
+                                    + " attempts, last gateway error: " + result.getReason())
+                    : PaymentStatusUpdate.released(payment.getId(), payment.getClaimToken());
+        };
+    }
+
+    private void onRecorded(Payment payment, PaymentStatusUpdate update) {
+        // Keep the detached entity in line with the row for statistics and notifications
+        update.applyTo(payment);
+        paymentStatusCounters.recordTransition(PaymentStatus.PROCESSING, update.getStatus());
+        paymentByOrderCache.invalidate(payment.getOrderId());
+
+        switch (update.getStatus()) {
+            case COMPLETED -> {
+                paymentRollingStats.recordCompleted(payment);
+                logger.info("Payment ID: {} completed successfully with transaction ID: {}",
+                        payment.getId(), payment.getTransactionId());
+                // Notify order service once the outcome is persisted
+                notifyOrderServiceOfCompletion(payment);
+            }
+            case FAILED -> {
+                paymentRollingStats.recordFailed(payment);
+                logger.warn("Payment ID: {} failed processing: {}", payment.getId(), payment.getFailureReason());
+                notifyOrderServiceOfFailure(payment);
+            }
+            case QUARANTINED -> logger.warn("Payment ID: {} quarantined: {}",
+                    payment.getId(), payment.getFailureReason());
+            case PENDING -> {
+                if (update.isDeferred()) {
+                    logger.debug("Payment ID: {} deferred by the gateway rate limit", payment.getId());
+                    eventPublisher.publishEvent(new PaymentDeferredEvent(payment.getId(), payment.getAmount(),
+                            payment.getPaymentMethod(), payment.getCreatedAt(), update.getNextAttemptAt()));
+                } else {
+                    releasedCounter.increment();
+                    logger.warn("Payment ID: {} released for retry after transient gateway failure", payment.getId());
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected outcome status " + update.getStatus());
+        }
+    }
+
+    private void notifyOrderServiceOfCompletion(Payment payment) {
+        orderNotificationService.notifyOrder(payment.getOrderId(), payment.getId(),
+                OrderNotificationType.PAYMENT_COMPLETED, null);
+    }
+
+    private void notifyOrderServiceOfFailure(Payment payment) {
+        String reason = "Payment failed: " + payment.getFailureReason();
+        orderNotificationService.notifyOrder(payment.getOrderId(), payment.getId(),
+                OrderNotificationType.PAYMENT_FAILED, reason);
+    }
+}
@@ -0,0 +1,361 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process queue of newly created payments. A dispatcher thread claims queued
+ * payments and hands them to the worker pool as soon as they are committed, so
+ * processing no longer waits for the next scheduler run.
+ *
+ * Payments are sorted into priority lanes (payment.processing.lanes) by payment method and
+ * amount band when they are queued. Lanes with a min-age match on how long a payment has
+ * waited, so they are only checked at dispatch: payments at the head of a later lane that
+ * have grown old enough move up into the age lane. The dispatcher serves lanes by smooth
+ * weighted round robin, so a burst in a low-weight lane cannot hold back a lane customers
+ * are waiting on, and no lane starves.
+ *
+ * Payments deferred by the gateway rate limit are queued again when their tokens have
+ * refilled (their next_attempt_at), so a throttled payment does not wait for the scheduler.
+ *
+ * After the first payment arrives the dispatcher lingers briefly for more, so that bursts
+ * are claimed together and reach the gateway as batches.
+ *
+ * The queue is not durable: anything lost on a restart or dropped because a lane was
+ * full is still PENDING and gets picked up by the scheduler. The scheduler's safety-net
+ * poll does not go through the lanes; it only sees payments the queue missed, which are
+ * already older than payment.processing.safety-net-delay, and processes them oldest first. The dispatcher stops before the
+ * worker pool it feeds, so it does not claim payments the pool would reject.
+ */
+@Component
+public class PaymentWorkQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWorkQueue.class);
+
+    private final List<Lane> lanes = new ArrayList<>();
+    // One permit per queued payment, so the dispatcher can wait on all lanes at once
+    private final Semaphore queued = new Semaphore(0);
+    private final PaymentClaimService paymentClaimService;
+    private final PaymentWorkerPool paymentWorkerPool;
+    private final PaymentProcessor paymentProcessor;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final boolean hasAgeLanes;
+
+    private volatile boolean running = true;
+    private Thread dispatcherThread;
+    private volatile ScheduledExecutorService deferralTimer;
+
+    public PaymentWorkQueue(PaymentClaimService paymentClaimService,
+                            PaymentWorkerPool paymentWorkerPool,
+                            PaymentProcessor paymentProcessor,
+                            Environment environment,
+                            @Value("${payment.processing.queue.capacity:10000}") int capacity,
+                            @Value("${payment.processing.batch-size:${payment.gateway.batch.max-size:20}}") int batchSize,
+                            @Value("${payment.gateway.batch.max-size:20}") int gatewayBatchSize,
+                            @Value("${payment.gateway.batch.linger:20}") long lingerMillis,
+                            MeterRegistry meterRegistry) {
+        this.paymentClaimService = paymentClaimService;
+        this.paymentWorkerPool = paymentWorkerPool;
+        this.paymentProcessor = paymentProcessor;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        if (batchSize < gatewayBatchSize) {
+            logger.warn("payment.processing.batch-size {} is below payment.gateway.batch.max-size {}; "
+                    + "gateway batches will never be full", batchSize, gatewayBatchSize);
+        }
+
+        List<PaymentLaneDefinition> definitions = Binder.get(environment)
+                .bind("payment.processing.lanes", Bindable.listOf(PaymentLaneDefinition.class))
+                .orElse(List.of(new PaymentLaneDefinition("default", 1)));
+        for (PaymentLaneDefinition definition : definitions) {
+            lanes.add(new Lane(definition, capacity, meterRegistry));
+        }
+        this.hasAgeLanes = definitions.stream().anyMatch(PaymentLaneDefinition::isAgeBased);
+
+        Gauge.builder("payment.queue.depth", queued, Semaphore::availablePermits)
+                .description("Payments waiting in the work queue")
+                .register(meterRegistry);
+
+        logger.info("Payment work queue lanes: {}", definitions);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        dispatcherThread = new Thread(this::dispatchLoop, "payment-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+        deferralTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-deferrals");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentCreated(PaymentCreatedEvent event) {
+        enqueue(event.getPaymentId(), event.getPaymentMethod(), event.getAmount(), event.getCreatedAt());
+    }
+
+    @EventListener
+    public void onPaymentDeferred(PaymentDeferredEvent event) {
+        ScheduledExecutorService timer = deferralTimer;
+        if (!running || timer == null) {
+            return;
+        }
+        // Claiming before next_attempt_at would leave the payment where it is, so round the wait up
+        long delayMillis = Math.max(0, Duration.between(LocalDateTime.now(), event.getNextAttemptAt()).toMillis() + 1);
+        timer.schedule(() -> enqueue(event.getPaymentId(), event.getPaymentMethod(), event.getAmount(),
+                event.getCreatedAt()), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean enqueue(Long paymentId, String paymentMethod, BigDecimal amount, LocalDateTime createdAt) {
+        Lane lane = laneFor(paymentMethod, amount);
+        if (lane.queue.offer(new QueuedPayment(paymentId, paymentMethod, amount, createdAt, System.nanoTime()))) {
+            queued.release();
+            lane.enqueuedCounter.increment();
+            return true;
+        }
+        lane.droppedCounter.increment();
+        logger.warn("Payment work queue lane '{}' is full, payment ID: {} will be picked up by the scheduler",
+                lane.definition.getName(), paymentId);
+        return false;
+    }
+
+    public int size() {
+        return queued.availablePermits();
+    }
+
+    public int size(String laneName) {
+        return lanes.stream()
+                .filter(lane -> lane.definition.getName().equals(laneName))
+                .mapToInt(lane -> lane.queue.size())
+                .sum();
+    }
+
+    private Lane laneFor(String paymentMethod, BigDecimal amount) {
+        for (Lane lane : lanes) {
+            // A just-created payment is too young for an age lane; those are filled at dispatch
+            if (!lane.definition.isAgeBased() && lane.definition.matches(paymentMethod, amount, null)) {
+                return lane;
+            }
+        }
+        // Lanes are expected to end with a catch-all; without one the last non-age lane takes the rest
+        for (int i = lanes.size() - 1; i >= 0; i--) {
+            if (!lanes.get(i).definition.isAgeBased()) {
+                return lanes.get(i);
+            }
+        }
+        return lanes.get(lanes.size() - 1);
+    }
+
+    /**
+     * Moves payments that have waited long enough into the age lanes listed before their
+     * current lane. Lanes are FIFO, so only their heads need checking. Only the dispatcher
+     * thread removes from lanes, so a peeked head is still the head when it is polled.
+     */
+    private void promoteAgedPayments() {
+        for (int target = 0; target < lanes.size(); target++) {
+            Lane ageLane = lanes.get(target);
+            if (!ageLane.definition.isAgeBased()) {
+                continue;
+            }
+            for (int source = target + 1; source < lanes.size(); source++) {
+                Lane lane = lanes.get(source);
+                QueuedPayment head;
+                while ((head = lane.queue.peek()) != null
+                        && ageLane.definition.matches(head.paymentMethod, head.amount, head.createdAt)
+                        && ageLane.queue.offer(head)) {
+                    lane.queue.poll();
+                    ageLane.promotedCounter.increment();
+                }
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                if (!queued.tryAcquire(1, TimeUnit.SECONDS)) {
+                    continue;
+                }
+                batch.add(takeNext());
+                fillBatch(batch);
+
+                List<Payment> claimed = paymentClaimService.claimByIds(batch);
+                for (List<Payment> gatewayBatch : paymentProcessor.groupIntoBatches(claimed)) {
+                    paymentWorkerPool.submit(gatewayBatch, paymentProcessor::processBatch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Unclaimed payments stay PENDING for the scheduler
+                logger.error("Error dispatching queued payments {}", batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<Long> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            if (!queued.tryAcquire()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !queued.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            }
+            batch.add(takeNext());
+        }
+    }
+
+    /**
+     * Takes the next payment by smooth weighted round robin over the non-empty lanes. The
+     * caller holds a permit, so at least one lane has a payment.
+     */
+    private Long takeNext() {
+        if (hasAgeLanes) {
+            promoteAgedPayments();
+        }
+        while (true) {
+            Lane selected = null;
+            int totalWeight = 0;
+            for (Lane lane : lanes) {
+                if (lane.queue.isEmpty()) {
+                    continue;
+                }
+                lane.currentWeight += lane.definition.getWeight();
+                totalWeight += lane.definition.getWeight();
+                if (selected == null || lane.currentWeight > selected.currentWeight) {
+                    selected = lane;
+                }
+            }
+            if (selected == null) {
+                // The permit was released just before the payment became visible; retry
+                Thread.onSpinWait();
+                continue;
+            }
+            selected.currentWeight -= totalWeight;
+
+            QueuedPayment next = selected.queue.poll();
+            if (next != null) {
+                selected.waitTimer.record(System.nanoTime() - next.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+                return next.paymentId;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return dispatcherThread != null && running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Same phase as the worker pool; dependent beans are stopped first, so this stops ahead of it
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+        }
+        if (deferralTimer != null) {
+            int waiting = deferralTimer.shutdownNow().size();
+            if (waiting > 0) {
+                logger.info("Leaving {} deferred payments for the scheduler on shutdown", waiting);
+            }
+        }
+        if (size() > 0) {
+            logger.info("Leaving {} queued payments for the scheduler on shutdown", size());
+        }
+    }
+
+    private static final class QueuedPayment {
+        private final Long paymentId;
+        // Kept to re-match the payment against age lanes at dispatch
+        private final String paymentMethod;
+        private final BigDecimal amount;
+        private final LocalDateTime createdAt;
+        private final long enqueuedAtNanos;
+
+        private QueuedPayment(Long paymentId, String paymentMethod, BigDecimal amount, LocalDateTime createdAt,
+                              long enqueuedAtNanos) {
+            this.paymentId = paymentId;
+            this.paymentMethod = paymentMethod;
+            this.amount = amount;
+            this.createdAt = createdAt;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+
+    private static final class Lane {
+        private final PaymentLaneDefinition definition;
+        private final BlockingQueue<QueuedPayment> queue;
+        private final Counter enqueuedCounter;
+        private final Counter droppedCounter;
+        private final Counter promotedCounter;
+        private final Timer waitTimer;
+        // Only touched by the dispatcher thread
+        private int currentWeight;
+
+        private Lane(PaymentLaneDefinition definition, int capacity, MeterRegistry meterRegistry) {
+            this.definition = definition;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+
+            String name = definition.getName();
+            this.enqueuedCounter = Counter.builder("payment.queue.enqueued")
+                    .description("Payments handed to the work queue on creation")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            this.droppedCounter = Counter.builder("payment.queue.dropped")
+                    .description("Payments left for the scheduler because their lane was full")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            this.promotedCounter = Counter.builder("payment.queue.promoted")
+                    .description("Payments moved into this age lane after waiting in a later lane")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("payment.queue.lane.wait")
+                    .description("Time payments waited in their lane before being dispatched")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            Gauge.builder("payment.queue.lane.depth", queue, BlockingQueue::size)
+                    .description("Payments waiting in each lane")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bounded worker pool that processes batches of payments concurrently.
+ *
+ * The number of payments in flight is capped by a semaphore holding one permit per payment,
+ * so callers block (instead of queueing without limit) once the pool is saturated. A batch
+ * larger than the cap takes all permits rather than waiting forever. On shutdown
+ * the pool stops accepting work and drains what is already in flight. It stops as a
+ * {@link SmartLifecycle}, ahead of the order notification dispatcher, so that the outcomes
+ * of drained payments are still recorded and notified.
+ */
+@Component
+public class PaymentWorkerPool implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWorkerPool.class);
+
+    private final ExecutorService executor;
+    private final Semaphore inFlightPermits;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long drainTimeoutMillis;
+    private volatile boolean accepting = true;
+
+    private final Timer processingTimer;
+    private final Counter processedCounter;
+    private final Counter rejectedCounter;
+
+    public PaymentWorkerPool(@Value("${payment.processing.workers.pool-size:8}") int poolSize,
+                             @Value("${payment.processing.workers.max-in-flight:32}") int maxInFlight,
+                             @Value("${payment.processing.workers.drain-timeout:30000}") long drainTimeoutMillis,
+                             MeterRegistry meterRegistry) {
+        this.drainTimeoutMillis = drainTimeoutMillis;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlightPermits = new Semaphore(this.maxInFlight);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "payment-worker-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.processingTimer = Timer.builder("payment.worker.processing")
+                .description("Time spent processing a batch of payments on a worker thread")
+                .register(meterRegistry);
+        this.processedCounter = Counter.builder("payment.worker.processed")
+                .description("Payments processed by the worker pool")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("payment.worker.rejected")
+                .description("Batches rejected because the worker pool was shutting down")
+                .register(meterRegistry);
+        Gauge.builder("payment.worker.in-flight", inFlight, AtomicInteger::get)
+                .description("Payments currently being processed")
+                .register(meterRegistry);
+
+        logger.info("Payment worker pool started with {} threads and max {} payments in flight",
+                poolSize, maxInFlight);
+    }
+
+    /**
+     * Processes all batches concurrently and waits until every one has finished.
+     * Blocks the caller while the max in-flight limit is reached.
+     */
+    public <T> void processAll(List<List<T>> batches, Consumer<List<T>> task) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(batches.size());
+        for (List<T> batch : batches) {
+            CompletableFuture<Void> future = submit(batch, task);
+            if (future != null) {
+                futures.add(future);
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * Submits a single batch, blocking until there are permits for all of its payments.
+     * Returns null if the pool is no longer accepting work.
+     */
+    public <T> CompletableFuture<Void> submit(List<T> batch, Consumer<List<T>> task) {
+        if (!accepting) {
+            rejectedCounter.increment();
+            logger.warn("Worker pool is shutting down, rejecting payment task");
+            return null;
+        }
+
+        int permits = Math.min(batch.size(), maxInFlight);
+        try {
+            inFlightPermits.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedCounter.increment();
+            return null;
+        }
+
+        inFlight.addAndGet(batch.size());
+        try {
+            return CompletableFuture.runAsync(() -> runTask(batch, permits, task), executor);
+        } catch (RejectedExecutionException e) {
+            inFlight.addAndGet(-batch.size());
+            inFlightPermits.release(permits);
+            rejectedCounter.increment();
+            logger.warn("Worker pool rejected payment task", e);
+            return null;
+        }
+    }
+
+    private <T> void runTask(List<T> batch, int permits, Consumer<List<T>> task) {
+        try {
+            processingTimer.record(() -> task.accept(batch));
+            processedCounter.increment(batch.size());
+        } catch (Exception e) {
+            logger.error("Unhandled error in payment worker", e);
+        } finally {
+            inFlight.addAndGet(-batch.size());
+            inFlightPermits.release(permits);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void start() {
+        // The executor is created on construction
+    }
+
+    @Override
+    public boolean isRunning() {
+        return accepting;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    @Override
+    public void stop() {
+        shutdown();
+    }
+
+    public void shutdown() {
+        if (!accepting) {
+            return;
+        }
+        accepting = false;
+        logger.info("Draining payment worker pool ({} payments in flight)", inFlight.get());
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("Payment worker pool did not drain within {} ms, {} payments still in flight",
+                        drainTimeoutMillis, inFlight.get());
+                executor.shutdownNow();
+            } else {
+                logger.info("Payment worker pool drained");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.orderfulfillment.paymentservice.reconciliation;
+
+import com.orderfulfillment.paymentservice.client.OrderServiceClient;
+import com.orderfulfillment.paymentservice.dto.OrderStatusSummaryDto;
+import com.orderfulfillment.paymentservice.dto.OrderStatusUpdateDto;
+import com.orderfulfillment.paymentservice.dto.OrderStatusUpdateResultDto;
+import com.orderfulfillment.paymentservice.dto.ReconciliationMismatchDto;
+import com.orderfulfillment.paymentservice.dto.ReconciliationReportDto;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.enums.ReconciliationMismatchType;
+import com.orderfulfillment.paymentservice.repository.OrderNotificationRepository;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository.OrderPaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Finds orders and payments that disagree, e.g. orders stuck in PAYMENT_PROCESSING whose
+ * payment already finished because the order notification was lost.
+ *
+ * Orders are streamed from order-service and payments read from the database, both in order
+ * ID order and one keyset range at a time, and merge-joined. Memory stays bounded by the chunk
+ * size however many rows there are, and no transaction is held open across chunks.
+ *
+ * Mismatches are counted and sampled into the report. When repair is on, lost notifications
+ * are repaired by sending the missing order status updates to order-service in batches.
+ * A run stops when its time budget is spent and reports where the next run can resume.
+ */
+@Service
+public class OrderPaymentReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPaymentReconciler.class);
+
+    private static final String PAYMENT_PROCESSING = "PAYMENT_PROCESSING";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String APPLIED = "APPLIED";
+    private static final String UNCHANGED = "UNCHANGED";
+    private static final int ORDER_PREFETCH = 256;
+
+    private final OrderServiceClient orderServiceClient;
+    private final PaymentRepository paymentRepository;
+    private final OrderNotificationRepository orderNotificationRepository;
+    private final Map<ReconciliationMismatchType, Counter> mismatchCounters = new EnumMap<>(ReconciliationMismatchType.class);
+    private final Counter repairedCounter;
+    private final Counter repairFailedCounter;
+    private final Timer durationTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${payment.reconciliation.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${payment.reconciliation.repair-batch-size:100}")
+    private int repairBatchSize;
+
+    @Value("${payment.reconciliation.time-budget:600000}")
+    private long timeBudgetMillis;
+
+    @Value("${payment.reconciliation.grace-period:300000}")
+    private long gracePeriodMillis;
+
+    @Value("${payment.reconciliation.sample-size:100}")
+    private int sampleSize;
+
+    @Value("${external-services.order-service.timeout:5000}")
+    private long orderServiceTimeoutMillis;
+
+    // Where the last run that ran out of time stopped; the next run carries on from there
+    private volatile long resumeAfterOrderId;
+
+    @Autowired
+    public OrderPaymentReconciler(OrderServiceClient orderServiceClient,
+                                  PaymentRepository paymentRepository,
+                                  OrderNotificationRepository orderNotificationRepository,
+                                  MeterRegistry meterRegistry) {
+        this.orderServiceClient = orderServiceClient;
+        this.paymentRepository = paymentRepository;
+        this.orderNotificationRepository = orderNotificationRepository;
+
+        for (ReconciliationMismatchType type : ReconciliationMismatchType.values()) {
+            mismatchCounters.put(type, Counter.builder("payment.reconciliation.mismatches")
+                    .description("Order/payment mismatches found by reconciliation")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        this.repairedCounter = Counter.builder("payment.reconciliation.repaired")
+                .description("Orders whose status was repaired by reconciliation")
+                .register(meterRegistry);
+        this.repairFailedCounter = Counter.builder("payment.reconciliation.repair.failed")
+                .description("Order repairs that order-service rejected or that could not be sent")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("payment.reconciliation.duration")
+                .description("Time taken by reconciliation runs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one reconciliation pass, resuming after the last order reached by a pass that ran
+     * out of time. Returns empty if a pass is already running.
+     */
+    public Optional<ReconciliationReportDto> reconcile(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Reconciliation already running, skipping");
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(run(repair));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private ReconciliationReportDto run(boolean repair) {
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        Run run = new Run(repair, LocalDateTime.now().minus(Duration.ofMillis(gracePeriodMillis)));
+
+        long afterId = resumeAfterOrderId;
+        logger.info("Starting order/payment reconciliation after order {} (repair {})", afterId, repair ? "on" : "off");
+
+        PaymentCursor payments = new PaymentCursor(afterId);
+        boolean completed = false;
+        boolean outOfTime = false;
+        while (!outOfTime) {
+            int received = 0;
+            try (Stream<OrderStatusSummaryDto> orders = orderServiceClient.streamOrderStatuses(afterId, chunkSize)
+                    .toStream(ORDER_PREFETCH)) {
+                for (OrderStatusSummaryDto order : (Iterable<OrderStatusSummaryDto>) orders::iterator) {
+                    if (System.nanoTime() - deadlineNanos > 0) {
+                        outOfTime = true;
+                        break;
+                    }
+                    received++;
+                    run.ordersScanned++;
+                    afterId = order.getId();
+
+                    // Payments the order stream skipped over have no order
+                    while (payments.peek() != null && payments.peek().getOrderId() < order.getId()) {
+                        checkOrphan(run, payments.next());
+                    }
+                    OrderPaymentStatus payment = null;
+                    if (payments.peek() != null && payments.peek().getOrderId().equals(order.getId())) {
+                        payment = payments.next();
+                    }
+                    check(run, order, payment);
+                }
+            }
+            // Order-service caps each range at its own maximum, which may be below the chunk size,
+            // so only an empty range marks the end of the orders
+            if (!outOfTime && received == 0) {
+                // Past the last order: whatever payments are left have no order
+                while (payments.peek() != null) {
+                    checkOrphan(run, payments.next());
+                }
+                completed = true;
+                break;
+            }
+        }
+        run.flushRepairs();
+
+        resumeAfterOrderId = completed ? 0L : afterId;
+        long elapsedNanos = System.nanoTime() - startNanos;
+        durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        ReconciliationReportDto report = new ReconciliationReportDto(run.startedAt,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), run.ordersScanned, payments.scanned,
+                run.mismatches, run.sample, run.repaired, run.repairFailed, completed,
+                completed ? null : afterId);
+        if (completed) {
+            logger.info("Reconciliation finished: {} orders, {} payments, mismatches {}, {} repaired, {} repairs failed",
+                    run.ordersScanned, payments.scanned, run.mismatches, run.repaired, run.repairFailed);
+        } else {
+            logger.warn("Reconciliation ran out of its {} ms budget after order {}: {} orders, {} payments, mismatches {}; " +
+                            "the next run resumes from there",
+                    timeBudgetMillis, afterId, run.ordersScanned, payments.scanned, run.mismatches);
+        }
+        return report;
+    }
+
+    private void check(Run run, OrderStatusSummaryDto order, OrderPaymentStatus payment) {
+        // Rows that changed recently may still have a notification on its way
+        if (run.isRecent(order.getUpdatedAt()) || (payment != null && run.isRecent(payment.getUpdatedAt()))) {
+            return;
+        }
+        String orderStatus = order.getStatus();
+        if (payment == null) {
+            if (PAYMENT_PROCESSING.equals(orderStatus)) {
+                run.mismatch(ReconciliationMismatchType.MISSING_PAYMENT, order, null);
+            }
+            return;
+        }
+
+        PaymentStatus paymentStatus = payment.getStatus();
+        if (PAYMENT_PROCESSING.equals(orderStatus)) {
+            if (paymentStatus == PaymentStatus.COMPLETED) {
+                run.mismatch(ReconciliationMismatchType.ORDER_NOT_COMPLETED, order, payment);
+            } else if (paymentStatus == PaymentStatus.FAILED || paymentStatus == PaymentStatus.CANCELLED) {
+                run.mismatch(ReconciliationMismatchType.ORDER_NOT_CANCELLED, order, payment);
+            }
+            return;
+        }
+        boolean orderCompleted = COMPLETED.equals(orderStatus);
+        boolean orderClosed = !orderCompleted && !"PENDING".equals(orderStatus) && !"CONFIRMED".equals(orderStatus);
+        if (orderCompleted && (paymentStatus != PaymentStatus.COMPLETED || !payment.getId().equals(order.getPaymentId()))) {
+            run.mismatch(ReconciliationMismatchType.STATUS_CONFLICT, order, payment);
+        } else if (orderClosed && paymentStatus == PaymentStatus.COMPLETED) {
+            // Money taken for an order that was failed or cancelled
+            run.mismatch(ReconciliationMismatchType.STATUS_CONFLICT, order, payment);
+        }
+    }
+
+    private void checkOrphan(Run run, OrderPaymentStatus payment) {
+        if (!run.isRecent(payment.getUpdatedAt())) {
+            run.mismatch(ReconciliationMismatchType.ORPHAN_PAYMENT, null, payment);
+        }
+    }
+
+    /**
+     * Reads payments in order ID order, one keyset page at a time.
+     */
+    private final class PaymentCursor {
+        private List<OrderPaymentStatus> page = List.of();
+        private int index;
+        private long afterOrderId;
+        private boolean exhausted;
+        private long scanned;
+
+        private PaymentCursor(long afterOrderId) {
+            this.afterOrderId = afterOrderId;
+        }
+
+        private OrderPaymentStatus peek() {
+            if (index == page.size() && !exhausted) {
+                page = paymentRepository.findStatusesByOrderIdAfter(afterOrderId, Limit.of(chunkSize));
+                index = 0;
+                exhausted = page.size() < chunkSize;
+                if (!page.isEmpty()) {
+                    afterOrderId = page.get(page.size() - 1).getOrderId();
+                }
+            }
+            return index < page.size() ? page.get(index) : null;
+        }
+
+        private OrderPaymentStatus next() {
+            OrderPaymentStatus payment = peek();
+            index++;
+            scanned++;
+            return payment;
+        }
+    }
+
+    /**
+     * State of one pass: mismatch counts, the sample and the pending repair batch.
+     */
+    private final class Run {
+        private final boolean repair;
+        private final LocalDateTime recentCutoff;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final Map<ReconciliationMismatchType, Long> mismatches = new EnumMap<>(ReconciliationMismatchType.class);
+        private final List<ReconciliationMismatchDto> sample = new ArrayList<>();
+        private final List<OrderStatusUpdateDto> pendingRepairs = new ArrayList<>();
+        private long ordersScanned;
+        private long repaired;
+        private long repairFailed;
+
+        private Run(boolean repair, LocalDateTime recentCutoff) {
+            this.repair = repair;
+            this.recentCutoff = recentCutoff;
+        }
+
+        private boolean isRecent(LocalDateTime updatedAt) {
+            return updatedAt != null && updatedAt.isAfter(recentCutoff);
+        }
+
+        private void mismatch(ReconciliationMismatchType type, OrderStatusSummaryDto order, OrderPaymentStatus payment) {
+            Long orderId = order != null ? order.getId() : payment.getOrderId();
+            // A queued notification will still deliver this update; leave it to the redelivery job
+            if (type.isRepairable() && orderNotificationRepository.existsByOrderId(orderId)) {
+                return;
+            }
+
+            mismatches.merge(type, 1L, Long::sum);
+            mismatchCounters.get(type).increment();
+            if (sample.size() < sampleSize) {
+                sample.add(new ReconciliationMismatchDto(type, orderId, order != null ? order.getStatus() : null,
+                        payment != null ? payment.getId() : null, payment != null ? payment.getStatus() : null));
+            }
+            logger.debug("Reconciliation mismatch {} for order {} (order {}, payment {})", type, orderId,
+                    order != null ? order.getStatus() : "missing",
+                    payment != null ? payment.getStatus() : "missing");
+
+            if (repair && type.isRepairable()) {
+                pendingRepairs.add(type == ReconciliationMismatchType.ORDER_NOT_COMPLETED
+                        ? new OrderStatusUpdateDto(orderId, COMPLETED, payment.getId(), null)
+                        : new OrderStatusUpdateDto(orderId, "CANCELLED", payment.getId(),
+                        "Payment failed: " + payment.getFailureReason()));
+                if (pendingRepairs.size() >= repairBatchSize) {
+                    flushRepairs();
+                }
+            }
+        }
+
+        private void flushRepairs() {
+            if (pendingRepairs.isEmpty()) {
+                return;
+            }
+            List<OrderStatusUpdateDto> batch = new ArrayList<>(pendingRepairs);
+            pendingRepairs.clear();
+            try {
+                List<OrderStatusUpdateResultDto> results = orderServiceClient.updateOrderStatuses(batch)
+                        .block(Duration.ofMillis(orderServiceTimeoutMillis * 2));
+                long applied = 0;
+                long rejected = 0;
+                for (OrderStatusUpdateResultDto result : Objects.requireNonNullElse(results, List.<OrderStatusUpdateResultDto>of())) {
+                    if (APPLIED.equals(result.getResult())) {
+                        applied++;
+                    } else if (!UNCHANGED.equals(result.getResult())) {
+                        logger.warn("Order-service did not repair order {}: {} {}", result.getOrderId(),
+                                result.getResult(), result.getMessage() != null ? result.getMessage() : "");
+                        rejected++;
+                    }
+                }
+                repaired += applied;
+                repairFailed += rejected;
+                repairedCounter.increment(applied);
+                repairFailedCounter.increment(rejected);
+            } catch (Exception e) {
+                // Left as they are; the next run finds them again
+                logger.error("Failed to send {} order repairs to order-service", batch.size(), e);
+                repairFailed += batch.size();
+                repairFailedCounter.increment(batch.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.orderfulfillment.paymentservice.repository;
+
+import com.orderfulfillment.paymentservice.entity.OrderNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderNotificationRepository extends JpaRepository<OrderNotification, Long> {
+
+    /**
+     * Notifications due for delivery. Only the oldest notification of each order is returned,
+     * so notifications for the same order are always delivered in the order they were queued.
+     */
+    @Query("SELECT n FROM OrderNotification n WHERE n.nextAttemptAt <= :now " +
+            "AND n.id = (SELECT MIN(m.id) FROM OrderNotification m WHERE m.orderId = n.orderId) " +
+            "ORDER BY n.id")
+    List<OrderNotification> findDueForDelivery(@Param("now") LocalDateTime now, Pageable pageable);
+
+    boolean existsByOrderId(Long orderId);
+}
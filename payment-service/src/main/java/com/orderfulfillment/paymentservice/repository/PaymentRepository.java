@@ -2,17 +2,26 @@ package com.orderfulfillment.paymentservice.repository;
 
 import com.orderfulfillment.paymentservice.entity.Payment;
 import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentRepositoryCustom {
 
     Optional<Payment> findByOrderId(Long orderId);
 
@@ -20,12 +29,142 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByStatusIn(List<PaymentStatus> statuses);
 
+    /**
+     * Keyset page: payments after the given ID in ID order, sized by the pageable.
+     */
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    List<Payment> findByStatusAndIdGreaterThanOrderByIdAsc(PaymentStatus status, Long afterId, Pageable pageable);
+
+    /**
+     * Forward-only cursor over all payments in ID order. Must be consumed inside a transaction
+     * and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p ORDER BY p.id")
+    Stream<Payment> streamAll();
+
+    /**
+     * Forward-only cursor over the payments in one status in ID order, served by
+     * idx_payments_status_id. Kept separate from {@link #streamAll} so each gets its own plan.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p WHERE p.status = :status ORDER BY p.id")
+    Stream<Payment> streamAllByStatus(@Param("status") PaymentStatus status);
+
     @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.createdAt <= :cutoffTime")
     List<Payment> findEligibleForProcessing(@Param("status") PaymentStatus status,
                                             @Param("cutoffTime") LocalDateTime cutoffTime);
 
+    /**
+     * Locks a batch of eligible payments, skipping rows already locked by another replica.
+     * PostgreSQL only; other databases use {@link #findEligibleIdsForProcessing} plus a conditional update.
+     */
+    @Query(value = "SELECT * FROM payments WHERE status = 'PENDING' AND created_at <= :cutoffTime " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Payment> lockEligibleForProcessing(@Param("cutoffTime") LocalDateTime cutoffTime,
+                                            @Param("now") LocalDateTime now,
+                                            @Param("limit") int limit);
+
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.createdAt <= :cutoffTime " +
+            "AND (p.nextAttemptAt IS NULL OR p.nextAttemptAt <= :now) ORDER BY p.createdAt")
+    List<Long> findEligibleIdsForProcessing(@Param("status") PaymentStatus status,
+                                            @Param("cutoffTime") LocalDateTime cutoffTime,
+                                            @Param("now") LocalDateTime now,
+                                            Pageable pageable);
+
+    /**
+     * Moves the given payments from PENDING to PROCESSING under a claim. Payments that are
+     * no longer PENDING (claimed by another replica in the meantime), or deferred until later,
+     * are left untouched.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.orderfulfillment.paymentservice.enums.PaymentStatus.PROCESSING, " +
+            "p.claimedBy = :claimedBy, p.claimToken = :claimToken, p.leaseExpiresAt = :leaseExpiresAt, " +
+            "p.attemptCount = p.attemptCount + 1, p.nextAttemptAt = NULL, p.updatedAt = :now " +
+            "WHERE p.id IN :ids AND p.status = com.orderfulfillment.paymentservice.enums.PaymentStatus.PENDING " +
+            "AND (p.nextAttemptAt IS NULL OR p.nextAttemptAt <= :now)")
+    int claimPending(@Param("ids") List<Long> ids,
+                     @Param("claimedBy") String claimedBy,
+                     @Param("claimToken") String claimToken,
+                     @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+                     @Param("now") LocalDateTime now);
+
+    List<Payment> findByClaimTokenOrderByCreatedAt(String claimToken);
+
+    /**
+     * Oldest expiry among PROCESSING payments whose lease has run out. Payments left
+     * PROCESSING without a lease (from before leases existed) count from their last update.
+     */
+    @Query("SELECT MIN(COALESCE(p.leaseExpiresAt, p.updatedAt)) FROM Payment p " +
+            "WHERE p.status = com.orderfulfillment.paymentservice.enums.PaymentStatus.PROCESSING " +
+            "AND (p.leaseExpiresAt IS NULL OR p.leaseExpiresAt < :now)")
+    LocalDateTime findOldestExpiredLease(@Param("now") LocalDateTime now);
+
+    /**
+     * Returns PROCESSING payments with an expired lease to PENDING so they can be claimed again.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.orderfulfillment.paymentservice.enums.PaymentStatus.PENDING, " +
+            "p.claimedBy = NULL, p.claimToken = NULL, p.leaseExpiresAt = NULL, p.updatedAt = :now " +
+            "WHERE p.status = com.orderfulfillment.paymentservice.enums.PaymentStatus.PROCESSING " +
+            "AND (p.leaseExpiresAt IS NULL OR p.leaseExpiresAt < :now) AND p.attemptCount < :maxAttempts")
+    int releaseExpiredLeases(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Quarantines PROCESSING payments whose lease expired after using up all attempts.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.orderfulfillment.paymentservice.enums.PaymentStatus.QUARANTINED, " +
+            "p.failureReason = :reason, p.claimToken = NULL, p.leaseExpiresAt = NULL, p.updatedAt = :now " +
+            "WHERE p.status = com.orderfulfillment.paymentservice.enums.PaymentStatus.PROCESSING " +
+            "AND (p.leaseExpiresAt IS NULL OR p.leaseExpiresAt < :now) AND p.attemptCount >= :maxAttempts")
+    int quarantineExpiredLeases(@Param("now") LocalDateTime now,
+                                @Param("maxAttempts") int maxAttempts,
+                                @Param("reason") String reason);
+
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status")
     long countByStatus(@Param("status") PaymentStatus status);
 
+    /**
+     * Payment counts for every status present in the table, in a single query.
+     */
+    @Query("SELECT p.status AS status, COUNT(p) AS count FROM Payment p GROUP BY p.status")
+    List<StatusCount> countGroupedByStatus();
+
     boolean existsByOrderId(Long orderId);
+
+    /**
+     * Keyset page of payment statuses for orders after the given order ID, in order ID order.
+     * Walks the order_id unique index, so reconciliation can merge-join payments with
+     * order-service's orders one range at a time.
+     */
+    @Query("SELECT p.id AS id, p.orderId AS orderId, p.status AS status, p.failureReason AS failureReason, " +
+            "p.updatedAt AS updatedAt FROM Payment p WHERE p.orderId > :afterOrderId ORDER BY p.orderId")
+    List<OrderPaymentStatus> findStatusesByOrderIdAfter(@Param("afterOrderId") Long afterOrderId, Limit limit);
+
+    interface OrderPaymentStatus {
+        Long getId();
+
+        Long getOrderId();
+
+        PaymentStatus getStatus();
+
+        String getFailureReason();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    interface StatusCount {
+        PaymentStatus getStatus();
+
+        long getCount();
+    }
 }
\ No newline at end of file
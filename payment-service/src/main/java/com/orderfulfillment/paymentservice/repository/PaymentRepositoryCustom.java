@@ -0,0 +1,15 @@
+package com.orderfulfillment.paymentservice.repository;
+
+import java.util.List;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Records the outcomes of claimed payments with a single batched UPDATE. Each row is only
+     * updated while it is still PROCESSING under the update's claim token, so outcomes for
+     * claims that were reclaimed in the meantime are discarded.
+     *
+     * @return rows affected per update, in order: 1 if applied, 0 if the claim was lost
+     */
+    int[] applyStatusUpdates(List<PaymentStatusUpdate> updates);
+}
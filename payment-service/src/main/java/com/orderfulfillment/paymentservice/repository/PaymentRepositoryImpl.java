@@ -0,0 +1,99 @@
+package com.orderfulfillment.paymentservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * JDBC-backed bulk operations for {@link PaymentRepository}. Outcomes are written without
+ * loading entities, as one JDBC batch per call.
+ */
+public class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+
+    private static final String APPLY_STATUS_UPDATE_SQL =
+            "UPDATE payments SET status = ?, transaction_id = ?, failure_reason = ?, processed_at = ?, " +
+            "claimed_by = CASE WHEN ? = 'PENDING' THEN NULL ELSE claimed_by END, " +
+            "attempt_count = attempt_count - ?, next_attempt_at = ?, claim_token = NULL, lease_expires_at = NULL, " +
+            "updated_at = ? " +
+            "WHERE id = ? AND status = 'PROCESSING' AND claim_token = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public int[] applyStatusUpdates(List<PaymentStatusUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+
+        // Stored exactly as written, so a re-read can recognise rows this batch updated
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        int[][] batches = jdbcTemplate.batchUpdate(APPLY_STATUS_UPDATE_SQL, updates, updates.size(), (ps, update) -> {
+            ps.setString(1, update.getStatus().name());
+            ps.setString(2, update.getTransactionId());
+            ps.setString(3, update.getFailureReason());
+            ps.setTimestamp(4, update.getProcessedAt() == null ? null : Timestamp.valueOf(update.getProcessedAt()));
+            ps.setString(5, update.getStatus().name());
+            ps.setInt(6, update.isDeferred() ? 1 : 0);
+            ps.setTimestamp(7, update.getNextAttemptAt() == null ? null : Timestamp.valueOf(update.getNextAttemptAt()));
+            ps.setTimestamp(8, now);
+            ps.setLong(9, update.getPaymentId());
+            ps.setString(10, update.getClaimToken());
+        });
+
+        int[] affected = batches.length == 0 ? new int[0] : batches[0];
+        for (int count : affected) {
+            // Some drivers report batched rows as "succeeded, count unknown"; that says
+            // nothing about whether the claim still matched, so look at the rows instead
+            if (count == Statement.SUCCESS_NO_INFO) {
+                verifyUnknownCounts(updates, affected, now);
+                break;
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Resolves "count unknown" entries by re-reading the rows: an update applied only if the
+     * row carries the status it set, no claim token and this batch's update time. A row some
+     * other attempt finished or re-claimed fails the check and is reported as not applied.
+     */
+    private void verifyUnknownCounts(List<PaymentStatusUpdate> updates, int[] affected, Timestamp now) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < affected.length; i++) {
+            if (affected[i] == Statement.SUCCESS_NO_INFO) {
+                ids.add(updates.get(i).getPaymentId());
+            }
+        }
+
+        String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Map<Long, String> writtenStatuses = new HashMap<>();
+        jdbcTemplate.query("SELECT id, status FROM payments WHERE claim_token IS NULL AND updated_at = ? " +
+                        "AND id IN (" + placeholders + ")",
+                rs -> {
+                    writtenStatuses.put(rs.getLong("id"), rs.getString("status"));
+                },
+                Stream.concat(Stream.of(now), ids.stream()).toArray());
+
+        for (int i = 0; i < affected.length; i++) {
+            if (affected[i] == Statement.SUCCESS_NO_INFO) {
+                PaymentStatusUpdate update = updates.get(i);
+                affected[i] = update.getStatus().name().equals(writtenStatuses.get(update.getPaymentId())) ? 1 : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.orderfulfillment.paymentservice.repository;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome to record for a claimed payment. Applied only while the payment is still
+ * PROCESSING under the given claim token.
+ *
+ * Each factory is the set-based form of a {@link Payment} transition: the row is changed by
+ * a claim-fenced UPDATE, and {@link #applyTo} replays the same transition on the detached
+ * entity once the row was updated.
+ */
+public class PaymentStatusUpdate {
+
+    private final Long paymentId;
+    private final String claimToken;
+    private final PaymentStatus status;
+    private final String transactionId;
+    private final String failureReason;
+    private final LocalDateTime processedAt;
+    private final LocalDateTime nextAttemptAt;
+
+    private PaymentStatusUpdate(Long paymentId, String claimToken, PaymentStatus status,
+                                String transactionId, String failureReason, LocalDateTime processedAt) {
+        this(paymentId, claimToken, status, transactionId, failureReason, processedAt, null);
+    }
+
+    private PaymentStatusUpdate(Long paymentId, String claimToken, PaymentStatus status,
+                                String transactionId, String failureReason, LocalDateTime processedAt,
+                                LocalDateTime nextAttemptAt) {
+        this.paymentId = paymentId;
+        this.claimToken = claimToken;
+        this.status = status;
+        this.transactionId = transactionId;
+        this.failureReason = failureReason;
+        this.processedAt = processedAt;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public static PaymentStatusUpdate completed(Long paymentId, String claimToken, String transactionId) {
+        return new PaymentStatusUpdate(paymentId, claimToken, PaymentStatus.COMPLETED, transactionId, null, LocalDateTime.now());
+    }
+
+    public static PaymentStatusUpdate failed(Long paymentId, String claimToken, String failureReason) {
+        return new PaymentStatusUpdate(paymentId, claimToken, PaymentStatus.FAILED, null, failureReason, LocalDateTime.now());
+    }
+
+    public static PaymentStatusUpdate released(Long paymentId, String claimToken) {
+        return new PaymentStatusUpdate(paymentId, claimToken, PaymentStatus.PENDING, null, null, null);
+    }
+
+    /**
+     * Returns the payment to PENDING without counting the claim as an attempt, for payments
+     * that never reached the gateway. The payment is not claimed again before nextAttemptAt.
+     */
+    public static PaymentStatusUpdate deferred(Long paymentId, String claimToken, LocalDateTime nextAttemptAt) {
+        return new PaymentStatusUpdate(paymentId, claimToken, PaymentStatus.PENDING, null, null, null, nextAttemptAt);
+    }
+
+    public static PaymentStatusUpdate quarantined(Long paymentId, String claimToken, String reason) {
+        return new PaymentStatusUpdate(paymentId, claimToken, PaymentStatus.QUARANTINED, null, reason, null);
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public boolean isDeferred() {
+        return nextAttemptAt != null;
+    }
+
+    /**
+     * Replays this update on a detached entity through its transition methods, so the entity
+     * ends up as the row does.
+     */
+    public void applyTo(Payment payment) {
+        switch (status) {
+            case COMPLETED -> payment.markAsCompleted(transactionId);
+            case FAILED -> payment.markAsFailed(failureReason);
+            case QUARANTINED -> payment.markAsQuarantined(failureReason);
+            case PENDING -> {
+                if (isDeferred()) {
+                    payment.deferClaim(nextAttemptAt);
+                } else {
+                    payment.releaseClaim();
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected outcome status " + status);
+        }
+        payment.setProcessedAt(processedAt);
+    }
+}
@@ -0,0 +1,112 @@
+package com.orderfulfillment.paymentservice.scheduler;
+
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.metrics.PaymentStatusCounters;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out runs of the payment safety-net poll according to what the last run found.
+ *
+ * An empty poll doubles the delay, from payment.processing.poll.base-delay up to
+ * payment.processing.scheduled-delay. A full batch means a backlog, so the next run follows
+ * after payment.processing.poll.min-delay; a partial batch returns to the base delay.
+ *
+ * Back-to-back runs are capped by a budget: polling may keep the database busy for at most
+ * payment.processing.poll.max-duty-cycle of the wall-clock time, and is not sped up while
+ * the system load per core is above payment.processing.poll.max-cpu-load.
+ */
+@Component
+public class AdaptivePollingTrigger implements Trigger {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePollingTrigger.class);
+
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+    private final long minDelayMillis;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final double maxDutyCycle;
+    private final double maxCpuLoad;
+
+    private volatile long currentDelayMillis;
+
+    public AdaptivePollingTrigger(@Value("${payment.processing.poll.min-delay:0}") long minDelayMillis,
+                                  @Value("${payment.processing.poll.base-delay:1000}") long baseDelayMillis,
+                                  @Value("${payment.processing.scheduled-delay:60000}") long maxDelayMillis,
+                                  @Value("${payment.processing.poll.max-duty-cycle:0.5}") double maxDutyCycle,
+                                  @Value("${payment.processing.poll.max-cpu-load:0.8}") double maxCpuLoad,
+                                  PaymentStatusCounters paymentStatusCounters,
+                                  MeterRegistry meterRegistry) {
+        this.maxDelayMillis = Math.max(1, maxDelayMillis);
+        this.baseDelayMillis = Math.min(Math.max(1, baseDelayMillis), this.maxDelayMillis);
+        this.minDelayMillis = Math.min(Math.max(0, minDelayMillis), this.baseDelayMillis);
+        this.maxDutyCycle = Math.min(Math.max(maxDutyCycle, 0.01), 1.0);
+        this.maxCpuLoad = maxCpuLoad;
+        this.currentDelayMillis = this.baseDelayMillis;
+
+        Gauge.builder("payment.poller.interval", this, AdaptivePollingTrigger::getCurrentDelayMillis)
+                .description("Delay before the next payment safety-net poll")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("payment.poller.backlog", paymentStatusCounters, counters -> counters.get(PaymentStatus.PENDING))
+                .description("PENDING payments waiting to be claimed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adjusts the delay after a poll that claimed {@code claimed} of at most {@code batchSize}
+     * payments and took {@code elapsedNanos}.
+     */
+    public void onPollCompleted(int claimed, int batchSize, long elapsedNanos) {
+        long previous = currentDelayMillis;
+        long next;
+        if (claimed == 0) {
+            next = Math.min(maxDelayMillis, Math.max(baseDelayMillis, previous * 2));
+        } else if (claimed >= batchSize && !cpuOverBudget()) {
+            next = minDelayMillis;
+        } else {
+            next = baseDelayMillis;
+        }
+
+        // Idle for long enough that polling stays within its share of the database's time
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        long budgetDelay = (long) Math.ceil(elapsedMillis * (1 - maxDutyCycle) / maxDutyCycle);
+        next = Math.min(maxDelayMillis, Math.max(next, budgetDelay));
+
+        currentDelayMillis = next;
+        if (next != previous) {
+            logger.debug("Payment poll claimed {}/{} in {} ms, next poll in {} ms",
+                    claimed, batchSize, elapsedMillis, next);
+        }
+    }
+
+    public long getCurrentDelayMillis() {
+        return currentDelayMillis;
+    }
+
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        Instant lastCompletion = triggerContext.lastCompletion();
+        if (lastCompletion == null) {
+            return triggerContext.getClock().instant();
+        }
+        return lastCompletion.plusMillis(currentDelayMillis);
+    }
+
+    private boolean cpuOverBudget() {
+        double loadAverage = operatingSystem.getSystemLoadAverage();
+        // Not available on every platform
+        return loadAverage >= 0 && loadAverage / operatingSystem.getAvailableProcessors() > maxCpuLoad;
+    }
+}
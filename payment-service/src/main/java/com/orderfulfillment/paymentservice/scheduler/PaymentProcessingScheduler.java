@@ -1,5 +1,8 @@
 package com.orderfulfillment.paymentservice.scheduler;
 
+import com.orderfulfillment.paymentservice.notification.OrderNotificationService;
+import com.orderfulfillment.paymentservice.processing.PaymentLeaseReaper;
+import com.orderfulfillment.paymentservice.reconciliation.OrderPaymentReconciler;
 import com.orderfulfillment.paymentservice.service.PaymentService;
 import com.orderfulfillment.paymentservice.service.PaymentStatisticsService;
 import org.slf4j.Logger;
@@ -7,36 +10,110 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
 @Component
-public class PaymentProcessingScheduler {
+public class PaymentProcessingScheduler implements SchedulingConfigurer {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentProcessingScheduler.class);
 
     private final PaymentService paymentService;
     private final PaymentStatisticsService paymentStatisticsService;
+    private final PaymentLeaseReaper paymentLeaseReaper;
+    private final OrderNotificationService orderNotificationService;
+    private final AdaptivePollingTrigger adaptivePollingTrigger;
+    private final OrderPaymentReconciler orderPaymentReconciler;
 
-    @Value("${payment.processing.batch-size:10}")
+    @Value("${payment.processing.batch-size:${payment.gateway.batch.max-size:20}}")
     private int batchSize;
 
+    @Value("${payment.reconciliation.enabled:true}")
+    private boolean reconciliationEnabled;
+
+    @Value("${payment.reconciliation.repair:false}")
+    private boolean reconciliationRepair;
+
     @Autowired
     public PaymentProcessingScheduler(PaymentService paymentService,
-                                      PaymentStatisticsService paymentStatisticsService) {
+                                      PaymentStatisticsService paymentStatisticsService,
+                                      PaymentLeaseReaper paymentLeaseReaper,
+                                      OrderNotificationService orderNotificationService,
+                                      AdaptivePollingTrigger adaptivePollingTrigger,
+                                      OrderPaymentReconciler orderPaymentReconciler) {
         this.paymentService = paymentService;
         this.paymentStatisticsService = paymentStatisticsService;
+        this.paymentLeaseReaper = paymentLeaseReaper;
+        this.orderNotificationService = orderNotificationService;
+        this.adaptivePollingTrigger = adaptivePollingTrigger;
+        this.orderPaymentReconciler = orderPaymentReconciler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        // Runs back-to-back while there is a backlog and backs off when there is none
+        taskRegistrar.addTriggerTask(this::processEligiblePayments, adaptivePollingTrigger);
     }
 
-    @Scheduled(fixedDelayString = "${payment.processing.scheduled-delay:60000}")
     public void processEligiblePayments() {
-        logger.info("Starting scheduled payment processing job");
+        logger.debug("Starting scheduled payment processing job");
 
+        long startNanos = System.nanoTime();
+        int claimed = 0;
         try {
-            paymentService.processEligiblePayments();
-            logger.info("Completed scheduled payment processing job successfully");
+            claimed = paymentService.processEligiblePayments();
+            logger.debug("Completed scheduled payment processing job successfully");
 
         } catch (Exception e) {
             logger.error("Error occurred during scheduled payment processing", e);
+        } finally {
+            adaptivePollingTrigger.onPollCompleted(claimed, batchSize, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.processing.reaper-interval:30000}")
+    public void reclaimExpiredLeases() {
+        logger.debug("Running expired lease reclaim job");
+        try {
+            paymentLeaseReaper.reclaimExpiredLeases();
+        } catch (Exception e) {
+            logger.error("Error occurred during expired lease reclaim", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.notifications.retry.interval:10000}")
+    public void redeliverOrderNotifications() {
+        logger.debug("Running order notification redelivery job");
+        try {
+            orderNotificationService.redeliverDue();
+        } catch (Exception e) {
+            logger.error("Error occurred during order notification redelivery", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.statistics.reconcile-interval:900000}",
+            initialDelayString = "${payment.statistics.reconcile-interval:900000}")
+    public void reconcilePaymentCounters() {
+        logger.debug("Running payment counter reconciliation job");
+        try {
+            paymentStatisticsService.reconcileCounters();
+        } catch (Exception e) {
+            logger.error("Error occurred during payment counter reconciliation", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval:3600000}",
+            initialDelayString = "${payment.reconciliation.interval:3600000}")
+    public void reconcileOrdersAndPayments() {
+        if (!reconciliationEnabled) {
+            return;
+        }
+        logger.debug("Running order/payment reconciliation job");
+        try {
+            orderPaymentReconciler.reconcile(reconciliationRepair);
+        } catch (Exception e) {
+            logger.error("Error occurred during order/payment reconciliation", e);
         }
     }
 
@@ -1,10 +1,12 @@
 package com.orderfulfillment.paymentservice.service;
 
+import com.orderfulfillment.paymentservice.dto.PaymentPageDto;
 import com.orderfulfillment.paymentservice.dto.PaymentRequestDto;
 import com.orderfulfillment.paymentservice.dto.PaymentResponseDto;
 import com.orderfulfillment.paymentservice.enums.PaymentStatus;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PaymentService {
 
@@ -18,7 +20,24 @@ public interface PaymentService {
 
     List<PaymentResponseDto> getPaymentsByStatus(PaymentStatus status);
 
-    void processEligiblePayments();
+    /**
+     * One page of payments in ID order, starting after the given cursor. A null status
+     * lists payments in every status.
+     */
+    PaymentPageDto getPaymentPage(PaymentStatus status, Long after, int limit);
+
+    /**
+     * Passes every payment (in the given status, when not null) to the consumer in ID order,
+     * reading from a database cursor so memory does not grow with the result.
+     */
+    void streamPayments(PaymentStatus status, Consumer<PaymentResponseDto> consumer);
+
+    /**
+     * Claims and processes one batch of payments the work queue missed.
+     *
+     * @return the number of payments claimed
+     */
+    int processEligiblePayments();
 
     boolean existsByOrderId(Long orderId);
 }
\ No newline at end of file
@@ -1,13 +1,22 @@
 package com.orderfulfillment.paymentservice.service;
 
+import com.orderfulfillment.paymentservice.dto.RollingPaymentStatsDto;
+import com.orderfulfillment.paymentservice.dto.RollingWindowStatsDto;
 import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.metrics.PaymentRollingStats;
+import com.orderfulfillment.paymentservice.metrics.PaymentStatusCounters;
 import com.orderfulfillment.paymentservice.repository.PaymentRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
@@ -16,23 +25,67 @@ public class PaymentStatisticsService {
     private static final Logger logger = LoggerFactory.getLogger(PaymentStatisticsService.class);
 
     private final PaymentRepository paymentRepository;
+    private final PaymentStatusCounters paymentStatusCounters;
+    private final PaymentRollingStats paymentRollingStats;
+    private final TransactionTemplate readOnlyTransaction;
 
     @Autowired
-    public PaymentStatisticsService(PaymentRepository paymentRepository) {
+    public PaymentStatisticsService(PaymentRepository paymentRepository,
+                                    PaymentStatusCounters paymentStatusCounters,
+                                    PaymentRollingStats paymentRollingStats,
+                                    PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
+        this.paymentStatusCounters = paymentStatusCounters;
+        this.paymentRollingStats = paymentRollingStats;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
+    /**
+     * Payment counts by status from the live counters; does not query the database.
+     */
     public Map<PaymentStatus, Long> getPaymentCountsByStatus() {
+        return paymentStatusCounters.snapshot();
+    }
+
+    /**
+     * Payment outcomes and processing latency percentiles over the last minute, five minutes
+     * and hour. Served from memory; does not query the database.
+     */
+    public RollingPaymentStatsDto getRollingStats() {
+        Map<String, RollingWindowStatsDto> windows = new LinkedHashMap<>();
+        windows.put("1m", paymentRollingStats.window(60));
+        windows.put("5m", paymentRollingStats.window(300));
+        windows.put("1h", paymentRollingStats.window(3600));
+        return new RollingPaymentStatsDto(windows);
+    }
+
+    /**
+     * Counts payments by status in a single GROUP BY query. Runs in a programmatic read-only
+     * transaction, since it is also called from within this class where @Transactional would
+     * not apply.
+     */
+    public Map<PaymentStatus, Long> countPaymentsByStatusInDatabase() {
         logger.debug("Fetching payment counts by status");
 
-        Map<PaymentStatus, Long> stats = new HashMap<>();
+        return readOnlyTransaction.execute(status -> {
+            Map<PaymentStatus, Long> stats = new EnumMap<>(PaymentStatus.class);
+            for (PaymentStatus paymentStatus : PaymentStatus.values()) {
+                stats.put(paymentStatus, 0L);
+            }
+            for (PaymentRepository.StatusCount statusCount : paymentRepository.countGroupedByStatus()) {
+                stats.put(statusCount.getStatus(), statusCount.getCount());
+            }
+            return stats;
+        });
+    }
 
-        for (PaymentStatus status : PaymentStatus.values()) {
-            long count = paymentRepository.countByStatus(status);
-            stats.put(status, count);
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileCounters() {
+        long drift = paymentStatusCounters.reconcile(countPaymentsByStatusInDatabase());
+        if (drift > 0) {
+            logger.info("Reconciled payment status counters with the database, corrected drift of {}", drift);
         }
-
-        return stats;
     }
 
     public void logPaymentStatistics() {
@@ -47,4 +100,4 @@ public class PaymentStatisticsService {
         logger.info("Total payments: {}", totalPayments);
         logger.info("==========================");
     }
-}
\ No newline at end of file
+}
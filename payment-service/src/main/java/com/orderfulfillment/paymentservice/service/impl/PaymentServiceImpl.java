@@ -1,24 +1,44 @@
 package com.orderfulfillment.paymentservice.service.impl;
 
-import com.orderfulfillment.paymentservice.client.OrderServiceClient;
+import com.orderfulfillment.paymentservice.cache.PaymentByOrderCache;
+import com.orderfulfillment.paymentservice.dto.PaymentPageDto;
 import com.orderfulfillment.paymentservice.dto.PaymentRequestDto;
 import com.orderfulfillment.paymentservice.dto.PaymentResponseDto;
 import com.orderfulfillment.paymentservice.entity.Payment;
 import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.exception.DuplicatePaymentException;
 import com.orderfulfillment.paymentservice.exception.PaymentNotFoundException;
 import com.orderfulfillment.paymentservice.mapper.PaymentMapper;
+import com.orderfulfillment.paymentservice.metrics.PaymentStatusCounters;
+import com.orderfulfillment.paymentservice.processing.PaymentClaimService;
+import com.orderfulfillment.paymentservice.processing.PaymentCreatedEvent;
+import com.orderfulfillment.paymentservice.processing.PaymentProcessor;
+import com.orderfulfillment.paymentservice.processing.PaymentWorkerPool;
 import com.orderfulfillment.paymentservice.repository.PaymentRepository;
 import com.orderfulfillment.paymentservice.service.PaymentService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -28,18 +48,60 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final PaymentMapper paymentMapper;
-    private final OrderServiceClient orderServiceClient;
+    private final PaymentProcessor paymentProcessor;
+    private final PaymentWorkerPool paymentWorkerPool;
+    private final PaymentClaimService paymentClaimService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentStatusCounters paymentStatusCounters;
+    private final PaymentByOrderCache paymentByOrderCache;
+
+    @Value("${payment.processing.batch-size:${payment.gateway.batch.max-size:20}}")
+    private int batchSize;
+
+    @Value("${payment.processing.safety-net-delay:60000}")
+    private long safetyNetDelayMillis;
+
+    @Value("${payment.listing.max-page-size:500}")
+    private int maxPageSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AtomicLong lastBatchThroughput = new AtomicLong();
 
     @Autowired
     public PaymentServiceImpl(PaymentRepository paymentRepository,
                               PaymentMapper paymentMapper,
-                              OrderServiceClient orderServiceClient) {
+                              PaymentProcessor paymentProcessor,
+                              PaymentWorkerPool paymentWorkerPool,
+                              PaymentClaimService paymentClaimService,
+                              ApplicationEventPublisher eventPublisher,
+                              PaymentStatusCounters paymentStatusCounters,
+                              PaymentByOrderCache paymentByOrderCache,
+                              MeterRegistry meterRegistry) {
         this.paymentRepository = paymentRepository;
         this.paymentMapper = paymentMapper;
-        this.orderServiceClient = orderServiceClient;
+        this.paymentProcessor = paymentProcessor;
+        this.paymentWorkerPool = paymentWorkerPool;
+        this.paymentClaimService = paymentClaimService;
+        this.eventPublisher = eventPublisher;
+        this.paymentStatusCounters = paymentStatusCounters;
+        this.paymentByOrderCache = paymentByOrderCache;
+
+        Gauge.builder("payment.processing.throughput", lastBatchThroughput, AtomicLong::get)
+                .description("Payments per second achieved by the last processing batch")
+                .baseUnit("payments/s")
+                .register(meterRegistry);
     }
 
+    /**
+     * Creates the payment for an order, or returns the existing one if the order already has a
+     * payment for the same amount and payment method; a different amount or method is rejected
+     * as a conflict. Runs outside a transaction so the insert commits on its own: a duplicate is
+     * detected by the unique constraint on order_id, and only then is the existing payment read.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponseDto createPayment(PaymentRequestDto paymentRequestDto) {
         logger.info("Creating payment for order ID: {}", paymentRequestDto.getOrderId());
 
@@ -47,13 +109,41 @@ public class PaymentServiceImpl implements PaymentService {
         Payment payment = paymentMapper.toEntity(paymentRequestDto);
 
         // Save payment
-        Payment savedPayment = paymentRepository.save(payment);
+        Payment savedPayment;
+        try {
+            savedPayment = paymentRepository.save(payment);
+        } catch (DataIntegrityViolationException e) {
+            Payment existing = paymentRepository.findByOrderId(paymentRequestDto.getOrderId())
+                    .orElseThrow(() -> e);
+            if (!isSameRequest(existing, paymentRequestDto)) {
+                logger.warn("Conflicting payment request for order ID: {}: amount {} / {} differs from existing payment {} / {}",
+                        existing.getOrderId(), paymentRequestDto.getAmount(), paymentRequestDto.getPaymentMethod(),
+                        existing.getAmount(), existing.getPaymentMethod());
+                throw new DuplicatePaymentException("Order ID: " + existing.getOrderId()
+                        + " already has payment ID: " + existing.getId() + " for amount " + existing.getAmount()
+                        + " with payment method " + existing.getPaymentMethod());
+            }
+            logger.info("Payment already exists with ID: {} for order ID: {}, returning it",
+                    existing.getId(), existing.getOrderId());
+            return paymentMapper.toResponseDto(existing);
+        }
+
+        paymentStatusCounters.recordCreated(savedPayment.getStatus());
         logger.info("Payment created with ID: {} for order ID: {}",
                 savedPayment.getId(), savedPayment.getOrderId());
 
+        // The insert is already committed, so the work queue picks the payment up right away
+        eventPublisher.publishEvent(new PaymentCreatedEvent(savedPayment.getId(), savedPayment.getOrderId(),
+                savedPayment.getAmount(), savedPayment.getPaymentMethod(), savedPayment.getCreatedAt()));
+
         return paymentMapper.toResponseDto(savedPayment);
     }
 
+    private boolean isSameRequest(Payment existing, PaymentRequestDto paymentRequestDto) {
+        return existing.getAmount().compareTo(paymentRequestDto.getAmount()) == 0
+                && Objects.equals(existing.getPaymentMethod(), paymentRequestDto.getPaymentMethod());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PaymentResponseDto getPaymentById(Long paymentId) {
@@ -69,17 +159,25 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public PaymentResponseDto getPaymentByOrderId(Long orderId) {
+        // Hot path for order-service; cache hits never open a transaction or touch the database
+        PaymentResponseDto cached = paymentByOrderCache.get(orderId);
+        if (cached != null) {
+            return cached;
+        }
         logger.info("Fetching payment for order ID: {}", orderId);
 
+        long cacheVersion = paymentByOrderCache.version();
         Payment payment = paymentRepository.findByOrderId(orderId)
                 .orElseThrow(() -> {
                     logger.error("Payment not found for order ID: {}", orderId);
                     return new PaymentNotFoundException("Payment not found for order ID: " + orderId);
                 });
 
-        return paymentMapper.toResponseDto(payment);
+        PaymentResponseDto response = paymentMapper.toResponseDto(payment);
+        paymentByOrderCache.put(orderId, response, cacheVersion);
+        return response;
     }
 
     @Override
@@ -108,6 +206,48 @@ public class PaymentServiceImpl implements PaymentService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaymentPageDto getPaymentPage(PaymentStatus status, Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        long afterId = after == null ? 0L : after;
+
+        // One extra row tells whether there is a next page without a count query
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Payment> payments = status == null
+                ? paymentRepository.findByIdGreaterThanOrderByIdAsc(afterId, page)
+                : paymentRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, afterId, page);
+
+        boolean hasMore = payments.size() > pageSize;
+        List<PaymentResponseDto> items = payments.stream()
+                .limit(pageSize)
+                .map(paymentMapper::toResponseDto)
+                .collect(Collectors.toList());
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+
+        logger.debug("Listed {} payments with status {} after ID {}", items.size(), status, afterId);
+        return new PaymentPageDto(items, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamPayments(PaymentStatus status, Consumer<PaymentResponseDto> consumer) {
+        logger.info("Streaming payments with status: {}", status == null ? "any" : status);
+
+        long streamed = 0;
+        try (Stream<Payment> payments = status == null
+                ? paymentRepository.streamAll()
+                : paymentRepository.streamAllByStatus(status)) {
+            for (Payment payment : (Iterable<Payment>) payments::iterator) {
+                consumer.accept(paymentMapper.toResponseDto(payment));
+                // Keep the persistence context from holding on to every row read so far
+                entityManager.detach(payment);
+                streamed++;
+            }
+        }
+        logger.info("Streamed {} payments", streamed);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean existsByOrderId(Long orderId) {
@@ -118,82 +258,32 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    public void processEligiblePayments() {
-        logger.info("Starting processing of eligible payments");
-
-        // Find payments that are pending and older than 1 minute (for demo)
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(1);
-        List<Payment> eligiblePayments = paymentRepository.findEligibleForProcessing(
-                PaymentStatus.PENDING, cutoffTime);
-
-        logger.info("Found {} eligible payments for processing", eligiblePayments.size());
-
-        for (Payment payment : eligiblePayments) {
-            processPayment(payment);
-        }
-
-        logger.info("Completed processing of eligible payments");
-    }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int processEligiblePayments() {
+        logger.debug("Starting processing of eligible payments");
 
-    private void processPayment(Payment payment) {
-        try {
-            logger.info("Processing payment ID: {} for order ID: {}",
-                    payment.getId(), payment.getOrderId());
-
-            // Mark as processing
-            payment.markAsProcessing();
-            paymentRepository.save(payment);
-
-            // Simulate payment processing (90% success rate for demo)
-            boolean paymentSuccessful = Math.random() > 0.1;
+        // New payments are normally processed straight from the work queue. This only picks up
+        // payments the queue missed (e.g. across a restart), so it ignores anything recent.
+        // Claimed payments are PROCESSING under this instance's lease, so other replicas skip them.
+        LocalDateTime cutoffTime = LocalDateTime.now().minus(Duration.ofMillis(safetyNetDelayMillis));
+        List<Payment> eligiblePayments = paymentClaimService.claimEligible(cutoffTime, batchSize);
 
-            // Notify order service based on payment result
-            if (paymentSuccessful) {
-                notifyOrderServiceOfCompletion(payment);
-            } else {
-                notifyOrderServiceOfFailure(payment);
-            }
-
-            if (paymentSuccessful) {
-                String transactionId = "TXN-" + UUID.randomUUID().toString().substring(0, 8);
-                payment.markAsCompleted(transactionId);
-                logger.info("Payment ID: {} completed successfully with transaction ID: {}",
-                        payment.getId(), transactionId);
-            } else {
-                payment.markAsFailed("Payment processing failed - insufficient funds");
-                logger.warn("Payment ID: {} failed processing", payment.getId());
-            }
+        logger.debug("Claimed {} eligible payments for processing", eligiblePayments.size());
 
-            paymentRepository.save(payment);
-
-        } catch (Exception e) {
-            logger.error("Error processing payment ID: {}", payment.getId(), e);
-            try {
-                payment.markAsFailed("Internal processing error: " + e.getMessage());
-                paymentRepository.save(payment);
-            } catch (Exception saveException) {
-                logger.error("Failed to save payment failure state for ID: {}",
-                        payment.getId(), saveException);
-            }
+        if (eligiblePayments.isEmpty()) {
+            return 0;
         }
-    }
-
-    private void notifyOrderServiceOfCompletion(Payment payment) {
-        orderServiceClient.updateOrderStatusToCompleted(payment.getOrderId(), payment.getId())
-                .doOnSuccess(result -> logger.info("Successfully notified order service of payment completion for order: {}",
-                        payment.getOrderId()))
-                .doOnError(error -> logger.error("Failed to notify order service of payment completion for order: {}",
-                        payment.getOrderId(), error))
-                .subscribe();
-    }
 
-    private void notifyOrderServiceOfFailure(Payment payment) {
-        String reason = "Payment failed: " + payment.getFailureReason();
-        orderServiceClient.cancelOrder(payment.getOrderId(), reason)
-                .doOnSuccess(result -> logger.info("Successfully notified order service of payment failure for order: {}",
-                        payment.getOrderId()))
-                .doOnError(error -> logger.error("Failed to notify order service of payment failure for order: {}",
-                        payment.getOrderId(), error))
-                .subscribe();
+        // Gateway batches are processed concurrently; each worker saves in its own transaction
+        long startNanos = System.nanoTime();
+        paymentWorkerPool.processAll(paymentProcessor.groupIntoBatches(eligiblePayments), paymentProcessor::processBatch);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+
+        long paymentsPerSecond = eligiblePayments.size() * 1000L / elapsedMillis;
+        lastBatchThroughput.set(paymentsPerSecond);
+        logger.info("Completed processing of {} eligible payments in {} ms ({} payments/sec, mean gateway latency {} ms)",
+                eligiblePayments.size(), elapsedMillis, paymentsPerSecond,
+                String.format("%.1f", paymentProcessor.getMeanGatewayLatencyMillis()));
+        return eligiblePayments.size();
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.orderfulfillment.paymentservice.cache;
+
+import com.orderfulfillment.paymentservice.dto.PaymentResponseDto;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PaymentByOrderCacheTests {
+
+	@Test
+	void terminalPaymentsStayCachedAndNonTerminalOnesExpireOrAreInvalidated() throws InterruptedException {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		PaymentByOrderCache cache = new PaymentByOrderCache(100, 20, meterRegistry);
+
+		cache.put(1L, payment(1L, PaymentStatus.COMPLETED), cache.version());
+		cache.put(2L, payment(2L, PaymentStatus.PENDING), cache.version());
+		assertNotNull(cache.get(2L));
+
+		Thread.sleep(50);
+		assertNotNull(cache.get(1L));
+		assertNull(cache.get(2L), "Non-terminal payments expire after the TTL");
+
+		// A lookup that raced with a transition must not cache the state it loaded
+		long version = cache.version();
+		cache.invalidate(3L);
+		cache.put(3L, payment(3L, PaymentStatus.PROCESSING), version);
+		assertNull(cache.get(3L));
+
+		cache.put(4L, payment(4L, PaymentStatus.PROCESSING), cache.version());
+		cache.invalidateNonTerminal();
+		assertNull(cache.get(4L));
+		assertNotNull(cache.get(1L));
+
+		assertEquals(3.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+		assertEquals(3.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+		assertEquals(0.5, meterRegistry.get("cache.hit.ratio").gauge().value());
+	}
+
+	@Test
+	void cacheStaysWithinItsMaximumSize() {
+		PaymentByOrderCache cache = new PaymentByOrderCache(10, 60_000, new SimpleMeterRegistry());
+
+		for (long orderId = 1; orderId <= 50; orderId++) {
+			cache.put(orderId, payment(orderId, PaymentStatus.FAILED), cache.version());
+		}
+
+		assertEquals(10, cache.size());
+		assertNotNull(cache.get(50L));
+	}
+
+	private PaymentResponseDto payment(Long orderId, PaymentStatus status) {
+		PaymentResponseDto payment = new PaymentResponseDto();
+		payment.setOrderId(orderId);
+		payment.setAmount(new BigDecimal("10.00"));
+		payment.setStatus(status);
+		return payment;
+	}
+}
@@ -0,0 +1,130 @@
+package com.orderfulfillment.paymentservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "payment.listing.max-page-size=10")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentListingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	private static final long FIRST_ORDER_ID = 98_001L;
+	private static final long LAST_ORDER_ID = 98_025L;
+
+	// Other tests share the application context and database, so only this test's orders are checked
+	private final Set<Long> orderIds = new HashSet<>();
+
+	@BeforeEach
+	void setUp() {
+		for (long orderId = FIRST_ORDER_ID; orderId <= LAST_ORDER_ID; orderId++) {
+			paymentRepository.findByOrderId(orderId).ifPresent(paymentRepository::delete);
+			Payment payment = new Payment(orderId, new BigDecimal("20.00"), "CREDIT_CARD");
+			payment.setStatus(orderId % 5 == 0 ? PaymentStatus.FAILED : PaymentStatus.COMPLETED);
+			paymentRepository.save(payment);
+			orderIds.add(orderId);
+		}
+	}
+
+	@Test
+	void pagesFollowTheCursorAndAreCappedAtTheMaximumSize() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		AtomicInteger ownCompleted = new AtomicInteger();
+		String after = null;
+		int pages = 0;
+		do {
+			String uri = "/api/v1/payments/status/COMPLETED?limit=50" + (after == null ? "" : "&after=" + after);
+			JsonNode page = objectMapper.readTree(mockMvc.perform(get(uri))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			assertTrue(page.get("payments").size() <= 10);
+			page.get("payments").forEach(payment -> {
+				assertEquals("COMPLETED", payment.get("status").asText());
+				ids.add(payment.get("id").asLong());
+				if (orderIds.contains(payment.get("orderId").asLong())) {
+					ownCompleted.incrementAndGet();
+				}
+			});
+			after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+			pages++;
+		} while (after != null);
+
+		assertEquals(20, ownCompleted.get());
+		assertTrue(pages >= 2);
+		assertEquals(ids.stream().sorted().distinct().toList(), ids);
+
+		// Requests without a limit still get the plain JSON list
+		mockMvc.perform(get("/api/v1/payments"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void paymentsAreStreamedAsNdjson() throws Exception {
+		int ownFailed = 0;
+		for (JsonNode payment : stream("/api/v1/payments/status/FAILED")) {
+			assertEquals("FAILED", payment.get("status").asText());
+			if (orderIds.contains(payment.get("orderId").asLong())) {
+				ownFailed++;
+			}
+		}
+		assertEquals(5, ownFailed);
+
+		List<JsonNode> all = stream("/api/v1/payments");
+		assertEquals(25, all.stream().filter(payment -> orderIds.contains(payment.get("orderId").asLong())).count());
+		List<Long> ids = all.stream().map(payment -> payment.get("id").asLong()).toList();
+		assertEquals(ids.stream().sorted().toList(), ids);
+	}
+
+	private List<JsonNode> stream(String uri) throws Exception {
+		MvcResult result = mockMvc.perform(get(uri).accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		List<JsonNode> payments = new ArrayList<>();
+		for (String line : body.strip().split("\n")) {
+			payments.add(objectMapper.readTree(line));
+		}
+		return payments;
+	}
+}
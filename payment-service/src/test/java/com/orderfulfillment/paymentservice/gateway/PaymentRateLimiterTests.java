@@ -0,0 +1,41 @@
+package com.orderfulfillment.paymentservice.gateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentRateLimiterTests {
+
+	@Test
+	void bucketGrantsUpToBurstAndCanBeChangedAtRuntime() throws InterruptedException {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("payment.gateway.rate-limits.credit-card.rate", "10")
+				.withProperty("payment.gateway.rate-limits.credit-card.burst", "5");
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		PaymentRateLimiter rateLimiter = new PaymentRateLimiter(environment, meterRegistry);
+
+		assertEquals(5, rateLimiter.tryAcquire("CREDIT_CARD", 8));
+		assertEquals(0, rateLimiter.tryAcquire("credit_card", 1));
+		assertEquals(4, rateLimiter.tryAcquire("PAYPAL", 4), "Methods without a limit are not throttled");
+		assertEquals(4.0, meterRegistry.get("payment.gateway.rate-limit.throttled")
+				.tag("method", "CREDIT_CARD").counter().count());
+
+		Duration refillTime = rateLimiter.refillTime("CREDIT_CARD", 2);
+		assertTrue(refillTime.compareTo(Duration.ZERO) > 0 && refillTime.compareTo(Duration.ofMillis(200)) <= 0,
+				"Two tokens refill within 200 ms at 10/s, got " + refillTime);
+		assertEquals(Duration.ZERO, rateLimiter.refillTime("PAYPAL", 100));
+
+		Thread.sleep(250);
+		int refilled = rateLimiter.tryAcquire("CREDIT_CARD", 5);
+		assertTrue(refilled >= 1 && refilled <= 5, "Expected a partial refill, got " + refilled);
+
+		rateLimiter.update("CREDIT_CARD", 0, 0);
+		assertEquals(50, rateLimiter.tryAcquire("CREDIT_CARD", 50));
+		assertTrue(rateLimiter.snapshot().isEmpty());
+	}
+}
@@ -0,0 +1,88 @@
+package com.orderfulfillment.paymentservice.metrics;
+
+import com.orderfulfillment.paymentservice.dto.RollingWindowStatsDto;
+import com.orderfulfillment.paymentservice.entity.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentRollingStatsTests {
+
+	@Test
+	void windowsAggregateOutcomesAmountsAndFailureReasons() {
+		PaymentRollingStats rollingStats = new PaymentRollingStats(3600, 2, new SimpleMeterRegistry());
+
+		for (int i = 0; i < 3; i++) {
+			rollingStats.recordCompleted(completedPayment("10.50"));
+		}
+		rollingStats.recordFailed(failedPayment("5.25", "Card declined"));
+		rollingStats.recordFailed(failedPayment("5.25", "Insufficient funds"));
+		rollingStats.recordFailed(failedPayment("5.25", "Gateway timeout"));
+
+		RollingWindowStatsDto lastMinute = rollingStats.window(60);
+		assertEquals(60, lastMinute.getWindowSeconds());
+		assertEquals(3, lastMinute.getCompleted());
+		assertEquals(3, lastMinute.getFailed());
+		assertEquals(0.5, lastMinute.getSuccessRate(), 1e-9);
+		assertEquals(0.1, lastMinute.getPaymentsPerSecond(), 1e-9);
+		assertEquals(new BigDecimal("31.50"), lastMinute.getCompletedAmount());
+		assertEquals(new BigDecimal("15.75"), lastMinute.getFailedAmount());
+
+		// Only two distinct reasons are kept per bucket, the rest are folded into "Other"
+		assertEquals(1L, lastMinute.getFailureReasons().get("Card declined"));
+		assertEquals(1L, lastMinute.getFailureReasons().get("Insufficient funds"));
+		assertEquals(1L, lastMinute.getFailureReasons().get("Other"));
+
+		assertEquals(6, rollingStats.window(3600).getCompleted() + rollingStats.window(3600).getFailed());
+		assertTrue(lastMinute.getProcessingLatencyMillis().get("p50") > 0);
+	}
+
+	@Test
+	void latencyPercentilesComeFromTheWindowsOwnHistogram() {
+		PaymentRollingStats rollingStats = new PaymentRollingStats(3600, 20, new SimpleMeterRegistry());
+		assertTrue(rollingStats.window(60).getProcessingLatencyMillis().isEmpty());
+
+		for (int i = 0; i < 98; i++) {
+			rollingStats.recordCompleted(completedPayment("1.00", 100));
+		}
+		rollingStats.recordCompleted(completedPayment("1.00", 10_000));
+		rollingStats.recordCompleted(completedPayment("1.00", 10_000));
+
+		// Bins are 20% wide, so percentiles are exact to within that
+		Map<String, Double> latency = rollingStats.window(60).getProcessingLatencyMillis();
+		assertEquals(100, latency.get("p50"), 20);
+		assertEquals(100, latency.get("p95"), 20);
+		assertEquals(10_000, latency.get("p99"), 2_000);
+	}
+
+	private Payment completedPayment(String amount) {
+		Payment payment = processingPayment(amount);
+		payment.markAsCompleted("TXN-TEST");
+		return payment;
+	}
+
+	private Payment completedPayment(String amount, long latencyMillis) {
+		Payment payment = completedPayment(amount);
+		payment.setCreatedAt(payment.getProcessedAt().minusNanos(latencyMillis * 1_000_000));
+		return payment;
+	}
+
+	private Payment failedPayment(String amount, String failureReason) {
+		Payment payment = processingPayment(amount);
+		payment.markAsFailed(failureReason);
+		return payment;
+	}
+
+	private Payment processingPayment(String amount) {
+		Payment payment = new Payment(1L, new BigDecimal(amount), "CREDIT_CARD");
+		payment.setCreatedAt(LocalDateTime.now().minusSeconds(2));
+		payment.markAsProcessing();
+		return payment;
+	}
+}
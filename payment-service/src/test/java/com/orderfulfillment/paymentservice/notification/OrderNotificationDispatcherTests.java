@@ -0,0 +1,100 @@
+package com.orderfulfillment.paymentservice.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderNotificationDispatcherTests {
+
+	@Test
+	void notificationsForOneOrderAreSentInDispatchOrder() throws InterruptedException {
+		OrderNotificationDispatcher dispatcher = dispatcher(4, 4);
+		List<Integer> sent = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch done = new CountDownLatch(50);
+
+		for (int i = 0; i < 50; i++) {
+			int sequence = i;
+			// Alternating delays would let a later request overtake an earlier one without the lane
+			assertTrue(dispatcher.dispatch(7L, () -> Mono.fromRunnable(() -> {
+				sleep(sequence % 2 == 0 ? 3 : 0);
+				sent.add(sequence);
+				done.countDown();
+			}), error -> {}));
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(IntStream.range(0, 50).boxed().toList(), sent);
+		dispatcher.stop();
+	}
+
+	@Test
+	void requestsInFlightNeverExceedMaxInFlight() throws InterruptedException {
+		OrderNotificationDispatcher dispatcher = dispatcher(8, 3);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(40);
+
+		for (long orderId = 0; orderId < 40; orderId++) {
+			dispatcher.dispatch(orderId, () -> Mono.fromRunnable(() -> {
+				peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+				sleep(10);
+				running.decrementAndGet();
+				done.countDown();
+			}), error -> {});
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertTrue(peak.get() <= 3, "Peak in-flight " + peak.get() + " exceeded 3");
+		assertTrue(peak.get() > 1, "Expected requests for different orders to run concurrently");
+		dispatcher.stop();
+	}
+
+	@Test
+	void stopHandsBackNotificationsThatDidNotDrain() throws InterruptedException {
+		OrderNotificationDispatcher dispatcher = dispatcher(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger handedBack = new AtomicInteger();
+
+		dispatcher.dispatch(1L, () -> Mono.fromRunnable(() -> awaitQuietly(release)), error -> {});
+		dispatcher.dispatch(1L, () -> Mono.empty(), error -> handedBack.incrementAndGet());
+
+		dispatcher.stop();
+		release.countDown();
+
+		assertEquals(1, handedBack.get());
+		assertFalse(dispatcher.isRunning());
+		assertFalse(dispatcher.dispatch(1L, Mono::empty, error -> {}), "A stopped dispatcher accepts nothing");
+	}
+
+	private OrderNotificationDispatcher dispatcher(int lanes, int maxInFlight) {
+		return new OrderNotificationDispatcher(lanes, 100, maxInFlight, 1000, 5000, 200, new SimpleMeterRegistry());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.orderfulfillment.paymentservice.notification;
+
+import com.orderfulfillment.paymentservice.client.OrderServiceClient;
+import com.orderfulfillment.paymentservice.entity.OrderNotification;
+import com.orderfulfillment.paymentservice.enums.OrderNotificationType;
+import com.orderfulfillment.paymentservice.exception.OrderServiceException;
+import com.orderfulfillment.paymentservice.repository.OrderNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "payment.notifications.retry.initial-backoff=0")
+@ActiveProfiles("test")
+class OrderNotificationServiceTests {
+
+	@Autowired
+	private OrderNotificationService orderNotificationService;
+
+	@Autowired
+	private OrderNotificationRepository orderNotificationRepository;
+
+	@MockitoBean
+	private OrderServiceClient orderServiceClient;
+
+	@BeforeEach
+	void setUp() {
+		orderNotificationRepository.deleteAll();
+	}
+
+	@Test
+	void failedNotificationsAreQueuedAndRedeliveredOncePerOrderInOrder() throws Exception {
+		when(orderServiceClient.updateOrderStatusToCompleted(anyLong(), anyLong()))
+				.thenReturn(Mono.error(new OrderServiceException("Order service down")));
+
+		orderNotificationService.notifyOrder(9001L, 1L, OrderNotificationType.PAYMENT_COMPLETED, null);
+		awaitQueued(1);
+		orderNotificationService.notifyOrder(9001L, 2L, OrderNotificationType.PAYMENT_FAILED, "Payment failed: declined");
+		awaitQueued(2);
+
+		List<OrderNotification> queued = orderNotificationRepository.findAll();
+		assertEquals(1, queued.get(0).getAttempts());
+		assertEquals(0, queued.get(1).getAttempts());
+
+		// Nothing is delivered while order service reports itself unavailable
+		when(orderServiceClient.isOrderServiceAvailable()).thenReturn(Mono.just(false));
+		assertEquals(0, orderNotificationService.redeliverDue());
+		assertEquals(2, orderNotificationRepository.count());
+
+		when(orderServiceClient.isOrderServiceAvailable()).thenReturn(Mono.just(true));
+		when(orderServiceClient.updateOrderStatusToCompleted(anyLong(), anyLong())).thenReturn(Mono.empty());
+		when(orderServiceClient.cancelOrder(anyLong(), any())).thenReturn(Mono.empty());
+
+		// Only the oldest notification of an order is delivered per batch
+		assertEquals(1, orderNotificationService.redeliverDue());
+		assertEquals(1, orderNotificationService.redeliverDue());
+		assertEquals(0, orderNotificationRepository.count());
+
+		InOrder deliveries = inOrder(orderServiceClient);
+		deliveries.verify(orderServiceClient).updateOrderStatusToCompleted(9001L, 1L);
+		deliveries.verify(orderServiceClient).cancelOrder(9001L, "Payment failed: declined");
+	}
+
+	@Test
+	void notificationSentWhileAnEarlierOneIsFailingIsQueuedBehindIt() throws Exception {
+		when(orderServiceClient.updateOrderStatusToCompleted(anyLong(), anyLong()))
+				.thenReturn(Mono.delay(Duration.ofMillis(200))
+						.then(Mono.error(new OrderServiceException("Order service down"))));
+		when(orderServiceClient.cancelOrder(anyLong(), any())).thenReturn(Mono.empty());
+
+		// The second notification is dispatched while the first is still in flight
+		orderNotificationService.notifyOrder(9002L, 1L, OrderNotificationType.PAYMENT_COMPLETED, null);
+		orderNotificationService.notifyOrder(9002L, 2L, OrderNotificationType.PAYMENT_FAILED, "Payment failed: declined");
+		awaitQueued(2);
+
+		verify(orderServiceClient, never()).cancelOrder(anyLong(), any());
+		List<OrderNotification> queued = orderNotificationRepository.findAll();
+		assertEquals(OrderNotificationType.PAYMENT_COMPLETED, queued.get(0).getType());
+		assertEquals(OrderNotificationType.PAYMENT_FAILED, queued.get(1).getType());
+	}
+
+	private void awaitQueued(long expected) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (orderNotificationRepository.count() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(expected, orderNotificationRepository.count());
+	}
+}
@@ -0,0 +1,191 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.gateway.PaymentGateway;
+import com.orderfulfillment.paymentservice.gateway.PaymentGatewayResult;
+import com.orderfulfillment.paymentservice.gateway.PaymentGatewayRouter;
+import com.orderfulfillment.paymentservice.gateway.PaymentRateLimiter;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+		"payment.gateway.batch.max-size=3",
+		"payment.gateway.batch.partial-failure=RETRY_INDIVIDUALLY"
+})
+@ActiveProfiles("test")
+class PaymentBatchProcessingTests {
+
+	@Autowired
+	private PaymentProcessor paymentProcessor;
+
+	@Autowired
+	private PaymentClaimService paymentClaimService;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private PaymentRateLimiter paymentRateLimiter;
+
+	@MockitoBean
+	private PaymentGatewayRouter paymentGatewayRouter;
+
+	private final AtomicInteger batchCalls = new AtomicInteger();
+	private final AtomicInteger singleCalls = new AtomicInteger();
+	private final Map<Long, Integer> authorizations = new ConcurrentHashMap<>();
+	private volatile boolean singleCallsThrow;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+		when(paymentGatewayRouter.route(any())).thenReturn(new PaymentGateway() {
+			@Override
+			public String getName() {
+				return "stub";
+			}
+
+			@Override
+			public PaymentGatewayResult authorize(Payment payment) {
+				singleCalls.incrementAndGet();
+				if (singleCallsThrow) {
+					throw new IllegalStateException("Gateway connection reset");
+				}
+				authorizations.merge(payment.getId(), 1, Integer::sum);
+				return PaymentGatewayResult.approved("TXN-SINGLE");
+			}
+
+			@Override
+			public List<PaymentGatewayResult> authorizeBatch(List<Payment> payments) {
+				batchCalls.incrementAndGet();
+				payments.forEach(payment -> authorizations.merge(payment.getId(), 1, Integer::sum));
+				return List.of(
+						PaymentGatewayResult.approved("TXN-BATCH"),
+						PaymentGatewayResult.transientFailure("Gateway error"),
+						PaymentGatewayResult.declined("Card declined"));
+			}
+		});
+	}
+
+	@Test
+	void claimedPaymentsAreAuthorizedInBatchesPerMethodAndPartialFailuresRetried() {
+		for (long orderId = 93_001L; orderId <= 93_004L; orderId++) {
+			paymentRepository.save(new Payment(orderId, new BigDecimal("12.00"), "CREDIT_CARD"));
+		}
+		paymentRepository.save(new Payment(93_005L, new BigDecimal("12.00"), "PAYPAL"));
+
+		List<Payment> claimed = paymentClaimService.claimEligible(LocalDateTime.now().plusMinutes(1), 10);
+		List<List<Payment>> batches = paymentProcessor.groupIntoBatches(claimed);
+		assertEquals(List.of(3, 1, 1), batches.stream().map(List::size).toList());
+
+		paymentProcessor.processBatch(batches.get(0));
+
+		assertEquals(1, batchCalls.get());
+		assertEquals(1, singleCalls.get());
+		List<PaymentStatus> statuses = batches.get(0).stream()
+				.map(payment -> paymentRepository.findById(payment.getId()).orElseThrow().getStatus())
+				.toList();
+		assertEquals(List.of(PaymentStatus.COMPLETED, PaymentStatus.COMPLETED, PaymentStatus.FAILED), statuses);
+	}
+
+	@Test
+	void aRetryThatThrowsLeavesTheRestOfTheBatchAlone() {
+		singleCallsThrow = true;
+		for (long orderId = 93_021L; orderId <= 93_023L; orderId++) {
+			paymentRepository.save(new Payment(orderId, new BigDecimal("12.00"), "CREDIT_CARD"));
+		}
+
+		List<Payment> claimed = paymentClaimService.claimEligible(LocalDateTime.now().plusMinutes(1), 10);
+		paymentProcessor.processBatch(claimed);
+
+		assertEquals(1, singleCalls.get());
+		List<PaymentStatus> statuses = claimed.stream()
+				.map(payment -> paymentRepository.findById(payment.getId()).orElseThrow().getStatus())
+				.toList();
+		assertEquals(List.of(PaymentStatus.COMPLETED, PaymentStatus.PENDING, PaymentStatus.FAILED), statuses);
+		assertEquals(1, authorizations.get(claimed.get(0).getId()), "An approved payment is authorized once");
+	}
+
+	@Test
+	void paymentsOverTheRateLimitAreDeferredUntilTheirTokensRefill() {
+		paymentRateLimiter.update("BANK_TRANSFER", 0.001, 1);
+		try {
+			for (long orderId = 93_011L; orderId <= 93_013L; orderId++) {
+				paymentRepository.save(new Payment(orderId, new BigDecimal("12.00"), "BANK_TRANSFER"));
+			}
+
+			List<Payment> claimed = paymentClaimService.claimEligible(LocalDateTime.now().plusMinutes(1), 10);
+			paymentProcessor.processBatch(claimed);
+
+			assertEquals(1, singleCalls.get());
+			assertEquals(0, batchCalls.get());
+			List<Payment> stored = claimed.stream()
+					.map(payment -> paymentRepository.findById(payment.getId()).orElseThrow())
+					.toList();
+			assertEquals(PaymentStatus.COMPLETED, stored.get(0).getStatus());
+			LocalDateTime previousAttemptAt = LocalDateTime.now();
+			for (Payment deferred : stored.subList(1, stored.size())) {
+				assertEquals(PaymentStatus.PENDING, deferred.getStatus());
+				assertEquals(0, deferred.getAttemptCount());
+				assertTrue(deferred.getNextAttemptAt().isAfter(previousAttemptAt),
+						"Each deferred payment waits for one more token than the one before");
+				previousAttemptAt = deferred.getNextAttemptAt();
+			}
+
+			assertTrue(paymentClaimService.claimEligible(LocalDateTime.now().plusMinutes(1), 10).isEmpty(),
+					"Deferred payments are not claimed again before their tokens refill");
+		} finally {
+			paymentRateLimiter.update("BANK_TRANSFER", 0, 0);
+		}
+	}
+
+	@Test
+	void deferredPaymentsAreProcessedSoonAfterTheirTokensRefill() throws InterruptedException {
+		paymentRateLimiter.update("GIFT_CARD", 5, 1);
+		try {
+			for (long orderId = 93_031L; orderId <= 93_033L; orderId++) {
+				paymentRepository.save(new Payment(orderId, new BigDecimal("12.00"), "GIFT_CARD"));
+			}
+
+			List<Payment> claimed = paymentClaimService.claimEligible(LocalDateTime.now().plusMinutes(1), 10);
+			paymentProcessor.processBatch(claimed);
+			LocalDateTime lastRefill = paymentRepository.findById(claimed.get(2).getId()).orElseThrow().getNextAttemptAt();
+
+			// The scheduler is idle in tests, so only the work queue can pick the deferred payments up again
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (claimed.stream().anyMatch(payment -> paymentRepository.findById(payment.getId()).orElseThrow()
+					.getStatus() != PaymentStatus.COMPLETED) && System.nanoTime() < deadline) {
+				Thread.sleep(20);
+			}
+			LocalDateTime doneAt = LocalDateTime.now();
+
+			for (Payment payment : claimed) {
+				assertEquals(PaymentStatus.COMPLETED, paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+			}
+			assertEquals(3, singleCalls.get());
+			assertTrue(Duration.between(lastRefill, doneAt).compareTo(Duration.ofSeconds(1)) < 0,
+					"Processed " + Duration.between(lastRefill, doneAt).toMillis() + " ms after the refill");
+		} finally {
+			paymentRateLimiter.update("GIFT_CARD", 0, 0);
+		}
+	}
+}
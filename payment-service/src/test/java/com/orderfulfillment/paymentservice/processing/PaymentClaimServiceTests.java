@@ -0,0 +1,89 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentClaimServiceTests {
+
+	private static final int REPLICAS = 4;
+	private static final int PAYMENTS = 300;
+
+	@Autowired
+	private PaymentClaimService paymentClaimService;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentReplicasNeverClaimTheSamePayment() throws Exception {
+		List<Payment> payments = new ArrayList<>();
+		for (long i = 0; i < PAYMENTS; i++) {
+			payments.add(new Payment(50_000L + i, new BigDecimal("10.00"), "CREDIT_CARD"));
+		}
+		paymentRepository.saveAll(payments);
+
+		LocalDateTime cutoffTime = LocalDateTime.now().plusMinutes(1);
+		Map<Long, String> owners = new ConcurrentHashMap<>();
+		AtomicInteger duplicateClaims = new AtomicInteger();
+
+		ExecutorService replicas = Executors.newFixedThreadPool(REPLICAS);
+		List<Future<Integer>> claimedPerReplica = new ArrayList<>();
+		for (int r = 0; r < REPLICAS; r++) {
+			String owner = "replica-" + r;
+			claimedPerReplica.add(replicas.submit(() -> {
+				int claimed = 0;
+				while (paymentRepository.countByStatus(PaymentStatus.PENDING) > 0) {
+					for (Payment payment : paymentClaimService.claimEligible(owner, cutoffTime, 10)) {
+						if (owners.putIfAbsent(payment.getId(), owner) != null) {
+							duplicateClaims.incrementAndGet();
+						}
+						claimed++;
+					}
+				}
+				return claimed;
+			}));
+		}
+
+		int totalClaimed = 0;
+		for (Future<Integer> result : claimedPerReplica) {
+			totalClaimed += result.get(60, TimeUnit.SECONDS);
+		}
+		replicas.shutdown();
+
+		assertEquals(0, duplicateClaims.get(), "No payment may be claimed by two replicas");
+		assertEquals(PAYMENTS, totalClaimed);
+		assertEquals(PAYMENTS, owners.size());
+
+		for (Payment payment : paymentRepository.findAll()) {
+			assertEquals(PaymentStatus.PROCESSING, payment.getStatus());
+			assertEquals(owners.get(payment.getId()), payment.getClaimedBy());
+		}
+	}
+}
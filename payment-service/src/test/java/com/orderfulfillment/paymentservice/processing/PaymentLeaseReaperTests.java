@@ -0,0 +1,60 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentLeaseReaperTests {
+
+	@Autowired
+	private PaymentLeaseReaper paymentLeaseReaper;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+	}
+
+	@Test
+	void expiredLeasesAreReclaimedUntilAttemptsRunOut() {
+		Payment retryable = processingPayment(70_001L, 1, LocalDateTime.now().minusMinutes(1));
+		Payment poison = processingPayment(70_002L, 3, LocalDateTime.now().minusMinutes(1));
+		Payment active = processingPayment(70_003L, 1, LocalDateTime.now().plusMinutes(5));
+		Payment legacy = processingPayment(70_004L, 0, null);
+
+		assertEquals(3, paymentLeaseReaper.reclaimExpiredLeases());
+
+		Payment reclaimed = paymentRepository.findById(retryable.getId()).orElseThrow();
+		assertEquals(PaymentStatus.PENDING, reclaimed.getStatus());
+		assertNull(reclaimed.getClaimedBy());
+		assertNull(reclaimed.getLeaseExpiresAt());
+
+		assertEquals(PaymentStatus.QUARANTINED, paymentRepository.findById(poison.getId()).orElseThrow().getStatus());
+		assertEquals(PaymentStatus.PROCESSING, paymentRepository.findById(active.getId()).orElseThrow().getStatus());
+		assertEquals(PaymentStatus.PENDING, paymentRepository.findById(legacy.getId()).orElseThrow().getStatus());
+	}
+
+	private Payment processingPayment(Long orderId, int attempts, LocalDateTime leaseExpiresAt) {
+		Payment payment = new Payment(orderId, new BigDecimal("25.00"), "CREDIT_CARD");
+		payment.setStatus(PaymentStatus.PROCESSING);
+		payment.setClaimedBy("crashed-instance");
+		payment.setAttemptCount(attempts);
+		payment.setLeaseExpiresAt(leaseExpiresAt);
+		return paymentRepository.save(payment);
+	}
+}
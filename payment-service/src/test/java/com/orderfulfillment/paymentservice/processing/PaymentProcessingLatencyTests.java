@@ -0,0 +1,82 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.dto.PaymentRequestDto;
+import com.orderfulfillment.paymentservice.dto.PaymentResponseDto;
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import com.orderfulfillment.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentProcessingLatencyTests {
+
+	private static final int PAYMENTS = 50;
+	private static final long TIMEOUT_MILLIS = 10_000;
+	private static final long P50_BOUND_MILLIS = 250;
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+	}
+
+	@Test
+	void createdPaymentsAreProcessedWithoutWaitingForTheScheduler() throws Exception {
+		// A first round warms up the JIT, connection pool and gateway simulator
+		createAndAwaitCompletion(79_000L);
+		List<Long> latenciesMillis = createAndAwaitCompletion(80_000L);
+
+		Collections.sort(latenciesMillis);
+		long p50 = latenciesMillis.get(latenciesMillis.size() / 2);
+		// The simulated gateway answers in about 5 ms and the queue lingers 20 ms for a batch;
+		// the scheduler alone would need at least the one minute safety-net delay
+		assertTrue(p50 < P50_BOUND_MILLIS, "p50 create-to-completion latency was " + p50 + " ms");
+	}
+
+	private List<Long> createAndAwaitCompletion(long firstOrderId) throws InterruptedException {
+		Set<Long> pending = new HashSet<>();
+		for (long i = 0; i < PAYMENTS; i++) {
+			PaymentResponseDto created = paymentService.createPayment(
+					new PaymentRequestDto(firstOrderId + i, new BigDecimal("42.00"), "CREDIT_CARD"));
+			pending.add(created.getId());
+		}
+
+		// Latency is taken from the row's own timestamps, so it does not depend on how often we poll
+		List<Long> latenciesMillis = new ArrayList<>();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while (!pending.isEmpty() && System.nanoTime() < deadline) {
+			for (Payment payment : paymentRepository.findAllById(pending)) {
+				if (payment.getStatus().isTerminalStatus()) {
+					pending.remove(payment.getId());
+					latenciesMillis.add(Duration.between(payment.getCreatedAt(), payment.getProcessedAt()).toMillis());
+				}
+			}
+			Thread.sleep(20);
+		}
+
+		assertEquals(0, pending.size(), "All payments should reach a terminal status");
+		return latenciesMillis;
+	}
+}
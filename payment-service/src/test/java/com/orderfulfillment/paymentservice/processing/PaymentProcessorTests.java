@@ -0,0 +1,63 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+		"payment.gateway.simulator.error-rate=1.0",
+		"payment.gateway.simulator.latency.median=0",
+		"payment.processing.max-attempts=2"
+})
+@ActiveProfiles("test")
+class PaymentProcessorTests {
+
+	@Autowired
+	private PaymentProcessor paymentProcessor;
+
+	@Autowired
+	private PaymentClaimService paymentClaimService;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+	}
+
+	@Test
+	void transientGatewayFailuresReleaseTheClaimUntilAttemptsRunOut() {
+		Payment payment = paymentRepository.save(new Payment(92_001L, new BigDecimal("30.00"), "PAYPAL"));
+
+		paymentProcessor.process(claim());
+		Payment released = paymentRepository.findById(payment.getId()).orElseThrow();
+		assertEquals(PaymentStatus.PENDING, released.getStatus());
+		assertNull(released.getClaimedBy());
+		assertNull(released.getClaimToken());
+		assertEquals(1, released.getAttemptCount());
+
+		paymentProcessor.process(claim());
+		Payment quarantined = paymentRepository.findById(payment.getId()).orElseThrow();
+		assertEquals(PaymentStatus.QUARANTINED, quarantined.getStatus());
+		assertEquals(2, quarantined.getAttemptCount());
+	}
+
+	private Payment claim() {
+		List<Payment> claimed = paymentClaimService.claimEligible(LocalDateTime.now().plusMinutes(1), 10);
+		assertEquals(1, claimed.size());
+		return claimed.get(0);
+	}
+}
@@ -0,0 +1,144 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentWorkQueueLaneTests {
+
+	@Test
+	void paymentsAreClassifiedIntoLanes() {
+		PaymentWorkQueue workQueue = workQueue(mock(PaymentClaimService.class), 10);
+
+		workQueue.enqueue(1L, "credit_card", new BigDecimal("50.00"), LocalDateTime.now());
+		workQueue.enqueue(2L, "CREDIT_CARD", new BigDecimal("5000.00"), LocalDateTime.now());
+		workQueue.enqueue(3L, "BANK_TRANSFER", new BigDecimal("50.00"), LocalDateTime.now());
+		workQueue.enqueue(4L, "BANK_TRANSFER", new BigDecimal("1000.00"), LocalDateTime.now());
+
+		assertEquals(1, workQueue.size("interactive"));
+		assertEquals(2, workQueue.size("high-value"));
+		assertEquals(1, workQueue.size("bulk"));
+		assertEquals(4, workQueue.size());
+	}
+
+	@Test
+	void lanesAreServedInProportionToTheirWeight() throws InterruptedException {
+		List<List<Long>> claimedBatches = new CopyOnWriteArrayList<>();
+		PaymentClaimService claimService = mock(PaymentClaimService.class);
+		when(claimService.claimByIds(anyList())).thenAnswer(invocation -> {
+			claimedBatches.add(new ArrayList<>(invocation.<List<Long>>getArgument(0)));
+			return List.of();
+		});
+		PaymentWorkQueue workQueue = workQueue(claimService, 7);
+
+		// A backlog of bulk payments queued ahead of interactive and high-value ones
+		for (long id = 1; id <= 20; id++) {
+			workQueue.enqueue(id, "BANK_TRANSFER", new BigDecimal("10.00"), LocalDateTime.now());
+		}
+		for (long id = 101; id <= 120; id++) {
+			workQueue.enqueue(id, "PAYPAL", new BigDecimal("10.00"), LocalDateTime.now());
+		}
+		for (long id = 201; id <= 220; id++) {
+			workQueue.enqueue(id, "DEBIT_CARD", new BigDecimal("2500.00"), LocalDateTime.now());
+		}
+
+		workQueue.start();
+		try {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (claimedBatches.isEmpty() && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+		} finally {
+			workQueue.stop();
+		}
+
+		assertTrue(!claimedBatches.isEmpty(), "Dispatcher did not claim any payments");
+		List<Long> firstBatch = claimedBatches.get(0);
+		assertEquals(7, firstBatch.size());
+		// Weights 4:2:1 over one round of seven
+		assertEquals(4, firstBatch.stream().filter(id -> id > 100 && id <= 120).count());
+		assertEquals(2, firstBatch.stream().filter(id -> id > 200).count());
+		assertEquals(1, firstBatch.stream().filter(id -> id <= 20).count());
+	}
+
+	@Test
+	void paymentsThatWaitedLongEnoughMoveUpIntoAnAgeLaneAtDispatch() throws InterruptedException {
+		List<List<Long>> claimedBatches = new CopyOnWriteArrayList<>();
+		PaymentClaimService claimService = mock(PaymentClaimService.class);
+		when(claimService.claimByIds(anyList())).thenAnswer(invocation -> {
+			claimedBatches.add(new ArrayList<>(invocation.<List<Long>>getArgument(0)));
+			return List.of();
+		});
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("payment.processing.lanes[0].name", "interactive")
+				.withProperty("payment.processing.lanes[0].payment-methods", "CREDIT_CARD")
+				.withProperty("payment.processing.lanes[1].name", "aged")
+				.withProperty("payment.processing.lanes[1].weight", "10")
+				.withProperty("payment.processing.lanes[1].min-age", "50ms")
+				.withProperty("payment.processing.lanes[2].name", "bulk");
+		PaymentWorkQueue workQueue = workQueue(claimService, 12, environment);
+
+		// Queued payments are never put in an age lane directly, even if already old
+		for (long id = 1; id <= 10; id++) {
+			workQueue.enqueue(id, "BANK_TRANSFER", new BigDecimal("10.00"), LocalDateTime.now().minusSeconds(1));
+		}
+		assertEquals(0, workQueue.size("aged"));
+		for (long id = 101; id <= 110; id++) {
+			workQueue.enqueue(id, "BANK_TRANSFER", new BigDecimal("10.00"), LocalDateTime.now().plusMinutes(1));
+		}
+		for (long id = 201; id <= 210; id++) {
+			workQueue.enqueue(id, "CREDIT_CARD", new BigDecimal("10.00"), LocalDateTime.now());
+		}
+
+		workQueue.start();
+		try {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (claimedBatches.isEmpty() && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+		} finally {
+			workQueue.stop();
+		}
+
+		assertTrue(!claimedBatches.isEmpty(), "Dispatcher did not claim any payments");
+		List<Long> firstBatch = claimedBatches.get(0);
+		// Weights 1:10:1; without promotion the aged lane would be empty and bulk and interactive alternate
+		assertEquals(10, firstBatch.stream().filter(id -> id <= 10).count());
+		assertEquals(1, firstBatch.stream().filter(id -> id > 100 && id <= 110).count());
+		assertEquals(1, firstBatch.stream().filter(id -> id > 200).count());
+	}
+
+	private PaymentWorkQueue workQueue(PaymentClaimService claimService, int batchSize) {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("payment.processing.lanes[0].name", "interactive")
+				.withProperty("payment.processing.lanes[0].weight", "4")
+				.withProperty("payment.processing.lanes[0].payment-methods", "CREDIT_CARD,DEBIT_CARD,PAYPAL")
+				.withProperty("payment.processing.lanes[0].max-amount", "1000")
+				.withProperty("payment.processing.lanes[1].name", "high-value")
+				.withProperty("payment.processing.lanes[1].weight", "2")
+				.withProperty("payment.processing.lanes[1].min-amount", "1000")
+				.withProperty("payment.processing.lanes[2].name", "bulk")
+				.withProperty("payment.processing.lanes[2].weight", "1");
+		return workQueue(claimService, batchSize, environment);
+	}
+
+	private PaymentWorkQueue workQueue(PaymentClaimService claimService, int batchSize, MockEnvironment environment) {
+		PaymentProcessor paymentProcessor = mock(PaymentProcessor.class);
+		when(paymentProcessor.groupIntoBatches(anyList())).thenReturn(List.of());
+		return new PaymentWorkQueue(claimService, mock(PaymentWorkerPool.class), paymentProcessor,
+				environment, 100, batchSize, batchSize, 0, new SimpleMeterRegistry());
+	}
+}
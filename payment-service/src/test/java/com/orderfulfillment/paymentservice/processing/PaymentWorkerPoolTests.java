@@ -0,0 +1,55 @@
+package com.orderfulfillment.paymentservice.processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentWorkerPoolTests {
+
+	@Test
+	void paymentsInFlightNeverExceedMaxInFlight() throws Exception {
+		int maxInFlight = 6;
+		PaymentWorkerPool pool = new PaymentWorkerPool(8, maxInFlight, 1000, new SimpleMeterRegistry());
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		AtomicInteger processed = new AtomicInteger();
+
+		// Batches of two: at most three run at once, not six
+		List<List<Integer>> batches = IntStream.range(0, 20)
+				.mapToObj(i -> List.of(2 * i, 2 * i + 1))
+				.toList();
+		pool.processAll(batches, batch -> {
+			int now = running.addAndGet(batch.size());
+			peak.accumulateAndGet(now, Math::max);
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.addAndGet(-batch.size());
+			processed.addAndGet(batch.size());
+		});
+
+		assertEquals(40, processed.get());
+		assertTrue(peak.get() <= maxInFlight, "Peak payments in flight " + peak.get() + " exceeded " + maxInFlight);
+		assertTrue(peak.get() > 2, "Expected batches to run concurrently");
+		assertEquals(0, pool.getInFlight());
+
+		// A batch larger than the cap still runs instead of waiting for permits that never come
+		pool.submit(IntStream.range(0, 10).boxed().toList(), batch -> processed.addAndGet(batch.size()))
+				.get(5, TimeUnit.SECONDS);
+		assertEquals(50, processed.get());
+		assertEquals(0, pool.getInFlight());
+
+		pool.shutdown();
+		assertNull(pool.submit(List.of(1), batch -> {}), "A draining pool rejects new work");
+	}
+}
@@ -0,0 +1,194 @@
+package com.orderfulfillment.paymentservice.reconciliation;
+
+import com.orderfulfillment.paymentservice.client.OrderServiceClient;
+import com.orderfulfillment.paymentservice.dto.OrderStatusSummaryDto;
+import com.orderfulfillment.paymentservice.dto.OrderStatusUpdateDto;
+import com.orderfulfillment.paymentservice.dto.OrderStatusUpdateResultDto;
+import com.orderfulfillment.paymentservice.dto.ReconciliationMismatchDto;
+import com.orderfulfillment.paymentservice.dto.ReconciliationReportDto;
+import com.orderfulfillment.paymentservice.entity.OrderNotification;
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.OrderNotificationType;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.enums.ReconciliationMismatchType;
+import com.orderfulfillment.paymentservice.repository.OrderNotificationRepository;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+		"payment.reconciliation.chunk-size=3",
+		"payment.reconciliation.repair-batch-size=2",
+		"payment.reconciliation.grace-period=0"
+})
+@ActiveProfiles("test")
+class OrderPaymentReconcilerTests {
+
+	private static final LocalDateTime LONG_AGO = LocalDateTime.now().minusDays(1);
+
+	@Autowired
+	private OrderPaymentReconciler orderPaymentReconciler;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private OrderNotificationRepository orderNotificationRepository;
+
+	@MockitoBean
+	private OrderServiceClient orderServiceClient;
+
+	private final List<OrderStatusSummaryDto> orders = new ArrayList<>();
+	private final List<OrderStatusUpdateDto> sentRepairs = new ArrayList<>();
+	private int orderServiceMaxStreamSize;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+		orderNotificationRepository.deleteAll();
+		orders.clear();
+		sentRepairs.clear();
+		orderServiceMaxStreamSize = Integer.MAX_VALUE;
+
+		// Serves the orders above afterId in ID order, like order-service's status-summaries endpoint
+		when(orderServiceClient.streamOrderStatuses(anyLong(), anyInt())).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(0);
+			int limit = invocation.getArgument(1);
+			return Flux.fromIterable(orders)
+					.filter(order -> order.getId() > afterId)
+					.take(Math.min(limit, orderServiceMaxStreamSize));
+		});
+		when(orderServiceClient.updateOrderStatuses(any())).thenAnswer(invocation -> {
+			List<OrderStatusUpdateDto> updates = invocation.getArgument(0);
+			sentRepairs.addAll(updates);
+			return Mono.just(updates.stream()
+					.map(update -> new OrderStatusUpdateResultDto(update.getOrderId(), "APPLIED", null))
+					.collect(Collectors.toList()));
+		});
+	}
+
+	@Test
+	void mergeJoinsOrdersWithPaymentsAcrossChunksAndReportsMismatches() {
+		Long completedPayment = payment(99_001L, PaymentStatus.COMPLETED, null);
+		payment(99_002L, PaymentStatus.FAILED, "Insufficient funds");
+		Long matchingPayment = payment(99_003L, PaymentStatus.COMPLETED, null);
+		payment(99_005L, PaymentStatus.COMPLETED, null);
+		payment(99_006L, PaymentStatus.FAILED, "Card declined");
+		payment(99_100L, PaymentStatus.PENDING, null);
+
+		order(99_001L, "PAYMENT_PROCESSING", null);
+		order(99_002L, "PAYMENT_PROCESSING", null);
+		order(99_003L, "COMPLETED", matchingPayment);
+		order(99_004L, "PAYMENT_PROCESSING", null);
+		order(99_005L, "CANCELLED", null);
+		order(99_007L, "PENDING", null);
+		order(99_008L, "CONFIRMED", null);
+
+		ReconciliationReportDto report = orderPaymentReconciler.reconcile(false).orElseThrow();
+
+		assertTrue(report.isCompleted());
+		assertNull(report.getResumeAfterOrderId());
+		assertEquals(7, report.getOrdersScanned());
+		assertEquals(6, report.getPaymentsScanned());
+		assertEquals(Map.of(
+				ReconciliationMismatchType.ORDER_NOT_COMPLETED, 1L,
+				ReconciliationMismatchType.ORDER_NOT_CANCELLED, 1L,
+				ReconciliationMismatchType.MISSING_PAYMENT, 1L,
+				ReconciliationMismatchType.STATUS_CONFLICT, 1L,
+				ReconciliationMismatchType.ORPHAN_PAYMENT, 2L), report.getMismatches());
+
+		Map<Long, ReconciliationMismatchType> byOrder = report.getSample().stream()
+				.collect(Collectors.toMap(ReconciliationMismatchDto::getOrderId, ReconciliationMismatchDto::getType));
+		assertEquals(ReconciliationMismatchType.ORDER_NOT_COMPLETED, byOrder.get(99_001L));
+		assertEquals(ReconciliationMismatchType.ORDER_NOT_CANCELLED, byOrder.get(99_002L));
+		assertEquals(ReconciliationMismatchType.MISSING_PAYMENT, byOrder.get(99_004L));
+		assertEquals(ReconciliationMismatchType.STATUS_CONFLICT, byOrder.get(99_005L));
+		assertEquals(ReconciliationMismatchType.ORPHAN_PAYMENT, byOrder.get(99_006L));
+		assertEquals(ReconciliationMismatchType.ORPHAN_PAYMENT, byOrder.get(99_100L));
+		assertEquals(completedPayment, report.getSample().get(0).getPaymentId());
+
+		// Reporting only: nothing is sent to order-service
+		verify(orderServiceClient, never()).updateOrderStatuses(any());
+	}
+
+	@Test
+	void repairsLostNotificationsInBatchesUnlessANotificationIsStillQueued() {
+		for (long orderId = 99_011L; orderId <= 99_013L; orderId++) {
+			payment(orderId, PaymentStatus.COMPLETED, null);
+			order(orderId, "PAYMENT_PROCESSING", null);
+		}
+		payment(99_014L, PaymentStatus.FAILED, "Card declined");
+		order(99_014L, "PAYMENT_PROCESSING", null);
+		// Still queued for redelivery, so reconciliation leaves it alone
+		payment(99_015L, PaymentStatus.COMPLETED, null);
+		order(99_015L, "PAYMENT_PROCESSING", null);
+		orderNotificationRepository.save(new OrderNotification(99_015L, 1L, OrderNotificationType.PAYMENT_COMPLETED, null));
+
+		ReconciliationReportDto report = orderPaymentReconciler.reconcile(true).orElseThrow();
+
+		assertEquals(4, report.getRepaired());
+		assertEquals(0, report.getRepairFailed());
+		assertEquals(List.of(99_011L, 99_012L, 99_013L, 99_014L),
+				sentRepairs.stream().map(OrderStatusUpdateDto::getOrderId).collect(Collectors.toList()));
+		verify(orderServiceClient, times(2)).updateOrderStatuses(any());
+
+		OrderStatusUpdateDto completed = sentRepairs.get(0);
+		assertEquals("COMPLETED", completed.getStatus());
+		assertEquals(paymentRepository.findByOrderId(99_011L).orElseThrow().getId(), completed.getPaymentId());
+		OrderStatusUpdateDto cancelled = sentRepairs.get(3);
+		assertEquals("CANCELLED", cancelled.getStatus());
+		assertEquals("Payment failed: Card declined", cancelled.getReason());
+	}
+
+	@Test
+	void keepsReadingWhenOrderServiceReturnsShorterRangesThanRequested() {
+		orderServiceMaxStreamSize = 2;
+		for (long orderId = 99_021L; orderId <= 99_025L; orderId++) {
+			Long paymentId = payment(orderId, PaymentStatus.COMPLETED, null);
+			order(orderId, "COMPLETED", paymentId);
+		}
+
+		ReconciliationReportDto report = orderPaymentReconciler.reconcile(true).orElseThrow();
+
+		assertTrue(report.isCompleted());
+		assertEquals(5, report.getOrdersScanned());
+		assertEquals(5, report.getPaymentsScanned());
+		assertTrue(report.getMismatches().isEmpty(), "A truncated range is not the end of the orders");
+		verify(orderServiceClient, never()).updateOrderStatuses(any());
+	}
+
+	private Long payment(Long orderId, PaymentStatus status, String failureReason) {
+		Payment payment = new Payment(orderId, new BigDecimal("25.00"), "CREDIT_CARD");
+		payment.setStatus(status);
+		payment.setFailureReason(failureReason);
+		return paymentRepository.save(payment).getId();
+	}
+
+	private void order(Long orderId, String status, Long paymentId) {
+		orders.add(new OrderStatusSummaryDto(orderId, status, paymentId, LONG_AGO));
+	}
+}
@@ -0,0 +1,189 @@
+package com.orderfulfillment.paymentservice.repository;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentBulkTransitionTests {
+
+	private static final int PAYMENTS = 1000;
+	private static final int BATCH_SIZE = 20;
+	private static final AtomicLong ROUND_TRIPS = new AtomicLong();
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+	}
+
+	@Test
+	void outcomesAreOnlyAppliedWhileTheClaimIsHeld() {
+		Payment held = paymentRepository.save(claimedPayment(94_001L, "token-held"));
+		Payment lost = paymentRepository.save(claimedPayment(94_002L, "token-new"));
+
+		int[] applied = paymentRepository.applyStatusUpdates(List.of(
+				PaymentStatusUpdate.completed(held.getId(), "token-held", "TXN-1"),
+				PaymentStatusUpdate.failed(lost.getId(), "token-old", "Card declined")));
+
+		assertArrayEquals(new int[]{1, 0}, applied);
+		Payment completed = paymentRepository.findById(held.getId()).orElseThrow();
+		assertEquals(PaymentStatus.COMPLETED, completed.getStatus());
+		assertEquals("TXN-1", completed.getTransactionId());
+		assertEquals(PaymentStatus.PROCESSING, paymentRepository.findById(lost.getId()).orElseThrow().getStatus());
+
+		// A second outcome for the same claim is rejected as well
+		assertArrayEquals(new int[]{0}, paymentRepository.applyStatusUpdates(List.of(
+				PaymentStatusUpdate.released(held.getId(), "token-held"))));
+	}
+
+	@Test
+	void countUnknownFromTheDriverIsCheckedAgainstTheRows() {
+		Payment held = paymentRepository.save(claimedPayment(94_011L, "token-held"));
+		Payment lost = paymentRepository.save(claimedPayment(94_012L, "token-new"));
+		Payment finished = paymentRepository.save(claimedPayment(94_013L, "token-done"));
+		finished.markAsCompleted("TXN-OTHER");
+		finished.setClaimToken(null);
+		paymentRepository.save(finished);
+
+		// Reports every batched row as "succeeded, count unknown", as some drivers do
+		PaymentRepositoryImpl noInfoRepository = new PaymentRepositoryImpl(new JdbcTemplate(dataSource) {
+			@Override
+			public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+					ParameterizedPreparedStatementSetter<T> pss) {
+				int[][] counts = super.batchUpdate(sql, batchArgs, batchSize, pss);
+				for (int[] batch : counts) {
+					Arrays.fill(batch, Statement.SUCCESS_NO_INFO);
+				}
+				return counts;
+			}
+		});
+
+		int[] applied = noInfoRepository.applyStatusUpdates(List.of(
+				PaymentStatusUpdate.completed(held.getId(), "token-held", "TXN-1"),
+				PaymentStatusUpdate.failed(lost.getId(), "token-old", "Card declined"),
+				PaymentStatusUpdate.completed(finished.getId(), "token-done", "TXN-2")));
+
+		assertArrayEquals(new int[]{1, 0, 0}, applied);
+		assertEquals(PaymentStatus.PROCESSING, paymentRepository.findById(lost.getId()).orElseThrow().getStatus());
+		assertEquals("TXN-OTHER", paymentRepository.findById(finished.getId()).orElseThrow().getTransactionId());
+	}
+
+	@Test
+	void bulkTransitionsUseFarFewerRoundTripsThanEntitySaves() {
+		List<Payment> payments = seed(95_000L);
+
+		long start = ROUND_TRIPS.get();
+		for (Payment payment : payments) {
+			Payment loaded = paymentRepository.findById(payment.getId()).orElseThrow();
+			loaded.markAsCompleted("TXN-ENTITY");
+			paymentRepository.save(loaded);
+		}
+		long entityRoundTrips = ROUND_TRIPS.get() - start;
+
+		payments = seed(96_000L);
+		start = ROUND_TRIPS.get();
+		for (int from = 0; from < payments.size(); from += BATCH_SIZE) {
+			List<PaymentStatusUpdate> updates = new ArrayList<>();
+			for (Payment payment : payments.subList(from, Math.min(from + BATCH_SIZE, payments.size()))) {
+				updates.add(PaymentStatusUpdate.completed(payment.getId(), payment.getClaimToken(), "TXN-BULK"));
+			}
+			paymentRepository.applyStatusUpdates(updates);
+		}
+		long bulkRoundTrips = ROUND_TRIPS.get() - start;
+
+		assertEquals(PAYMENTS * 2L, paymentRepository.countByStatus(PaymentStatus.COMPLETED));
+		// At least a select and an update per payment, against one JDBC batch per gateway batch
+		assertTrue(entityRoundTrips >= PAYMENTS * 2L, "Entity saves took " + entityRoundTrips + " round trips");
+		assertEquals(PAYMENTS / BATCH_SIZE, bulkRoundTrips);
+	}
+
+	private List<Payment> seed(long firstOrderId) {
+		List<Payment> payments = new ArrayList<>();
+		for (int i = 0; i < PAYMENTS; i++) {
+			payments.add(claimedPayment(firstOrderId + i, "token-" + (firstOrderId + i)));
+		}
+		return paymentRepository.saveAll(payments);
+	}
+
+	private Payment claimedPayment(Long orderId, String claimToken) {
+		Payment payment = new Payment(orderId, new BigDecimal("15.00"), "CREDIT_CARD");
+		payment.setStatus(PaymentStatus.PROCESSING);
+		payment.setClaimToken(claimToken);
+		return payment;
+	}
+
+	/**
+	 * Counts statements executed against the database; a JDBC batch counts once.
+	 */
+	@TestConfiguration
+	static class RoundTripCountingConfig {
+
+		@Bean
+		static BeanPostProcessor roundTripCountingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? counting(dataSource, DataSource.class) : bean;
+				}
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T counting(T target, Class<T> type) {
+			return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+				Object result;
+				try {
+					result = method.invoke(target, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+				if (result instanceof Connection connection) {
+					return counting(connection, Connection.class);
+				}
+				if (result instanceof Statement statement && target instanceof Connection) {
+					return counting(statement, (Class<Statement>) statementType(method.getReturnType()));
+				}
+				if (target instanceof Statement && method.getName().startsWith("execute")) {
+					ROUND_TRIPS.incrementAndGet();
+				}
+				return result;
+			});
+		}
+
+		private static Class<?> statementType(Class<?> returnType) {
+			return Statement.class.isAssignableFrom(returnType) ? returnType : Statement.class;
+		}
+	}
+}
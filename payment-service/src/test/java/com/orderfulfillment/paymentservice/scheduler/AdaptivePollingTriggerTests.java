@@ -0,0 +1,33 @@
+package com.orderfulfillment.paymentservice.scheduler;
+
+import com.orderfulfillment.paymentservice.metrics.PaymentStatusCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptivePollingTriggerTests {
+
+	@Test
+	void delayBacksOffWhenIdleAndShrinksUnderBacklogWithinBudget() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		AdaptivePollingTrigger trigger = new AdaptivePollingTrigger(0, 1000, 8000, 0.5, Double.MAX_VALUE,
+				new PaymentStatusCounters(meterRegistry), meterRegistry);
+
+		trigger.onPollCompleted(0, 10, 0);
+		assertEquals(2000, trigger.getCurrentDelayMillis());
+		trigger.onPollCompleted(0, 10, 0);
+		trigger.onPollCompleted(0, 10, 0);
+		trigger.onPollCompleted(0, 10, 0);
+		assertEquals(8000, trigger.getCurrentDelayMillis());
+
+		trigger.onPollCompleted(10, 10, TimeUnit.MILLISECONDS.toNanos(5));
+		assertEquals(5, trigger.getCurrentDelayMillis(), "Full batches run back-to-back within the duty cycle");
+		assertEquals(5.0, meterRegistry.get("payment.poller.interval").gauge().value());
+
+		trigger.onPollCompleted(3, 10, 0);
+		assertEquals(1000, trigger.getCurrentDelayMillis());
+	}
+}
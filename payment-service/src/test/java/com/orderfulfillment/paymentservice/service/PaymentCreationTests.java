@@ -0,0 +1,87 @@
+package com.orderfulfillment.paymentservice.service;
+
+import com.orderfulfillment.paymentservice.dto.PaymentRequestDto;
+import com.orderfulfillment.paymentservice.dto.PaymentResponseDto;
+import com.orderfulfillment.paymentservice.exception.DuplicatePaymentException;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentCreationTests {
+
+	private static final int REQUESTS = 8;
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentRequestsForTheSameOrderCreateOnePayment() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<PaymentResponseDto>> results = new ArrayList<>();
+			for (int i = 0; i < REQUESTS; i++) {
+				Callable<PaymentResponseDto> create = () -> {
+					start.await();
+					return paymentService.createPayment(
+							new PaymentRequestDto(97_001L, new BigDecimal("64.00"), "CREDIT_CARD"));
+				};
+				results.add(executor.submit(create));
+			}
+			start.countDown();
+
+			Set<Long> paymentIds = new HashSet<>();
+			for (Future<PaymentResponseDto> result : results) {
+				paymentIds.add(result.get().getId());
+			}
+
+			assertEquals(1, paymentIds.size());
+			assertEquals(1, paymentRepository.count());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void repeatedRequestIsReplayedOnlyWhenIdentical() {
+		PaymentResponseDto created = paymentService.createPayment(
+				new PaymentRequestDto(97_002L, new BigDecimal("64.00"), "CREDIT_CARD"));
+
+		PaymentResponseDto replayed = paymentService.createPayment(
+				new PaymentRequestDto(97_002L, new BigDecimal("64.0"), "CREDIT_CARD"));
+		assertEquals(created.getId(), replayed.getId());
+
+		assertThrows(DuplicatePaymentException.class, () -> paymentService.createPayment(
+				new PaymentRequestDto(97_002L, new BigDecimal("65.00"), "CREDIT_CARD")));
+		assertThrows(DuplicatePaymentException.class, () -> paymentService.createPayment(
+				new PaymentRequestDto(97_002L, new BigDecimal("64.00"), "PAYPAL")));
+		assertEquals(1, paymentRepository.count());
+	}
+}
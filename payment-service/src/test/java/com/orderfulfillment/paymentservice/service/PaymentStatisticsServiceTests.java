@@ -0,0 +1,63 @@
+package com.orderfulfillment.paymentservice.service;
+
+import com.orderfulfillment.paymentservice.entity.Payment;
+import com.orderfulfillment.paymentservice.enums.PaymentStatus;
+import com.orderfulfillment.paymentservice.processing.PaymentClaimService;
+import com.orderfulfillment.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentStatisticsServiceTests {
+
+	@Autowired
+	private PaymentStatisticsService paymentStatisticsService;
+
+	@Autowired
+	private PaymentClaimService paymentClaimService;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+		paymentStatisticsService.reconcileCounters();
+	}
+
+	@Test
+	void countersFollowTransitionsAndReconcileWithTheDatabase() {
+		for (long orderId = 91_001L; orderId <= 91_005L; orderId++) {
+			paymentRepository.save(new Payment(orderId, new BigDecimal("10.00"), "CREDIT_CARD"));
+		}
+		Payment completed = new Payment(91_006L, new BigDecimal("10.00"), "PAYPAL");
+		completed.setStatus(PaymentStatus.COMPLETED);
+		paymentRepository.save(completed);
+
+		// Rows written behind the service's back are only picked up by reconciliation
+		assertEquals(0L, paymentStatisticsService.getPaymentCountsByStatus().get(PaymentStatus.PENDING));
+		paymentStatisticsService.reconcileCounters();
+
+		Map<PaymentStatus, Long> counts = paymentStatisticsService.getPaymentCountsByStatus();
+		assertEquals(5L, counts.get(PaymentStatus.PENDING));
+		assertEquals(1L, counts.get(PaymentStatus.COMPLETED));
+		assertEquals(0L, counts.get(PaymentStatus.FAILED));
+
+		assertEquals(2, paymentClaimService.claimEligible(LocalDateTime.now().plusMinutes(1), 2).size());
+
+		counts = paymentStatisticsService.getPaymentCountsByStatus();
+		assertEquals(3L, counts.get(PaymentStatus.PENDING));
+		assertEquals(2L, counts.get(PaymentStatus.PROCESSING));
+		assertEquals(paymentStatisticsService.countPaymentsByStatusInDatabase(), counts);
+	}
+}